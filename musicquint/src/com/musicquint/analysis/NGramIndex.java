@@ -0,0 +1,637 @@
+package com.musicquint.analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+
+/**
+ * On-disk inverted index of the melodic n-grams of a corpus of scores. The
+ * melody of a lane, i.e. of the voices with the same index in all bars of a
+ * part, is the sequence of the highest {@link Pitched} item at every key of its
+ * voices. Rests are skipped. An n-gram of {@code n} consecutive notes is
+ * described by the {@code n - 1} intervals between their
+ * {@linkplain Pitch#asInt() pitches} and the {@code n - 1} ratios between their
+ * durations, hence the index finds melodies regardless of their transposition
+ * and their tempo. Every n-gram is identified by a 64-bit hash of its intervals
+ * and ratios.
+ * </p>
+ * An index is created with a {@link Builder} and written to a file that
+ * consists of a header, the posting lists of all n-grams and a dictionary. The
+ * header contains the magic number "MQNG", the version, {@code n} and the
+ * position of the dictionary. A posting list contains the position of the first
+ * note of every occurrence of its n-gram, in ascending order of the score, the
+ * part, the lane and the note number. The positions are stored as varints of 7
+ * bits per byte, where the score and the note number are delta coded. The
+ * dictionary is a table of fixed-size entries that are sorted by the hash of
+ * their n-gram and contain the position and the length of its posting list.
+ * </p>
+ * {@link #open(Path)} maps the file into memory without decoding it. As a
+ * single mapped buffer is limited to 2 GB, the file is mapped in segments of
+ * 1 GB and all positions are longs, hence the index of a large corpus may
+ * exceed 2 GB. A query finds the entries of its n-grams by binary searches in
+ * the mapped dictionary and merges their posting lists, hence it decodes only
+ * the posting lists of the n-grams of the query.
+ */
+public final class NGramIndex {
+
+    private static final int MAGIC = 0x4D514E47;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 20;
+
+    private static final int ENTRY_LENGTH = 20;
+
+    /**
+     * The number of bits of the position within a mapped segment.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+
+    private final int n;
+
+    private final long dictionary;
+
+    private final int gramCount;
+
+    private NGramIndex(ByteBuffer[] segments, long size) {
+        this.segments = segments;
+        if (size < HEADER_LENGTH || getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The file does not contain an n-gram index.");
+        }
+        int version = getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("The version " + version + " of the n-gram index is not supported.");
+        }
+        this.n = getInt(8);
+        this.dictionary = getLong(12);
+        if (dictionary < HEADER_LENGTH || dictionary > size - Integer.BYTES) {
+            throw new IllegalArgumentException("The position " + dictionary + " of the dictionary is invalid.");
+        }
+        this.gramCount = getInt(dictionary);
+        if (gramCount < 0 || (size - dictionary - Integer.BYTES) / ENTRY_LENGTH < gramCount) {
+            throw new IllegalArgumentException("The dictionary with " + gramCount + " entries is truncated.");
+        }
+    }
+
+    /**
+     * Opens the index in the file with the given path. The file is mapped into
+     * memory and must not be modified while the index is in use.
+     *
+     * @param path the path of the index file.
+     * @return the index.
+     * @throws IOException          if the file cannot be read or is not an n-gram
+     *                              index of a supported version.
+     * @throws NullPointerException if the path is null.
+     */
+    public static NGramIndex open(Path path) throws IOException {
+        Objects.requireNonNull(path, "The path is null.");
+        ByteBuffer[] segments;
+        long size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            segments = new ByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(SEGMENT_MASK + 1, size - position);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The file " + path + " cannot be mapped.", e);
+        }
+        try {
+            return new NGramIndex(segments, size);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("The file " + path + " is not a valid n-gram index.", e);
+        }
+    }
+
+    /**
+     * Returns the number of notes of the indexed n-grams.
+     *
+     * @return the length {@code n} of the n-grams.
+     */
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Returns the number of distinct n-grams in the index.
+     *
+     * @return the number of n-grams.
+     */
+    public int getGramCount() {
+        return gramCount;
+    }
+
+    /**
+     * Finds all occurrences of the melody with the given pitches and durations.
+     * The melody may be transposed and its durations may be scaled by a common
+     * factor. The melody must consist of at least {@code n} notes.
+     *
+     * @param pitches   the pitches of the melody.
+     * @param durations the durations of the notes of the melody.
+     * @return the positions of the first notes of all occurrences in ascending
+     *         order.
+     * @throws NullPointerException     if any argument, pitch or duration is null.
+     * @throws IllegalArgumentException if the lists are of different sizes, the
+     *                                  melody has less than {@code n} notes or a
+     *                                  duration is not greater than zero.
+     */
+    public List<Hit> find(List<Pitch> pitches, List<BarTime> durations) {
+        Objects.requireNonNull(pitches, "The list of pitches is null.");
+        Objects.requireNonNull(durations, "The list of durations is null.");
+        if (pitches.size() != durations.size()) {
+            throw new IllegalArgumentException(
+                    "The melody has " + pitches.size() + " pitches but " + durations.size() + " durations.");
+        }
+        if (pitches.size() < n) {
+            throw new IllegalArgumentException("The melody has less than " + n + " notes.");
+        }
+        int[] keys = new int[pitches.size()];
+        long[] lengths = new long[durations.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Objects.requireNonNull(pitches.get(i), "A pitch is null.").asInt();
+            lengths[i] = BarTimes.pack(Objects.requireNonNull(durations.get(i), "A duration is null."));
+            if (BarTimes.signum(lengths[i]) <= 0) {
+                throw new IllegalArgumentException("The duration " + durations.get(i) + " is not greater than zero.");
+            }
+        }
+        List<Hit> candidates = postings(hash(keys, lengths, 0, n));
+        for (int offset = 1; offset + n <= keys.length && !candidates.isEmpty(); offset++) {
+            candidates = intersect(candidates, postings(hash(keys, lengths, offset, n)), offset);
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the candidates that are followed by a posting with the given offset
+     * in the same lane. Both lists are sorted.
+     */
+    private static List<Hit> intersect(List<Hit> candidates, List<Hit> postings, int offset) {
+        List<Hit> result = new ArrayList<>();
+        int j = 0;
+        for (Hit candidate : candidates) {
+            while (j < postings.size() && compare(postings.get(j), candidate, offset) < 0) {
+                j++;
+            }
+            if (j < postings.size() && compare(postings.get(j), candidate, offset) == 0) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static int compare(Hit posting, Hit candidate, int offset) {
+        int c = Integer.compare(posting.score, candidate.score);
+        if (c == 0) {
+            c = Integer.compare(posting.part, candidate.part);
+        }
+        if (c == 0) {
+            c = Integer.compare(posting.voice, candidate.voice);
+        }
+        return c != 0 ? c : Integer.compare(posting.note, candidate.note + offset);
+    }
+
+    /**
+     * Decodes the posting list of the n-gram with the given hash.
+     */
+    private List<Hit> postings(long hash) {
+        int low = 0;
+        int high = gramCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long entry = dictionary + Integer.BYTES + (long) mid * ENTRY_LENGTH;
+            int c = Long.compare(getLong(entry), hash);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return decode(getLong(entry + Long.BYTES), getInt(entry + 2 * Long.BYTES));
+            }
+        }
+        return List.of();
+    }
+
+    private List<Hit> decode(long position, int count) {
+        if (position < HEADER_LENGTH || position > dictionary || count < 0) {
+            throw new IllegalStateException("The posting list at " + position + " is corrupt.");
+        }
+        Cursor in = new Cursor(position);
+        List<Hit> hits = new ArrayList<>(count);
+        int score = 0;
+        int part = 0;
+        int voice = 0;
+        int note = 0;
+        for (int i = 0; i < count; i++) {
+            int scoreDelta = in.getVarint();
+            int newPart = in.getVarint();
+            int newVoice = in.getVarint();
+            int noteValue = in.getVarint();
+            boolean sameLane = scoreDelta == 0 && newPart == part && newVoice == voice && i > 0;
+            score += scoreDelta;
+            part = newPart;
+            voice = newVoice;
+            note = sameLane ? note + noteValue : noteValue;
+            int bar = in.getVarint();
+            int numerator = in.getVarint();
+            BarTime onset = BarTime.of(numerator, in.getVarint());
+            hits.add(new Hit(score, part, voice, note, bar, onset));
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the hash of the n-gram of the given notes that starts at the given
+     * offset.
+     */
+    private static long hash(int[] keys, long[] durations, int offset, int n) {
+        long hash = n;
+        for (int i = offset + 1; i < offset + n; i++) {
+            hash = hash * 0x9E3779B97F4A7C15L + (keys[i] - keys[i - 1]);
+            hash = hash * 0x9E3779B97F4A7C15L + BarTimes.divide(durations[i], durations[i - 1]);
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private int getInt(long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offset <= segment.limit() - Integer.BYTES) {
+            return segment.getInt(offset);
+        }
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = value << 8 | get(position + i) & 0xFF;
+        }
+        return value;
+    }
+
+    private long getLong(long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offset <= segment.limit() - Long.BYTES) {
+            return segment.getLong(offset);
+        }
+        return (long) getInt(position) << 32 | getInt(position + Integer.BYTES) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads the varints of a posting list that may span several segments.
+     */
+    private final class Cursor {
+
+        private long position;
+
+        Cursor(long position) {
+            this.position = position;
+        }
+
+        int getVarint() {
+            long start = position;
+            int value = 0;
+            for (int shift = 0; shift < 35 && position < dictionary; shift += 7) {
+                int b = get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("The varint at " + start + " is malformed.");
+        }
+    }
+
+    /**
+     * The position of the first note of an occurrence of a melody.
+     */
+    public static final class Hit {
+
+        private final int score;
+
+        private final int part;
+
+        private final int voice;
+
+        private final int note;
+
+        private final int bar;
+
+        private final BarTime onset;
+
+        private Hit(int score, int part, int voice, int note, int bar, BarTime onset) {
+            this.score = score;
+            this.part = part;
+            this.voice = voice;
+            this.note = note;
+            this.bar = bar;
+            this.onset = onset;
+        }
+
+        /**
+         * Returns the number of the score as returned by
+         * {@link Builder#add(Score)}.
+         *
+         * @return the score number.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Returns the index of the part in the score.
+         *
+         * @return the part index.
+         */
+        public int getPartIndex() {
+            return part;
+        }
+
+        /**
+         * Returns the index of the voice in its bar.
+         *
+         * @return the voice index.
+         */
+        public int getVoiceIndex() {
+            return voice;
+        }
+
+        /**
+         * Returns the index of the bar in the part.
+         *
+         * @return the bar index.
+         */
+        public int getBarIndex() {
+            return bar;
+        }
+
+        /**
+         * Returns the onset of the note in its bar.
+         *
+         * @return the onset.
+         */
+        public BarTime getOnset() {
+            return onset;
+        }
+
+        @Override
+        public String toString() {
+            return "Hit[score=" + score + ", part=" + part + ", voice=" + voice + ", bar=" + bar + ", onset=" + onset
+                    + "]";
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(score, part, voice, note);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Hit)) {
+                return false;
+            }
+            Hit other = (Hit) obj;
+            return score == other.score && part == other.part && voice == other.voice && note == other.note;
+        }
+    }
+
+    /**
+     * Builder of an {@link NGramIndex} from a corpus of scores. The posting lists
+     * are encoded while the scores are added, so the builder keeps only the
+     * compressed posting lists in memory and not the scores themselves.
+     */
+    public static final class Builder {
+
+        private final int n;
+
+        private final Map<Long, Postings> grams = new HashMap<>();
+
+        private int scores;
+
+        /**
+         * Creates a builder of an index of n-grams with {@code n} notes.
+         *
+         * @param n the number of notes of the n-grams.
+         * @throws IllegalArgumentException if {@code n} is less than two.
+         */
+        public Builder(int n) {
+            if (n < 2) {
+                throw new IllegalArgumentException("An n-gram needs at least two notes, but n is " + n + ".");
+            }
+            this.n = n;
+        }
+
+        /**
+         * Adds all n-grams of the score to the index.
+         *
+         * @param score the score to be added.
+         * @return the number of the score in the index, starting with zero.
+         * @throws NullPointerException if the score is null.
+         */
+        public int add(Score score) {
+            Objects.requireNonNull(score, "The score is null.");
+            int number = scores++;
+            int partIndex = 0;
+            for (Part part : score) {
+                int voices = 0;
+                for (Bar bar : part) {
+                    voices = Math.max(voices, bar.size());
+                }
+                for (int voice = 0; voice < voices; voice++) {
+                    addLane(number, partIndex, voice, part);
+                }
+                partIndex++;
+            }
+            return number;
+        }
+
+        private void addLane(int score, int part, int voice, Part bars) {
+            Melody melody = new Melody();
+            int barIndex = 0;
+            for (Bar bar : bars) {
+                if (voice < bar.size()) {
+                    for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : bar.get(voice).entrySet()) {
+                        PrincipalItem highest = null;
+                        int highestKey = 0;
+                        for (PrincipalItem item : entry.getValue()) {
+                            if (item instanceof Pitched && BarTimes.signum(BarTimes.pack(item)) > 0) {
+                                int key = ((Pitched) item).getPitch().asInt();
+                                if (highest == null || key > highestKey) {
+                                    highest = item;
+                                    highestKey = key;
+                                }
+                            }
+                        }
+                        if (highest != null) {
+                            melody.add(highestKey, BarTimes.pack(highest), barIndex, entry.getKey());
+                        }
+                    }
+                }
+                barIndex++;
+            }
+            for (int note = 0; note + n <= melody.size; note++) {
+                long hash = hash(melody.keys, melody.durations, note, n);
+                grams.computeIfAbsent(hash, h -> new Postings()).add(score, part, voice, note, melody.bars[note],
+                        melody.onsets[note]);
+            }
+        }
+
+        /**
+         * Writes the index to the file with the given path. An existing file is
+         * overwritten.
+         *
+         * @param path the path of the index file.
+         * @throws IOException          if the file cannot be written.
+         * @throws NullPointerException if the path is null.
+         */
+        public void write(Path path) throws IOException {
+            Objects.requireNonNull(path, "The path is null.");
+            long[] hashes = new long[grams.size()];
+            int i = 0;
+            for (Long hash : grams.keySet()) {
+                hashes[i++] = hash;
+            }
+            Arrays.sort(hashes);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                long position = HEADER_LENGTH;
+                for (long hash : hashes) {
+                    position += grams.get(hash).length;
+                }
+                header.putInt(MAGIC).putInt(VERSION).putInt(n).putLong(position).flip();
+                writeFully(channel, header);
+                for (long hash : hashes) {
+                    Postings postings = grams.get(hash);
+                    writeFully(channel, ByteBuffer.wrap(postings.bytes, 0, postings.length));
+                }
+                ByteBuffer table = ByteBuffer.allocate(Integer.BYTES + hashes.length * ENTRY_LENGTH);
+                table.putInt(hashes.length);
+                position = HEADER_LENGTH;
+                for (long hash : hashes) {
+                    Postings postings = grams.get(hash);
+                    table.putLong(hash).putLong(position).putInt(postings.count);
+                    position += postings.length;
+                }
+                table.flip();
+                writeFully(channel, table);
+            }
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * The notes of a lane.
+     */
+    private static final class Melody {
+
+        int[] keys = new int[64];
+
+        long[] durations = new long[64];
+
+        int[] bars = new int[64];
+
+        BarTime[] onsets = new BarTime[64];
+
+        int size;
+
+        void add(int key, long duration, int bar, BarTime onset) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                durations = Arrays.copyOf(durations, size * 2);
+                bars = Arrays.copyOf(bars, size * 2);
+                onsets = Arrays.copyOf(onsets, size * 2);
+            }
+            keys[size] = key;
+            durations[size] = duration;
+            bars[size] = bar;
+            onsets[size] = onset;
+            size++;
+        }
+    }
+
+    /**
+     * The encoded posting list of an n-gram.
+     */
+    private static final class Postings {
+
+        byte[] bytes = new byte[16];
+
+        int length;
+
+        int count;
+
+        private int score;
+
+        private int part;
+
+        private int voice;
+
+        private int note;
+
+        void add(int score, int part, int voice, int note, int bar, BarTime onset) {
+            boolean sameLane = count > 0 && score == this.score && part == this.part && voice == this.voice;
+            putVarint(score - this.score);
+            putVarint(part);
+            putVarint(voice);
+            putVarint(sameLane ? note - this.note : note);
+            putVarint(bar);
+            putVarint(onset.getNumerator());
+            putVarint(onset.getDenominator());
+            this.score = score;
+            this.part = part;
+            this.voice = voice;
+            this.note = note;
+            count++;
+        }
+
+        private void putVarint(int value) {
+            if (bytes.length - length < 5) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package com.musicquint.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+
+/**
+ * Structural diff of two scores that computes an edit script from an old to a
+ * new score. The diff works top-down:
+ * <ol>
+ * <li>The parts are aligned by their names. If several parts have the same
+ * name, they are aligned in order. Parts without a counterpart are reported as
+ * added or removed.</li>
+ * <li>The bars of two aligned parts are compared by a hash of their content,
+ * i.e. the capacities, keys, durations and pitches of their voices. The
+ * sequences of hashes are aligned with the algorithm of Myers, which takes
+ * {@code O((n + m) d)} time for {@code d} inserted and deleted bars, hence the
+ * diff is close to linear for scores with few changes. Bars with equal hashes
+ * are additionally compared item by item.</li>
+ * <li>Within every run of changed bars, deleted and inserted bars are paired in
+ * order and the voices with the same index of a pair are diffed by their keys.
+ * The remaining bars of the run are reported as deleted or inserted.</li>
+ * </ol>
+ * Two items are considered equal if they have the same duration and either the
+ * same pitch or are both not {@link Pitched}. The entries of a voice are equal
+ * if they contain the same items regardless of their order.
+ */
+public final class ScoreDiff {
+
+    private ScoreDiff() {
+        throw new AssertionError("No instances of ScoreDiff.");
+    }
+
+    /**
+     * The type of an {@link Edit}.
+     */
+    public enum Type {
+
+        /**
+         * A part of the new score has no counterpart in the old score.
+         */
+        PART_ADDED,
+
+        /**
+         * A part of the old score has no counterpart in the new score.
+         */
+        PART_REMOVED,
+
+        /**
+         * A bar of the new score is inserted.
+         */
+        BAR_INSERTED,
+
+        /**
+         * A bar of the old score is deleted.
+         */
+        BAR_DELETED,
+
+        /**
+         * A bar of the new score has a voice that the old bar does not have.
+         */
+        VOICE_ADDED,
+
+        /**
+         * A bar of the old score has a voice that the new bar does not have.
+         */
+        VOICE_REMOVED,
+
+        /**
+         * The capacity of a voice has changed.
+         */
+        CAPACITY_CHANGED,
+
+        /**
+         * A key of the new voice is not contained in the old voice.
+         */
+        ENTRY_ADDED,
+
+        /**
+         * A key of the old voice is not contained in the new voice.
+         */
+        ENTRY_REMOVED,
+
+        /**
+         * The items at a key of the voice have changed.
+         */
+        ENTRY_CHANGED
+    }
+
+    /**
+     * A single edit of the edit script. The indices that do not apply to the type
+     * of the edit are -1 and the key is null if the edit does not concern a
+     * single entry.
+     */
+    public static final class Edit {
+
+        private final Type type;
+
+        private final String partName;
+
+        private final int oldBar;
+
+        private final int newBar;
+
+        private final int voice;
+
+        private final BarTime key;
+
+        private Edit(Type type, String partName, int oldBar, int newBar, int voice, BarTime key) {
+            this.type = type;
+            this.partName = partName;
+            this.oldBar = oldBar;
+            this.newBar = newBar;
+            this.voice = voice;
+            this.key = key;
+        }
+
+        /**
+         * Returns the type of the edit.
+         *
+         * @return the type.
+         */
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Returns the name of the part.
+         *
+         * @return the part name, which may be null.
+         */
+        public String getPartName() {
+            return partName;
+        }
+
+        /**
+         * Returns the index of the bar in the old part.
+         *
+         * @return the old bar index or -1.
+         */
+        public int getOldBar() {
+            return oldBar;
+        }
+
+        /**
+         * Returns the index of the bar in the new part.
+         *
+         * @return the new bar index or -1.
+         */
+        public int getNewBar() {
+            return newBar;
+        }
+
+        /**
+         * Returns the index of the voice in its bar.
+         *
+         * @return the voice index or -1.
+         */
+        public int getVoice() {
+            return voice;
+        }
+
+        /**
+         * Returns the key of the entry.
+         *
+         * @return the key or null.
+         */
+        public BarTime getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(type.name()).append(' ').append(partName);
+            if (oldBar >= 0 || newBar >= 0) {
+                builder.append(" bar ").append(oldBar < 0 ? "-" : oldBar).append("->")
+                        .append(newBar < 0 ? "-" : newBar);
+            }
+            if (voice >= 0) {
+                builder.append(" voice ").append(voice);
+            }
+            if (key != null) {
+                builder.append(" at ").append(key);
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, partName, oldBar, newBar, voice, key);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Edit)) {
+                return false;
+            }
+            Edit other = (Edit) obj;
+            return type == other.type && Objects.equals(partName, other.partName) && oldBar == other.oldBar
+                    && newBar == other.newBar && voice == other.voice && Objects.equals(key, other.key);
+        }
+    }
+
+    /**
+     * Computes the edit script from the old to the new score.
+     *
+     * @param oldScore the old score.
+     * @param newScore the new score.
+     * @return the list of edits, which is empty if both scores are equal.
+     * @throws NullPointerException if a score is null.
+     */
+    public static List<Edit> diff(Score oldScore, Score newScore) {
+        Objects.requireNonNull(oldScore, "The old score is null.");
+        Objects.requireNonNull(newScore, "The new score is null.");
+        Map<String, ArrayDeque<Part>> newParts = new HashMap<>();
+        for (Part part : newScore) {
+            newParts.computeIfAbsent(part.getPartName(), name -> new ArrayDeque<>()).add(part);
+        }
+        List<Edit> edits = new ArrayList<>();
+        Map<String, Integer> matched = new HashMap<>();
+        for (Part oldPart : oldScore) {
+            ArrayDeque<Part> candidates = newParts.get(oldPart.getPartName());
+            Part newPart = candidates == null ? null : candidates.poll();
+            if (newPart == null) {
+                edits.add(new Edit(Type.PART_REMOVED, oldPart.getPartName(), -1, -1, -1, null));
+            } else {
+                matched.merge(oldPart.getPartName(), 1, Integer::sum);
+                diffParts(oldPart.getPartName(), oldPart, newPart, edits);
+            }
+        }
+        for (Part newPart : newScore) {
+            int count = matched.getOrDefault(newPart.getPartName(), 0);
+            if (count > 0) {
+                matched.put(newPart.getPartName(), count - 1);
+            } else {
+                edits.add(new Edit(Type.PART_ADDED, newPart.getPartName(), -1, -1, -1, null));
+            }
+        }
+        return edits;
+    }
+
+    private static void diffParts(String name, Part oldPart, Part newPart, List<Edit> edits) {
+        Bar[] a = oldPart.toArray(new Bar[0]);
+        Bar[] b = newPart.toArray(new Bar[0]);
+        long[] hashA = new long[a.length];
+        long[] hashB = new long[b.length];
+        for (int i = 0; i < a.length; i++) {
+            hashA[i] = hash(a[i]);
+        }
+        for (int j = 0; j < b.length; j++) {
+            hashB[j] = hash(b[j]);
+        }
+        // Skip the common prefix and suffix before running the algorithm of Myers.
+        int start = 0;
+        while (start < a.length && start < b.length && equalBars(a, hashA, start, b, hashB, start)) {
+            start++;
+        }
+        int endA = a.length;
+        int endB = b.length;
+        while (endA > start && endB > start && equalBars(a, hashA, endA - 1, b, hashB, endB - 1)) {
+            endA--;
+            endB--;
+        }
+        boolean[] matched = align(a, hashA, start, endA, b, hashB, start, endB);
+        // matched[i] of the old bars and matched[a.length + j] of the new bars.
+        int i = start;
+        int j = start;
+        while (i < endA || j < endB) {
+            int runA = i;
+            while (runA < endA && !matched[runA]) {
+                runA++;
+            }
+            int runB = j;
+            while (runB < endB && !matched[a.length + runB]) {
+                runB++;
+            }
+            while (i < runA && j < runB) {
+                diffBars(name, i, a[i], j, b[j], edits);
+                i++;
+                j++;
+            }
+            for (; i < runA; i++) {
+                edits.add(new Edit(Type.BAR_DELETED, name, i, -1, -1, null));
+            }
+            for (; j < runB; j++) {
+                edits.add(new Edit(Type.BAR_INSERTED, name, -1, j, -1, null));
+            }
+            if (i < endA && j < endB) {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Computes a longest common subsequence of the bars in the given ranges with
+     * the greedy algorithm of Myers and returns the matched bars.
+     */
+    private static boolean[] align(Bar[] a, long[] hashA, int startA, int endA, Bar[] b, long[] hashB, int startB,
+            int endB) {
+        boolean[] matched = new boolean[a.length + b.length];
+        int n = endA - startA;
+        int m = endB - startB;
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        int distance = -1;
+        for (int d = 0; d <= max && distance < 0; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]) ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && equalBars(a, hashA, startA + x, b, hashB, startB + y)) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    distance = d;
+                    break;
+                }
+            }
+        }
+        // Walk back through the trace and mark the diagonals as matched.
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int prevK = k == -d || (k != d && value(previous, d, k - 1) < value(previous, d, k + 1)) ? k + 1 : k - 1;
+            int prevX = value(previous, d, prevK);
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+                matched[startA + x] = true;
+                matched[a.length + startB + y] = true;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0 && y > 0) {
+            x--;
+            y--;
+            matched[startA + x] = true;
+            matched[a.length + startB + y] = true;
+        }
+        for (int i = 0; i < startA; i++) {
+            matched[i] = true;
+        }
+        for (int i = endA; i < a.length; i++) {
+            matched[i] = true;
+        }
+        for (int j = 0; j < startB; j++) {
+            matched[a.length + j] = true;
+        }
+        for (int j = endB; j < b.length; j++) {
+            matched[a.length + j] = true;
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the value of the diagonal {@code k} of the copy of {@code v} that
+     * was taken before the round {@code d}.
+     */
+    private static int value(int[] copy, int d, int k) {
+        return copy[k + d + 1];
+    }
+
+    private static void diffBars(String name, int oldIndex, Bar oldBar, int newIndex, Bar newBar, List<Edit> edits) {
+        int voices = Math.max(oldBar.size(), newBar.size());
+        for (int v = 0; v < voices; v++) {
+            if (v >= newBar.size()) {
+                edits.add(new Edit(Type.VOICE_REMOVED, name, oldIndex, newIndex, v, null));
+            } else if (v >= oldBar.size()) {
+                edits.add(new Edit(Type.VOICE_ADDED, name, oldIndex, newIndex, v, null));
+            } else {
+                diffVoices(name, oldIndex, oldBar.get(v), newIndex, newBar.get(v), v, edits);
+            }
+        }
+    }
+
+    private static void diffVoices(String name, int oldIndex, Voice oldVoice, int newIndex, Voice newVoice, int v,
+            List<Edit> edits) {
+        if (!oldVoice.capacity().equals(newVoice.capacity())) {
+            edits.add(new Edit(Type.CAPACITY_CHANGED, name, oldIndex, newIndex, v, null));
+        }
+        Iterator<Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>>> oldEntries = oldVoice.entrySet().iterator();
+        Iterator<Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>>> newEntries = newVoice.entrySet().iterator();
+        Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> oldEntry = next(oldEntries);
+        Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> newEntry = next(newEntries);
+        while (oldEntry != null || newEntry != null) {
+            int c = oldEntry == null ? 1 : newEntry == null ? -1 : BarTime.compare(oldEntry.getKey(), newEntry.getKey());
+            if (c < 0) {
+                edits.add(new Edit(Type.ENTRY_REMOVED, name, oldIndex, newIndex, v, oldEntry.getKey()));
+                oldEntry = next(oldEntries);
+            } else if (c > 0) {
+                edits.add(new Edit(Type.ENTRY_ADDED, name, oldIndex, newIndex, v, newEntry.getKey()));
+                newEntry = next(newEntries);
+            } else {
+                if (!equalItems(oldEntry.getValue(), newEntry.getValue())) {
+                    edits.add(new Edit(Type.ENTRY_CHANGED, name, oldIndex, newIndex, v, newEntry.getKey()));
+                }
+                oldEntry = next(oldEntries);
+                newEntry = next(newEntries);
+            }
+        }
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static boolean equalBars(Bar[] a, long[] hashA, int i, Bar[] b, long[] hashB, int j) {
+        if (hashA[i] != hashB[j]) {
+            return false;
+        }
+        Bar oldBar = a[i];
+        Bar newBar = b[j];
+        if (oldBar.size() != newBar.size()) {
+            return false;
+        }
+        for (int v = 0; v < oldBar.size(); v++) {
+            Voice oldVoice = oldBar.get(v);
+            Voice newVoice = newBar.get(v);
+            if (!oldVoice.capacity().equals(newVoice.capacity()) || oldVoice.size() != newVoice.size()) {
+                return false;
+            }
+            Iterator<Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>>> entries = newVoice.entrySet()
+                    .iterator();
+            for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : oldVoice.entrySet()) {
+                Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> other = entries.next();
+                if (!entry.getKey().equals(other.getKey()) || !equalItems(entry.getValue(), other.getValue())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares both collections of items as multisets.
+     */
+    private static boolean equalItems(Voice.MeasurableCollection<PrincipalItem> c1,
+            Voice.MeasurableCollection<PrincipalItem> c2) {
+        if (c1.size() != c2.size()) {
+            return false;
+        }
+        PrincipalItem[] others = c2.toArray(new PrincipalItem[0]);
+        boolean[] used = new boolean[others.length];
+        outer: for (PrincipalItem item : c1) {
+            for (int i = 0; i < others.length; i++) {
+                if (!used[i] && equalItem(item, others[i])) {
+                    used[i] = true;
+                    continue outer;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean equalItem(PrincipalItem i1, PrincipalItem i2) {
+        if (!i1.getDuration().equals(i2.getDuration())) {
+            return false;
+        }
+        if (i1 instanceof Pitched) {
+            return i2 instanceof Pitched && ((Pitched) i1).getPitch().equals(((Pitched) i2).getPitch());
+        }
+        return !(i2 instanceof Pitched);
+    }
+
+    private static long hash(Bar bar) {
+        long hash = bar.size();
+        for (Voice voice : bar) {
+            hash = mix(hash, BarTimes.pack(voice.capacity()));
+            for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : voice.entrySet()) {
+                hash = mix(hash, BarTimes.pack(entry.getKey()));
+                long items = 0;
+                for (PrincipalItem item : entry.getValue()) {
+                    long pitch = item instanceof Pitched ? ((Pitched) item).getPitch().ordinal() + 1 : 0;
+                    // The sum does not depend on the order of the items.
+                    items += mix(BarTimes.pack(item), pitch);
+                }
+                hash = mix(hash, items);
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return h * 0xBF58476D1CE4E5B9L + value;
+    }
+}
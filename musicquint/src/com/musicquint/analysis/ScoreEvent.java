@@ -0,0 +1,116 @@
+package com.musicquint.analysis;
+
+import java.util.Objects;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.PrincipalItem;
+
+/**
+ * A single {@link PrincipalItem} of a score together with its position in the
+ * score. The position consists of the indices of the part, the bar and the
+ * voice that contain the item and of the absolute onset of the item, i.e. the
+ * sum of the capacities of all previous bars of the part plus the key of the
+ * item in its voice. The capacity of a bar is the greatest capacity of its
+ * voices.
+ *
+ * @see ScoreEvents
+ */
+public final class ScoreEvent {
+
+    private final int partIndex;
+
+    private final int barIndex;
+
+    private final int voiceIndex;
+
+    private final BarTime onset;
+
+    private final PrincipalItem item;
+
+    /**
+     * Creates an event.
+     *
+     * @param partIndex  the index of the part.
+     * @param barIndex   the index of the bar in its part.
+     * @param voiceIndex the index of the voice in its bar.
+     * @param onset      the absolute onset of the item.
+     * @param item       the item.
+     * @throws NullPointerException if the onset or item is null.
+     */
+    public ScoreEvent(int partIndex, int barIndex, int voiceIndex, BarTime onset, PrincipalItem item) {
+        this.partIndex = partIndex;
+        this.barIndex = barIndex;
+        this.voiceIndex = voiceIndex;
+        this.onset = Objects.requireNonNull(onset, "The onset is null.");
+        this.item = Objects.requireNonNull(item, "The item is null.");
+    }
+
+    /**
+     * Returns the index of the part that contains the item.
+     *
+     * @return the part index.
+     */
+    public int getPartIndex() {
+        return partIndex;
+    }
+
+    /**
+     * Returns the index of the bar in its part that contains the item.
+     *
+     * @return the bar index.
+     */
+    public int getBarIndex() {
+        return barIndex;
+    }
+
+    /**
+     * Returns the index of the voice in its bar that contains the item.
+     *
+     * @return the voice index.
+     */
+    public int getVoiceIndex() {
+        return voiceIndex;
+    }
+
+    /**
+     * Returns the absolute onset of the item from the beginning of the part.
+     *
+     * @return the onset.
+     */
+    public BarTime getOnset() {
+        return onset;
+    }
+
+    /**
+     * Returns the item.
+     *
+     * @return the item.
+     */
+    public PrincipalItem getItem() {
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        return "ScoreEvent[part=" + partIndex + ", bar=" + barIndex + ", voice=" + voiceIndex + ", onset=" + onset
+                + ", item=" + item + "]";
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(partIndex, barIndex, voiceIndex, onset, item);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ScoreEvent)) {
+            return false;
+        }
+        ScoreEvent other = (ScoreEvent) obj;
+        return partIndex == other.partIndex && barIndex == other.barIndex && voiceIndex == other.voiceIndex
+                && onset.equals(other.onset) && item.equals(other.item);
+    }
+}
@@ -0,0 +1,195 @@
+package com.musicquint.analysis;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Part;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+
+/**
+ * Static utility methods that traverse all {@link ScoreEvent ScoreEvents} of a
+ * score in the order of their absolute onsets. Events with equal onsets are
+ * ordered by the index of their part and then by the index of their voice.
+ * </p>
+ * Every part is divided into lanes, where the lane {@code v} consists of the
+ * voices with the index {@code v} of all bars of the part. As the keys of a
+ * voice are sorted and lie within the capacity of its bar, the events of every
+ * lane are already sorted by their absolute onsets. The lanes are merged
+ * lazily with a heap that holds the next event of every lane, hence the
+ * traversal needs {@code O(k)} memory and {@code O(log k)} time per event for
+ * {@code k} lanes, and no event is created before it is requested. The
+ * absolute onsets are accumulated as {@linkplain BarTimes packed BarTimes}
+ * while the lanes advance from bar to bar.
+ * </p>
+ * The score must not be modified while its events are traversed.
+ */
+public final class ScoreEvents {
+
+    private static final Comparator<Lane> LANE_ORDER = (l1, l2) -> {
+        int c = BarTimes.compare(l1.onset, l2.onset);
+        if (c != 0) {
+            return c;
+        }
+        c = Integer.compare(l1.partIndex, l2.partIndex);
+        return c != 0 ? c : Integer.compare(l1.voiceIndex, l2.voiceIndex);
+    };
+
+    private ScoreEvents() {
+        throw new AssertionError("No instances of ScoreEvents.");
+    }
+
+    /**
+     * Returns a sequential stream of all events of the score in the order of
+     * their absolute onsets.
+     *
+     * @param score the given score.
+     * @return the stream of events.
+     * @throws NullPointerException if the score is null.
+     */
+    public static Stream<ScoreEvent> stream(Score score) {
+        return StreamSupport.stream(spliterator(score), false);
+    }
+
+    /**
+     * Returns an iterator over all events of the score in the order of their
+     * absolute onsets.
+     *
+     * @param score the given score.
+     * @return the iterator of events.
+     * @throws NullPointerException if the score is null.
+     */
+    public static Iterator<ScoreEvent> iterator(Score score) {
+        return Spliterators.iterator(spliterator(score));
+    }
+
+    /**
+     * Returns a spliterator over all events of the score in the order of their
+     * absolute onsets. The spliterator does not split.
+     *
+     * @param score the given score.
+     * @return the spliterator of events.
+     * @throws NullPointerException if the score is null.
+     */
+    public static Spliterator<ScoreEvent> spliterator(Score score) {
+        return new MergeSpliterator(Objects.requireNonNull(score, "The score is null."));
+    }
+
+    /**
+     * Spliterator that merges the lanes of all parts with a heap.
+     */
+    private static final class MergeSpliterator extends Spliterators.AbstractSpliterator<ScoreEvent> {
+
+        private final PriorityQueue<Lane> heap = new PriorityQueue<>(LANE_ORDER);
+
+        MergeSpliterator(Score score) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            int partIndex = 0;
+            for (Part part : score) {
+                int voices = 0;
+                for (Bar bar : part) {
+                    voices = Math.max(voices, bar.size());
+                }
+                for (int voiceIndex = 0; voiceIndex < voices; voiceIndex++) {
+                    Lane lane = new Lane(partIndex, voiceIndex, part.iterator());
+                    if (lane.advance()) {
+                        heap.add(lane);
+                    }
+                }
+                partIndex++;
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ScoreEvent> action) {
+            Objects.requireNonNull(action);
+            Lane lane = heap.poll();
+            if (lane == null) {
+                return false;
+            }
+            ScoreEvent event = new ScoreEvent(lane.partIndex, lane.barIndex, lane.voiceIndex,
+                    BarTimes.toBarTime(lane.onset), lane.item);
+            if (lane.advance()) {
+                heap.add(lane);
+            }
+            action.accept(event);
+            return true;
+        }
+    }
+
+    /**
+     * Cursor over the voices with the same index of all bars of a part.
+     */
+    private static final class Lane {
+
+        final int partIndex;
+
+        final int voiceIndex;
+
+        private final Iterator<Bar> bars;
+
+        int barIndex = -1;
+
+        private long nextBarStart = BarTimes.ZERO;
+
+        private long barStart;
+
+        private Iterator<Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>>> entries = Collections
+                .emptyIterator();
+
+        private Iterator<PrincipalItem> items = Collections.emptyIterator();
+
+        long onset;
+
+        PrincipalItem item;
+
+        Lane(int partIndex, int voiceIndex, Iterator<Bar> bars) {
+            this.partIndex = partIndex;
+            this.voiceIndex = voiceIndex;
+            this.bars = bars;
+        }
+
+        /**
+         * Moves the lane to its next item and returns false if there is none.
+         */
+        boolean advance() {
+            while (!items.hasNext()) {
+                while (!entries.hasNext()) {
+                    if (!bars.hasNext()) {
+                        item = null;
+                        return false;
+                    }
+                    Bar bar = bars.next();
+                    barIndex++;
+                    barStart = nextBarStart;
+                    long capacity = BarTimes.ZERO;
+                    for (Voice voice : bar) {
+                        capacity = BarTimes.max(capacity, BarTimes.pack(voice.capacity()));
+                    }
+                    nextBarStart = BarTimes.add(barStart, capacity);
+                    if (voiceIndex < bar.size()) {
+                        entries = bar.get(voiceIndex).entrySet().iterator();
+                    }
+                }
+                Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry = entries.next();
+                onset = BarTimes.add(barStart, BarTimes.pack(entry.getKey()));
+                items = entry.getValue().iterator();
+            }
+            item = items.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.musicquint.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Score;
+
+/**
+ * Index of the items that are sounding at any absolute time of a score. Every
+ * {@link ScoreEvent} with a duration greater than zero occupies the interval
+ * from its onset, inclusive, to its onset plus its duration, exclusive. The
+ * intervals are stored in a static centered interval tree. Every node of the
+ * tree holds a center and the intervals that contain it, once sorted by their
+ * starts and once sorted by their ends. The intervals left of the center are
+ * stored in the left subtree and the intervals right of the center in the
+ * right subtree. As the center of a node is the median of the starts of its
+ * intervals, the depth of the tree is {@code O(log n)} and
+ * {@link #soundingAt(BarTime)} takes {@code O(log n + k)} time for {@code k}
+ * sounding items.
+ * </p>
+ * {@link #verticalities()} sweeps once over the starts and the ends of all
+ * intervals in ascending order and emits every maximal slice in which the same
+ * items are sounding. The index is immutable and built in {@code O(n log n)}
+ * time. It does not reflect later modifications of the score.
+ */
+public final class VerticalIndex {
+
+    private final ScoreEvent[] events;
+
+    private final long[] starts;
+
+    private final long[] ends;
+
+    /**
+     * The indices of all events in ascending order of their ends.
+     */
+    private final int[] byEnd;
+
+    private final Node root;
+
+    private VerticalIndex(List<ScoreEvent> sorted) {
+        int size = sorted.size();
+        events = sorted.toArray(new ScoreEvent[size]);
+        starts = new long[size];
+        ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = BarTimes.pack(events[i].getOnset());
+            ends[i] = BarTimes.add(starts[i], BarTimes.pack(events[i].getItem()));
+        }
+        byEnd = sortByEnd(IntStream.range(0, size).toArray(), false);
+        root = build(IntStream.range(0, size).toArray());
+    }
+
+    /**
+     * Creates the index of all items of the score.
+     *
+     * @param score the given score.
+     * @return the index.
+     * @throws NullPointerException if the score is null.
+     */
+    public static VerticalIndex of(Score score) {
+        List<ScoreEvent> sorted = new ArrayList<>();
+        Iterator<ScoreEvent> iterator = ScoreEvents.iterator(score);
+        while (iterator.hasNext()) {
+            ScoreEvent event = iterator.next();
+            if (BarTimes.signum(BarTimes.pack(event.getItem())) > 0) {
+                sorted.add(event);
+            }
+        }
+        return new VerticalIndex(sorted);
+    }
+
+    /**
+     * Returns the number of indexed events.
+     *
+     * @return the number of events.
+     */
+    public int size() {
+        return events.length;
+    }
+
+    /**
+     * Returns all events that are sounding at the given absolute time, i.e.
+     * whose onset is less or equal than the time and whose end is greater than
+     * the time. The events are returned in no particular order.
+     *
+     * @param time the absolute time.
+     * @return the list of sounding events.
+     * @throws NullPointerException if the time is null.
+     */
+    public List<ScoreEvent> soundingAt(BarTime time) {
+        long t = BarTimes.pack(Objects.requireNonNull(time, "The time is null."));
+        List<ScoreEvent> result = new ArrayList<>();
+        Node node = root;
+        while (node != null) {
+            int c = BarTimes.compare(t, node.center);
+            if (c < 0) {
+                for (int i : node.byStart) {
+                    if (BarTimes.compare(starts[i], t) > 0) {
+                        break;
+                    }
+                    result.add(events[i]);
+                }
+                node = node.left;
+            } else {
+                for (int i : node.byEnd) {
+                    if (BarTimes.compare(ends[i], t) <= 0) {
+                        break;
+                    }
+                    result.add(events[i]);
+                }
+                node = c > 0 ? node.right : null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a stream of all vertical slices of the score in ascending order.
+     * Intervals in which no item is sounding are skipped.
+     *
+     * @return the stream of verticalities.
+     */
+    public Stream<Verticality> verticalities() {
+        return StreamSupport.stream(new Sweep(), false);
+    }
+
+    /**
+     * Builds the subtree of the given events in ascending order of their starts.
+     */
+    private Node build(int[] indices) {
+        if (indices.length == 0) {
+            return null;
+        }
+        long center = starts[indices[indices.length / 2]];
+        int[] left = new int[indices.length];
+        int[] middle = new int[indices.length];
+        int[] right = new int[indices.length];
+        int leftSize = 0;
+        int middleSize = 0;
+        int rightSize = 0;
+        for (int i : indices) {
+            if (BarTimes.compare(ends[i], center) <= 0) {
+                left[leftSize++] = i;
+            } else if (BarTimes.compare(starts[i], center) > 0) {
+                right[rightSize++] = i;
+            } else {
+                middle[middleSize++] = i;
+            }
+        }
+        int[] byStart = Arrays.copyOf(middle, middleSize);
+        return new Node(center, byStart, sortByEnd(byStart, true), build(Arrays.copyOf(left, leftSize)),
+                build(Arrays.copyOf(right, rightSize)));
+    }
+
+    private int[] sortByEnd(int[] indices, boolean descending) {
+        return IntStream.of(indices)
+                .boxed()
+                .sorted((i1, i2) -> descending ? BarTimes.compare(ends[i2], ends[i1])
+                        : BarTimes.compare(ends[i1], ends[i2]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static final class Node {
+
+        final long center;
+
+        final int[] byStart;
+
+        final int[] byEnd;
+
+        final Node left;
+
+        final Node right;
+
+        Node(long center, int[] byStart, int[] byEnd, Node left, Node right) {
+            this.center = center;
+            this.byStart = byStart;
+            this.byEnd = byEnd;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Sweep over the starts and the ends of all events in ascending order.
+     */
+    private final class Sweep extends Spliterators.AbstractSpliterator<Verticality> {
+
+        private int nextStart;
+
+        private int nextEnd;
+
+        private int[] active = new int[16];
+
+        private int activeSize;
+
+        Sweep() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Verticality> action) {
+            Objects.requireNonNull(action);
+            while (nextEnd < events.length) {
+                long time = nextBoundary();
+                while (nextEnd < events.length && BarTimes.compare(ends[byEnd[nextEnd]], time) <= 0) {
+                    deactivate(byEnd[nextEnd++]);
+                }
+                while (nextStart < events.length && BarTimes.compare(starts[nextStart], time) == 0) {
+                    activate(nextStart++);
+                }
+                if (activeSize > 0) {
+                    List<ScoreEvent> sounding = new ArrayList<>(activeSize);
+                    for (int i = 0; i < activeSize; i++) {
+                        sounding.add(events[active[i]]);
+                    }
+                    action.accept(new Verticality(BarTimes.toBarTime(time), BarTimes.toBarTime(nextBoundary()),
+                            sounding));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the least start or end that has not been processed yet.
+         */
+        private long nextBoundary() {
+            long end = ends[byEnd[nextEnd]];
+            if (nextStart < events.length && BarTimes.compare(starts[nextStart], end) < 0) {
+                return starts[nextStart];
+            }
+            return end;
+        }
+
+        private void activate(int index) {
+            if (activeSize == active.length) {
+                active = Arrays.copyOf(active, activeSize * 2);
+            }
+            active[activeSize++] = index;
+        }
+
+        private void deactivate(int index) {
+            for (int i = 0; i < activeSize; i++) {
+                if (active[i] == index) {
+                    System.arraycopy(active, i + 1, active, i, activeSize - i - 1);
+                    activeSize--;
+                    return;
+                }
+            }
+        }
+    }
+}
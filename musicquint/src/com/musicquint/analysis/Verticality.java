@@ -0,0 +1,88 @@
+package com.musicquint.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+
+/**
+ * A vertical slice of a score, i.e. a maximal interval of absolute time in
+ * which the same items are sounding. The interval contains its start and
+ * excludes its end.
+ *
+ * @see VerticalIndex#verticalities()
+ */
+public final class Verticality {
+
+    private final BarTime start;
+
+    private final BarTime end;
+
+    private final List<ScoreEvent> events;
+
+    /**
+     * Creates a verticality.
+     *
+     * @param start  the start of the slice.
+     * @param end    the end of the slice.
+     * @param events the events that are sounding in the slice.
+     * @throws NullPointerException if any argument or event is null.
+     */
+    public Verticality(BarTime start, BarTime end, List<ScoreEvent> events) {
+        this.start = Objects.requireNonNull(start, "The start is null.");
+        this.end = Objects.requireNonNull(end, "The end is null.");
+        this.events = List.copyOf(events);
+    }
+
+    /**
+     * Returns the absolute time at which the slice starts.
+     *
+     * @return the start of the slice.
+     */
+    public BarTime getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the absolute time at which the slice ends.
+     *
+     * @return the end of the slice.
+     */
+    public BarTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the events that are sounding in the slice in the order of their
+     * onsets.
+     *
+     * @return the unmodifiable list of events.
+     */
+    public List<ScoreEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the pitches of all {@link Pitched} items that are sounding in the
+     * slice in the order of their onsets.
+     *
+     * @return the list of pitches.
+     */
+    public List<Pitch> getPitches() {
+        List<Pitch> pitches = new ArrayList<>(events.size());
+        for (ScoreEvent event : events) {
+            if (event.getItem() instanceof Pitched) {
+                pitches.add(((Pitched) event.getItem()).getPitch());
+            }
+        }
+        return pitches;
+    }
+
+    @Override
+    public String toString() {
+        return "Verticality[" + start + ", " + end + ", " + getPitches() + "]";
+    }
+}
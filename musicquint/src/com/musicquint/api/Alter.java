@@ -1,7 +1,6 @@
 package com.musicquint.api;
 
-import java.util.EnumSet;
-import java.util.regex.Matcher;
+import java.util.NoSuchElementException;
 import java.util.regex.Pattern;
 
 //TODO documentation
@@ -21,6 +20,8 @@ public enum Alter {
 
     public static final Pattern PATTERN = Pattern.compile(REGEX);
 
+    private static final Alter[] VALUES = values();
+
     private final int alteration;
 
     private Alter(int i) {
@@ -28,25 +29,20 @@ public enum Alter {
     }
 
     public static Alter parse(String string) {
-        Matcher matcher = PATTERN.matcher(string);
-        if (matcher.matches()) {
-            String sharps = matcher.group("sharp");
-            String flats = matcher.group("flat");
-            if (sharps != null) {
-                return Alter.valueOf(sharps.length());
-            } else if (flats != null) {
-                return Alter.valueOf(-flats.length());
-            } else {
-                return NATURAL;
-            }
-        } else {
-            throw new IllegalArgumentException(
-                    "The input " + string + " does not match the regular expression " + REGEX);
+        int length = string.length();
+        char c = length == 0 ? 0 : string.charAt(0);
+        if (length == 0 || (length <= 2 && (c == 's' || c == 'f') && string.charAt(length - 1) == c)) {
+            return valueOf(c == 'f' ? -length : length);
         }
+        throw new IllegalArgumentException(
+                "The input " + string + " does not match the regular expression " + REGEX);
     }
 
     public static Alter valueOf(int i) {
-        return EnumSet.allOf(Alter.class).stream().filter(t -> t.asInt() == i).findFirst().get();
+        if (i < FLAT_FLAT.alteration || i > DOUBLE_SHARP.alteration) {
+            throw new NoSuchElementException("There is no Alter with the alteration " + i);
+        }
+        return VALUES[i - FLAT_FLAT.alteration];
     }
 
     public int asInt() {
@@ -1,8 +1,5 @@
 package com.musicquint.api;
 
-import static com.musicquint.api.BarTime.add;
-import static com.musicquint.api.BarTime.subtract;
-
 import java.util.NavigableMap;
 import java.util.Objects;
 
@@ -30,6 +27,10 @@ import java.util.Objects;
  * </ul>
  * A default implementation {@link #fits(BarTime, Measurable)} is provided to
  * check both conditions.
+ * </p>
+ * The default implementations compute all intermediate results with the
+ * primitive arithmetic of {@link BarTimes} and do not create any intermediate
+ * BarTime objects.
  */
 public interface BarMap<T extends Measurable> extends NavigableMap<BarTime, T> {
 
@@ -82,8 +83,18 @@ public interface BarMap<T extends Measurable> extends NavigableMap<BarTime, T> {
     default boolean fits(BarTime key, Measurable value) {
         Objects.requireNonNull(key);
         Objects.requireNonNull(value);
-        return key.isInClosedInterval(BarTime.ZERO, capacity()) && lasting(key).equals(BarTime.ZERO)
-                && value.isLessOrEqual(next(key));
+        long time = BarTimes.pack(key);
+        long capacity = BarTimes.pack(capacity());
+        if (BarTimes.signum(time) < 0 || BarTimes.compare(time, capacity) > 0) {
+            return false;
+        }
+        Entry<BarTime, T> lowerEntry = lowerEntry(key);
+        if (lowerEntry != null && BarTimes.compare(end(lowerEntry), time) > 0) {
+            return false;
+        }
+        BarTime higherKey = higherKey(key);
+        long limit = higherKey != null ? BarTimes.pack(higherKey) : capacity;
+        return BarTimes.compare(BarTimes.add(time, BarTimes.pack(value)), limit) <= 0;
     }
 
     /**
@@ -107,8 +118,8 @@ public interface BarMap<T extends Measurable> extends NavigableMap<BarTime, T> {
         if (lowerEntry == null) {
             return BarTime.ZERO;
         } else {
-            BarTime endLower = add(lowerEntry.getKey(), lowerEntry.getValue());
-            return BarTime.max(BarTime.ZERO, subtract(endLower, key));
+            long lasting = BarTimes.subtract(end(lowerEntry), BarTimes.pack(key));
+            return BarTimes.signum(lasting) > 0 ? BarTimes.toBarTime(lasting) : BarTime.ZERO;
         }
     }
 
@@ -123,7 +134,8 @@ public interface BarMap<T extends Measurable> extends NavigableMap<BarTime, T> {
     default BarTime next(BarTime key) {
         Objects.requireNonNull(key);
         BarTime higherKey = higherKey(key);
-        return higherKey != null ? subtract(higherKey, key) : subtract(capacity(), key);
+        long limit = BarTimes.pack(higherKey != null ? higherKey : capacity());
+        return BarTimes.toBarTime(BarTimes.subtract(limit, BarTimes.pack(key)));
     }
 
     /**
@@ -136,8 +148,15 @@ public interface BarMap<T extends Measurable> extends NavigableMap<BarTime, T> {
         if (isEmpty()) {
             return BarTime.ZERO;
         } else {
-            Entry<BarTime, T> lastEntry = lastEntry();
-            return add(lastEntry.getKey(), lastEntry.getValue());
+            return BarTimes.toBarTime(end(lastEntry()));
         }
     }
+
+    /**
+     * Returns the packed BarTime at which the given entry stops to have a lasting
+     * effect on the BarMap.
+     */
+    private static long end(Entry<BarTime, ? extends Measurable> entry) {
+        return BarTimes.add(BarTimes.pack(entry.getKey()), BarTimes.pack(entry.getValue()));
+    }
 }
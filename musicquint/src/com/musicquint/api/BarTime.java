@@ -1,7 +1,5 @@
 package com.musicquint.api;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -27,6 +25,12 @@ import java.util.Objects;
  * class is the only where the comparator given in Measurable is guaranteed to
  * be consistent with equals and therefore implements the {@link Comparable}
  * interface with the implementation given in Measurable.
+ * </p>
+ * The arithmetic of BarTimes is computed in int arithmetic with exact overflow
+ * detection. Only if an intermediate result overflows the computation is
+ * repeated in the long arithmetic of {@link BarTimes}. An
+ * {@link ArithmeticException} is thrown if the irreducible result itself cannot
+ * be represented by a BarTime.
  *
  * @see Measurable
  * @see Comparable
@@ -34,9 +38,12 @@ import java.util.Objects;
 public final class BarTime implements Measurable, Comparable<BarTime> {
 
     /**
-     * Object pool for caching all BarTimes.
+     * Object pool for caching all BarTimes. The pool can safely be accessed by
+     * several threads at once and only holds weak references. The constants below
+     * are pinned by their static fields, all other BarTimes are evicted from the
+     * pool once they are no longer reachable.
      */
-    private static final Map<Integer, Map<Integer, BarTime>> OBJECT_POOL = new HashMap<>();
+    private static final BarTimePool OBJECT_POOL = new BarTimePool();
 
     /**
      * BarTime of 0/1
@@ -154,10 +161,10 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
     private final int denominator;
 
     /**
-     * Private Constructor should not be used outside of the static factory method.
-     * As there is no validity check and no caching.
+     * Constructor should not be used outside of the {@link BarTimePool}. As there
+     * is no validity check and no caching.
      */
-    private BarTime(int enumerator, int denominator) {
+    BarTime(int enumerator, int denominator) {
         this.numerator = enumerator;
         this.denominator = denominator;
     }
@@ -167,16 +174,24 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
      * fraction representation that is equal to the fraction of
      * {@code enumerator/denominator}. If such a {@code BarTime} has already been
      * created this same object is returned. Otherwise such a {@code BarTime} is
-     * created and cached.
+     * created and cached. The method is thread-safe and guarantees the singleton
+     * property even if it is called by several threads at once.
      *
      * @return a BarTime in a completely irreducible form.
      * @throws IllegalArgumentException if the denominator is zero.
+     * @throws ArithmeticException      if the irreducible fraction cannot be
+     *                                  represented with a positive int
+     *                                  denominator.
      */
     public static BarTime of(int numerator, int denominator) {
         // The denominator cannot be zero.
         if (denominator == 0) {
             throw new IllegalArgumentException("A BarTime cannot have denominator zero.");
         }
+        // The absolute value of Integer.MIN_VALUE is no int. Use the long arithmetic.
+        if (numerator == Integer.MIN_VALUE || denominator == Integer.MIN_VALUE) {
+            return BarTimes.toBarTime(BarTimes.of(numerator, denominator));
+        }
         // Calculate the greatest common factor. The gcf cannot be zero as both numbers
         // cannot be zero.
         int gcf = greatestCommonFactor(numerator, denominator);
@@ -192,19 +207,15 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
             timeDenom = -denominator / gcf;
         }
 
-        if (OBJECT_POOL.containsKey(timeDenom) && OBJECT_POOL.get(timeDenom).containsKey(timeNum)) {
-            return OBJECT_POOL.get(timeDenom).get(timeNum);
-        } else {
-            BarTime t = new BarTime(timeNum, timeDenom);
-            if (OBJECT_POOL.containsKey(timeDenom)) {
-                OBJECT_POOL.get(timeDenom).put(timeNum, t);
-            } else {
-                HashMap<Integer, BarTime> barTimeMap = new HashMap<>();
-                barTimeMap.put(timeNum, t);
-                OBJECT_POOL.put(timeDenom, barTimeMap);
-            }
-            return t;
-        }
+        return intern(timeNum, timeDenom);
+    }
+
+    /**
+     * Returns the pooled BarTime of the given fraction. The fraction must already
+     * be completely irreducible with a strictly positive denominator.
+     */
+    static BarTime intern(int numerator, int denominator) {
+        return OBJECT_POOL.intern(numerator, denominator);
     }
 
     /**
@@ -220,6 +231,20 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
         return BarTime.of(i, 1);
     }
 
+    /**
+     * Returns a snapshot of the statistics of the object pool that caches all
+     * BarTimes. The statistics allow to monitor how many BarTimes are alive and
+     * how often BarTimes are created or evicted.
+     *
+     * @return the current statistics of the BarTime object pool.
+     */
+    public static PoolStatistics poolStatistics() {
+        // The size is computed first as it evicts the entries of collected BarTimes.
+        int size = OBJECT_POOL.size();
+        return new PoolStatistics(OBJECT_POOL.hitCount(), OBJECT_POOL.missCount(), OBJECT_POOL.evictionCount(),
+                size);
+    }
+
     /**
      * A BarTime is represented by a fraction. This method returns the numerator of
      * this representation.
@@ -247,19 +272,19 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
      * @param t2 the second summand.
      * @return the sum of {@code t1} and {@code t2}.
      * @throws NullPointerException if {@code t1} or {@code t2} is null.
+     * @throws ArithmeticException  if the sum cannot be represented as BarTime.
      */
     public static BarTime add(BarTime t1, BarTime t2) {
         Objects.requireNonNull(t1, "Cannot add the BarTimes. The first argument is null.");
         Objects.requireNonNull(t2, "Cannot add the BarTimes. The second argument is null.");
-        int lcm = leastCommonMultiple(t1.getDenominator(), t2.getDenominator());
-
-        int factor1 = lcm / t1.getDenominator();
-        int factor2 = lcm / t2.getDenominator();
-        int time1ExpandedEnum = t1.getNumerator() * factor1;
-        int time2ExpandedEnum = t2.getNumerator() * factor2;
-
-        int sumEnumerators = time1ExpandedEnum + time2ExpandedEnum;
-        return BarTime.of(sumEnumerators, lcm);
+        try {
+            int lcm = leastCommonMultiple(t1.denominator, t2.denominator);
+            int time1ExpandedEnum = Math.multiplyExact(t1.numerator, lcm / t1.denominator);
+            int time2ExpandedEnum = Math.multiplyExact(t2.numerator, lcm / t2.denominator);
+            return BarTime.of(Math.addExact(time1ExpandedEnum, time2ExpandedEnum), lcm);
+        } catch (ArithmeticException e) {
+            return BarTimes.toBarTime(BarTimes.add(BarTimes.pack(t1), BarTimes.pack(t2)));
+        }
     }
 
     /**
@@ -298,19 +323,20 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
      * @param t2 the second differentiator.
      * @return the difference of {@codet1} and {@code t2}.
      * @throws NullPointerException if {@codet1} or {@code t2} is null.
+     * @throws ArithmeticException  if the difference cannot be represented as
+     *                              BarTime.
      */
     public static BarTime subtract(BarTime t1, BarTime t2) {
         Objects.requireNonNull(t1, "Cannot subtract the BarTimes. The first argument is null.");
         Objects.requireNonNull(t2, "Cannot subtract the BarTimes. The second argument is null.");
-        int lcm = leastCommonMultiple(t1.getDenominator(), t2.getDenominator());
-
-        int factor1 = lcm / t1.getDenominator();
-        int factor2 = lcm / t2.getDenominator();
-        int time1ExpandedEnum = t1.getNumerator() * factor1;
-        int time2ExpandedEnum = t2.getNumerator() * factor2;
-
-        int enumerator = time1ExpandedEnum - time2ExpandedEnum;
-        return BarTime.of(enumerator, lcm);
+        try {
+            int lcm = leastCommonMultiple(t1.denominator, t2.denominator);
+            int time1ExpandedEnum = Math.multiplyExact(t1.numerator, lcm / t1.denominator);
+            int time2ExpandedEnum = Math.multiplyExact(t2.numerator, lcm / t2.denominator);
+            return BarTime.of(Math.subtractExact(time1ExpandedEnum, time2ExpandedEnum), lcm);
+        } catch (ArithmeticException e) {
+            return BarTimes.toBarTime(BarTimes.subtract(BarTimes.pack(t1), BarTimes.pack(t2)));
+        }
     }
 
     /**
@@ -352,13 +378,19 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
      * @param t2 the first multiplicand.
      * @return the product of {@code t1} and {@code t2}.
      * @throws NullPointerException if {@code t1} or {@code t2} is null.
+     * @throws ArithmeticException  if the product cannot be represented as
+     *                              BarTime.
      */
     public static BarTime multiply(BarTime t1, BarTime t2) {
         Objects.requireNonNull(t1, "Cannot multiply the BarTimes. The first argument is null.");
         Objects.requireNonNull(t2, "Cannot multiply the BarTimes. The second argument is null.");
-        int enumerator = t1.getNumerator() * t2.getNumerator();
-        int denominator = t1.getDenominator() * t2.getDenominator();
-        return BarTime.of(enumerator, denominator);
+        try {
+            int enumerator = Math.multiplyExact(t1.numerator, t2.numerator);
+            int denominator = Math.multiplyExact(t1.denominator, t2.denominator);
+            return BarTime.of(enumerator, denominator);
+        } catch (ArithmeticException e) {
+            return BarTimes.toBarTime(BarTimes.multiply(BarTimes.pack(t1), BarTimes.pack(t2)));
+        }
     }
 
     /**
@@ -396,17 +428,22 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
      * @param t2 the second factor.
      * @return the fraction of {@code t1} and {@code t2}.
      * @throws NullPointerException if {@code t1} or {@code t2} is null.
-     * @throws ArithmeticException  if {@code t2} equals {@code BarTime.ZERO}.
+     * @throws ArithmeticException  if {@code t2} equals {@code BarTime.ZERO} or
+     *                              the fraction cannot be represented as BarTime.
      */
     public static BarTime divide(BarTime t1, BarTime t2) {
         Objects.requireNonNull(t1, "Cannot divide the BarTimes. The first argument is null.");
         Objects.requireNonNull(t2, "Cannot divide the BarTimes. The second argument is null.");
-        if (t2.equals(BarTime.ZERO)) {
+        if (t2 == BarTime.ZERO) {
             throw new ArithmeticException("Cannot divide by zero.");
         }
-        int enumerator = t1.getNumerator() * t2.getDenominator();
-        int denominator = t1.getDenominator() * t2.getNumerator();
-        return BarTime.of(enumerator, denominator);
+        try {
+            int enumerator = Math.multiplyExact(t1.numerator, t2.denominator);
+            int denominator = Math.multiplyExact(t1.denominator, t2.numerator);
+            return BarTime.of(enumerator, denominator);
+        } catch (ArithmeticException e) {
+            return BarTimes.toBarTime(BarTimes.divide(BarTimes.pack(t1), BarTimes.pack(t2)));
+        }
     }
 
     /**
@@ -443,6 +480,74 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
         return divide(m1.getDuration(), m2.getDuration());
     }
 
+    /**
+     * Compares both BarTimes numerically as rational numbers. The comparison
+     * works directly on the numerators and denominators of both BarTimes and is
+     * used by the {@linkplain Measurable#timeComparator() comparator} of all
+     * Measurables.
+     *
+     * @param t1 the first BarTime.
+     * @param t2 the second BarTime.
+     * @return a negative integer, zero or a positive integer, i.e. -1, 0 or 1, if
+     *         {@code t1} is less than, equal to or greater than {@code t2}.
+     * @throws NullPointerException if one of the arguments is null.
+     */
+    public static int compare(BarTime t1, BarTime t2) {
+        return Long.compare((long) t1.numerator * t2.denominator, (long) t2.numerator * t1.denominator);
+    }
+
+    /**
+     * Returns true if this BarTime is greater than the other BarTime.
+     *
+     * @param other the other BarTime.
+     * @return true if {@code this} is greater than {@code other}.
+     * @throws NullPointerException if other is null.
+     * @see #compare(BarTime, BarTime)
+     */
+    public boolean isGreater(BarTime other) {
+        Objects.requireNonNull(other, "The other BarTime is null.");
+        return compare(this, other) > 0;
+    }
+
+    /**
+     * Returns true if this BarTime is greater than or equal to the other BarTime.
+     *
+     * @param other the other BarTime.
+     * @return true if {@code this} is greater than or equal to {@code other}.
+     * @throws NullPointerException if other is null.
+     * @see #compare(BarTime, BarTime)
+     */
+    public boolean isGreaterOrEqual(BarTime other) {
+        Objects.requireNonNull(other, "The other BarTime is null.");
+        return compare(this, other) >= 0;
+    }
+
+    /**
+     * Returns true if this BarTime is less than the other BarTime.
+     *
+     * @param other the other BarTime.
+     * @return true if {@code this} is less than {@code other}.
+     * @throws NullPointerException if other is null.
+     * @see #compare(BarTime, BarTime)
+     */
+    public boolean isLess(BarTime other) {
+        Objects.requireNonNull(other, "The other BarTime is null.");
+        return compare(this, other) < 0;
+    }
+
+    /**
+     * Returns true if this BarTime is less than or equal to the other BarTime.
+     *
+     * @param other the other BarTime.
+     * @return true if {@code this} is less than or equal to {@code other}.
+     * @throws NullPointerException if other is null.
+     * @see #compare(BarTime, BarTime)
+     */
+    public boolean isLessOrEqual(BarTime other) {
+        Objects.requireNonNull(other, "The other BarTime is null.");
+        return compare(this, other) <= 0;
+    }
+
     /**
      * Returns the minimal BarTime.
      *
@@ -500,7 +605,7 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
 
     @Override
     public int compareTo(BarTime o) {
-        return Measurable.timeComparator().compare(this, o);
+        return compare(this, o);
     }
 
     /**
@@ -555,12 +660,13 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
      * @param j the second integer.
      * @return the absolute value of the least common multiple of {@code i} and
      *         {@code j}.
+     * @throws ArithmeticException if the least common multiple overflows an int.
      */
     public static int leastCommonMultiple(int i, int j) {
         if (i == 0 || j == 0) {
             return 0;
         } else {
-            return Math.abs((i * j) / greatestCommonFactor(i, j));
+            return Math.abs(Math.multiplyExact(i / greatestCommonFactor(i, j), j));
         }
     }
 
@@ -568,4 +674,71 @@ public final class BarTime implements Measurable, Comparable<BarTime> {
     public String toString() {
         return numerator + "/" + denominator;
     }
+
+    /**
+     * Immutable snapshot of the statistics of the BarTime object pool.
+     *
+     * @see BarTime#poolStatistics()
+     */
+    public static final class PoolStatistics {
+
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final long evictionCount;
+
+        private final int size;
+
+        private PoolStatistics(long hitCount, long missCount, long evictionCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        /**
+         * Returns how often a requested BarTime was already contained in the pool.
+         *
+         * @return the number of pool hits.
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Returns how often a requested BarTime was not contained in the pool and
+         * had to be created.
+         *
+         * @return the number of pool misses.
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns how many BarTimes were garbage collected and evicted from the
+         * pool.
+         *
+         * @return the number of evicted entries.
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the number of BarTimes currently contained in the pool.
+         *
+         * @return the size of the pool.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStatistics [hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount="
+                    + evictionCount + ", size=" + size + "]";
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.musicquint.api;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Object pool that interns all BarTimes and guarantees the singleton property
+ * of the {@link BarTime} class even if BarTimes are created concurrently by
+ * several threads.
+ * </p>
+ * The pool is keyed by the numerator and denominator of the BarTime packed into
+ * a single long (see {@link BarTimes}) and is divided into a fixed number of
+ * segments. Each segment is a hash table with separate chaining. Lookups never
+ * lock: the bucket heads are read from an {@link AtomicReferenceArray} and all
+ * nodes are immutable. Only the insertion of a new BarTime locks the single
+ * segment the BarTime belongs to, so threads that intern BarTimes of different
+ * segments never block each other. After the lock is taken the segment is
+ * searched again, therefore two threads can never create two different
+ * instances for the same value.
+ * </p>
+ * The pool only holds weak references to its BarTimes. A BarTime that is not
+ * strongly referenced anywhere else can therefore be garbage collected and its
+ * entry is evicted from the pool. As such a BarTime cannot be compared with any
+ * other BarTime anymore the singleton property holds for all reachable
+ * BarTimes. The constants of {@link BarTime} are strongly referenced by the
+ * class itself and therefore stay in the pool for good.
+ */
+final class BarTimePool {
+
+    /**
+     * Number of segments. Must be a power of two.
+     */
+    private static final int SEGMENT_COUNT = 64;
+
+    /**
+     * Initial number of buckets of every segment. Must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    BarTimePool() {
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the pooled BarTime for the given irreducible fraction. If the pool
+     * does not contain such a BarTime yet a new instance is created and added to
+     * the pool. The caller must ensure that the fraction is irreducible and has a
+     * strictly positive denominator.
+     *
+     * @param numerator   the numerator of the irreducible fraction.
+     * @param denominator the strictly positive denominator of the irreducible
+     *                    fraction.
+     * @return the unique BarTime for the given fraction.
+     */
+    BarTime intern(int numerator, int denominator) {
+        long key = BarTimes.pack(numerator, denominator);
+        int hash = hash(key);
+        Segment segment = segments[hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT))];
+        BarTime t = segment.get(key, hash);
+        if (t != null) {
+            hits.increment();
+            return t;
+        } else {
+            return segment.putIfAbsent(key, hash, numerator, denominator);
+        }
+    }
+
+    /**
+     * Returns the number of pooled BarTimes. Entries of garbage collected
+     * BarTimes are evicted before counting.
+     *
+     * @return the number of BarTimes in the pool.
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.expungeAndCount();
+        }
+        return size;
+    }
+
+    /**
+     * Returns how often a requested BarTime was already contained in the pool.
+     */
+    long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns how often a requested BarTime had to be created.
+     */
+    long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns how many entries of garbage collected BarTimes were removed.
+     */
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Spreads the bits of the packed key. The upper bits select the segment and
+     * the lower bits select the bucket within the segment.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Node extends WeakReference<BarTime> {
+
+        private final long key;
+
+        private final int hash;
+
+        private final Node next;
+
+        private Node(BarTime value, long key, int hash, Node next, ReferenceQueue<BarTime> queue) {
+            super(value, queue);
+            this.key = key;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private final class Segment {
+
+        private final ReferenceQueue<BarTime> queue = new ReferenceQueue<>();
+
+        private volatile AtomicReferenceArray<Node> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+        private int count;
+
+        /**
+         * Lock free lookup. A null result does not guarantee that the BarTime is
+         * absent, as an insertion might be in progress. The caller then has to fall
+         * back to {@link #putIfAbsent(long, int, int, int)}.
+         */
+        private BarTime get(long key, int hash) {
+            AtomicReferenceArray<Node> tab = table;
+            for (Node n = tab.get(hash & (tab.length() - 1)); n != null; n = n.next) {
+                if (n.key == key) {
+                    BarTime t = n.get();
+                    if (t != null) {
+                        return t;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private synchronized BarTime putIfAbsent(long key, int hash, int numerator, int denominator) {
+            BarTime t = get(key, hash);
+            if (t != null) {
+                hits.increment();
+                return t;
+            }
+            misses.increment();
+            expunge();
+            if (count >= table.length() - (table.length() >>> 2)) {
+                resize();
+            }
+            AtomicReferenceArray<Node> tab = table;
+            int index = hash & (tab.length() - 1);
+            t = new BarTime(numerator, denominator);
+            tab.set(index, new Node(t, key, hash, tab.get(index), queue));
+            count++;
+            return t;
+        }
+
+        private synchronized int expungeAndCount() {
+            expunge();
+            return count;
+        }
+
+        /**
+         * Removes the entries of all garbage collected BarTimes, whose references
+         * have been enqueued. The affected buckets are rebuilt without the cleared
+         * nodes, as the nodes themselves are immutable.
+         */
+        private void expunge() {
+            Reference<? extends BarTime> ref;
+            while ((ref = queue.poll()) != null) {
+                AtomicReferenceArray<Node> tab = table;
+                int index = ((Node) ref).hash & (tab.length() - 1);
+                Node head = tab.get(index);
+                Node rebuilt = null;
+                int removed = 0;
+                for (Node n = head; n != null; n = n.next) {
+                    BarTime t = n.get();
+                    if (t != null) {
+                        rebuilt = new Node(t, n.key, n.hash, rebuilt, queue);
+                    } else {
+                        removed++;
+                    }
+                }
+                if (removed > 0) {
+                    tab.set(index, rebuilt);
+                    count -= removed;
+                    evictions.add(removed);
+                }
+            }
+        }
+
+        /**
+         * Doubles the number of buckets. The new table is completely filled before
+         * it is published, so concurrent readers either see the old or the new
+         * table but never a partially filled one.
+         */
+        private void resize() {
+            AtomicReferenceArray<Node> oldTable = table;
+            AtomicReferenceArray<Node> newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+            int mask = newTable.length() - 1;
+            for (int i = 0; i < oldTable.length(); i++) {
+                for (Node n = oldTable.get(i); n != null; n = n.next) {
+                    BarTime t = n.get();
+                    if (t != null) {
+                        int index = n.hash & mask;
+                        newTable.set(index, new Node(t, n.key, n.hash, newTable.get(index), queue));
+                    } else {
+                        count--;
+                        evictions.increment();
+                    }
+                }
+            }
+            table = newTable;
+        }
+    }
+}
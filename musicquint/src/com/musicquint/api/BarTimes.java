@@ -0,0 +1,305 @@
+package com.musicquint.api;
+
+import java.util.Objects;
+
+/**
+ * Static utility methods for BarTimes that are represented as primitive longs.
+ * Every {@link BarTime} is a rational number with an int numerator and a
+ * strictly positive int denominator. Both numbers can be packed into a single
+ * long, where the numerator is stored in the upper and the denominator in the
+ * lower 32 bits. Such a long is called a packed BarTime.
+ * </p>
+ * The arithmetic in this class works on packed BarTimes only and therefore
+ * neither creates nor looks up any BarTime objects. It is meant for hot loops
+ * that accumulate many intermediate durations, e.g. adding up the durations of
+ * a whole score. Only the final result needs to be converted into a BarTime
+ * with {@link #toBarTime(long)}.
+ * </p>
+ * Like a BarTime every packed BarTime returned by this class is completely
+ * irreducible with a strictly positive denominator. Therefore two packed
+ * BarTimes are numerically equal if and only if they are equal as long values.
+ * All intermediate results are computed in long arithmetic. If the irreducible
+ * result cannot be represented with int numerator and denominator an
+ * {@link ArithmeticException} is thrown.
+ *
+ * @see BarTime
+ */
+public final class BarTimes {
+
+    /**
+     * Packed BarTime of 0/1
+     */
+    public static final long ZERO = pack(0, 1);
+
+    /**
+     * Packed BarTime of 1/1
+     */
+    public static final long QUARTER = pack(1, 1);
+
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
+    private BarTimes() {
+        throw new AssertionError("No instances of BarTimes.");
+    }
+
+    /**
+     * Returns the packed BarTime of the given BarTime.
+     *
+     * @param t the given BarTime.
+     * @return the packed BarTime.
+     * @throws NullPointerException if {@code t} is null.
+     */
+    public static long pack(BarTime t) {
+        Objects.requireNonNull(t, "Cannot pack the BarTime. The argument is null.");
+        return pack(t.getNumerator(), t.getDenominator());
+    }
+
+    /**
+     * Returns the packed BarTime of the given Measurable object.
+     *
+     * @param m the given Measurable object.
+     * @return the packed measurement of {@code m}.
+     * @throws NullPointerException if {@code m} is null.
+     */
+    public static long pack(Measurable m) {
+        Objects.requireNonNull(m, "Cannot pack the Measurable. The argument is null.");
+        return pack(m.getDuration());
+    }
+
+    /**
+     * Returns the packed BarTime equal to the fraction
+     * {@code numerator/denominator} in a completely irreducible form.
+     *
+     * @param numerator   the numerator.
+     * @param denominator the denominator.
+     * @return the irreducible packed BarTime.
+     * @throws IllegalArgumentException if the denominator is zero.
+     */
+    public static long of(int numerator, int denominator) {
+        return of((long) numerator, (long) denominator);
+    }
+
+    /**
+     * Returns the packed BarTime equal to the fraction
+     * {@code numerator/denominator} in a completely irreducible form.
+     *
+     * @param numerator   the numerator.
+     * @param denominator the denominator.
+     * @return the irreducible packed BarTime.
+     * @throws IllegalArgumentException if the denominator is zero.
+     * @throws ArithmeticException      if the irreducible fraction does not fit
+     *                                  into int numerator and denominator.
+     */
+    public static long of(long numerator, long denominator) {
+        if (denominator == 0) {
+            throw new IllegalArgumentException("A BarTime cannot have denominator zero.");
+        }
+        if (numerator == 0) {
+            return ZERO;
+        }
+        long gcd = gcd(numerator, denominator);
+        long num = numerator / gcd;
+        long denom = denominator / gcd;
+        if (denom < 0) {
+            num = Math.negateExact(num);
+            denom = Math.negateExact(denom);
+        }
+        if (num != (int) num || denom != (int) denom) {
+            throw new ArithmeticException("The fraction " + num + "/" + denom + " cannot be represented as BarTime.");
+        }
+        return pack((int) num, (int) denom);
+    }
+
+    /**
+     * Returns the BarTime equal to the packed BarTime.
+     *
+     * @param t the packed BarTime.
+     * @return the unique BarTime equal to {@code t}.
+     */
+    public static BarTime toBarTime(long t) {
+        return BarTime.intern(numerator(t), denominator(t));
+    }
+
+    /**
+     * Returns the numerator of the packed BarTime.
+     *
+     * @param t the packed BarTime.
+     * @return the numerator of {@code t}.
+     */
+    public static int numerator(long t) {
+        return (int) (t >> Integer.SIZE);
+    }
+
+    /**
+     * Returns the denominator of the packed BarTime.
+     *
+     * @param t the packed BarTime.
+     * @return the denominator of {@code t}.
+     */
+    public static int denominator(long t) {
+        return (int) (t & UNSIGNED_INT_MASK);
+    }
+
+    /**
+     * Returns the packed sum of both packed BarTimes.
+     *
+     * @param t1 the first summand.
+     * @param t2 the second summand.
+     * @return the packed sum of {@code t1} and {@code t2}.
+     * @throws ArithmeticException if the sum cannot be represented as BarTime.
+     */
+    public static long add(long t1, long t2) {
+        long d1 = denominator(t1);
+        long d2 = denominator(t2);
+        if (d1 == d2) {
+            return of(numerator(t1) + (long) numerator(t2), d1);
+        }
+        long gcd = gcd(d1, d2);
+        return of(numerator(t1) * (d2 / gcd) + numerator(t2) * (d1 / gcd), d1 / gcd * d2);
+    }
+
+    /**
+     * Returns the packed difference of both packed BarTimes.
+     *
+     * @param t1 the minuend.
+     * @param t2 the subtrahend.
+     * @return the packed difference of {@code t1} and {@code t2}.
+     * @throws ArithmeticException if the difference cannot be represented as
+     *                             BarTime.
+     */
+    public static long subtract(long t1, long t2) {
+        long d1 = denominator(t1);
+        long d2 = denominator(t2);
+        if (d1 == d2) {
+            return of(numerator(t1) - (long) numerator(t2), d1);
+        }
+        long gcd = gcd(d1, d2);
+        return of(numerator(t1) * (d2 / gcd) - numerator(t2) * (d1 / gcd), d1 / gcd * d2);
+    }
+
+    /**
+     * Returns the packed product of both packed BarTimes.
+     *
+     * @param t1 the first multiplicand.
+     * @param t2 the second multiplicand.
+     * @return the packed product of {@code t1} and {@code t2}.
+     * @throws ArithmeticException if the product cannot be represented as
+     *                             BarTime.
+     */
+    public static long multiply(long t1, long t2) {
+        return of((long) numerator(t1) * numerator(t2), (long) denominator(t1) * denominator(t2));
+    }
+
+    /**
+     * Returns the packed fraction of both packed BarTimes.
+     *
+     * @param t1 the dividend.
+     * @param t2 the divisor.
+     * @return the packed fraction of {@code t1} and {@code t2}.
+     * @throws ArithmeticException if {@code t2} is zero or the fraction cannot be
+     *                             represented as BarTime.
+     */
+    public static long divide(long t1, long t2) {
+        if (numerator(t2) == 0) {
+            throw new ArithmeticException("Cannot divide by zero.");
+        }
+        return of((long) numerator(t1) * denominator(t2), (long) denominator(t1) * numerator(t2));
+    }
+
+    /**
+     * Compares both packed BarTimes numerically.
+     *
+     * @param t1 the first packed BarTime.
+     * @param t2 the second packed BarTime.
+     * @return a negative integer, zero, or a positive integer as {@code t1} is
+     *         less than, equal to, or greater than {@code t2}.
+     */
+    public static int compare(long t1, long t2) {
+        if (t1 == t2) {
+            return 0;
+        }
+        return Long.compare((long) numerator(t1) * denominator(t2), (long) numerator(t2) * denominator(t1));
+    }
+
+    /**
+     * Returns the greater of both packed BarTimes.
+     *
+     * @param t1 the first packed BarTime.
+     * @param t2 the second packed BarTime.
+     * @return the maximum of {@code t1} and {@code t2}.
+     */
+    public static long max(long t1, long t2) {
+        return compare(t1, t2) >= 0 ? t1 : t2;
+    }
+
+    /**
+     * Returns the lesser of both packed BarTimes.
+     *
+     * @param t1 the first packed BarTime.
+     * @param t2 the second packed BarTime.
+     * @return the minimum of {@code t1} and {@code t2}.
+     */
+    public static long min(long t1, long t2) {
+        return compare(t1, t2) <= 0 ? t1 : t2;
+    }
+
+    /**
+     * Returns the signum of the packed BarTime.
+     *
+     * @param t the packed BarTime.
+     * @return -1, 0 or 1 as {@code t} is negative, zero or positive.
+     */
+    public static int signum(long t) {
+        return Integer.signum(numerator(t));
+    }
+
+    /**
+     * Calculates the greatest common factor of {@code a} and {@code b} with the
+     * binary GCD algorithm. If one of the numbers is zero the absolute value of
+     * the other one is returned.
+     *
+     * @param a the first number.
+     * @param b the second number.
+     * @return the absolute value of the greatest common factor.
+     */
+    public static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        if (a == 0) {
+            return b;
+        }
+        if (b == 0) {
+            return a;
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        do {
+            b >>>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long tmp = a;
+                a = b;
+                b = tmp;
+            }
+            b -= a;
+        } while (b != 0);
+        return a << shift;
+    }
+
+    /**
+     * Returns the packed BarTime as fraction in the form
+     * {@code numerator/denominator}.
+     *
+     * @param t the packed BarTime.
+     * @return the String representation of {@code t}.
+     */
+    public static String toString(long t) {
+        return numerator(t) + "/" + denominator(t);
+    }
+
+    /**
+     * Packs the numerator and denominator without any reduction.
+     */
+    static long pack(int numerator, int denominator) {
+        return ((long) numerator << Integer.SIZE) | (denominator & UNSIGNED_INT_MASK);
+    }
+}
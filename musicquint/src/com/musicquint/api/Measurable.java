@@ -58,18 +58,11 @@ public interface Measurable {
      *         is numerically equal to the measurement of {@code m2}.
      *         </ul>
      *         The comparator throws a {@link NullPointerException} if one of the
-     *         arguments is null.
+     *         arguments is null. The same comparator instance is returned on every
+     *         call.
      */
     static Comparator<Measurable> timeComparator() {
-        return (m1, m2) -> {
-            Objects.requireNonNull(m1, "Cannot compare. The first argument is null.");
-            Objects.requireNonNull(m2, "Cannot compare. The second argument is null.");
-            int numerator = m1.getDuration().getNumerator();
-            int denominator = m1.getDuration().getDenominator();
-            int otherNumerator = m2.getDuration().getNumerator();
-            int otherDenominator = m2.getDuration().getDenominator();
-            return Long.compare((long) numerator * otherDenominator, (long) otherNumerator * denominator);
-        };
+        return TimeComparator.INSTANCE;
     }
 
     /**
@@ -84,7 +77,7 @@ public interface Measurable {
      */
     default boolean isGreater(Measurable other) {
         Objects.requireNonNull(other, "The other Measurable is null.");
-        return timeComparator().compare(this, other) > 0;
+        return BarTime.compare(getDuration(), other.getDuration()) > 0;
     }
 
     /**
@@ -100,7 +93,7 @@ public interface Measurable {
      */
     default boolean isGreaterOrEqual(Measurable other) {
         Objects.requireNonNull(other, "The other Measurable is null.");
-        return timeComparator().compare(this, other) >= 0;
+        return BarTime.compare(getDuration(), other.getDuration()) >= 0;
     }
 
     /**
@@ -114,7 +107,7 @@ public interface Measurable {
      */
     default boolean isLess(Measurable other) {
         Objects.requireNonNull(other, "The other Measurable is null.");
-        return timeComparator().compare(this, other) < 0;
+        return BarTime.compare(getDuration(), other.getDuration()) < 0;
     }
 
     /**
@@ -129,6 +122,6 @@ public interface Measurable {
      */
     default boolean isLessOrEqual(Measurable other) {
         Objects.requireNonNull(other, "The other Measurable is null.");
-        return timeComparator().compare(this, other) <= 0;
+        return BarTime.compare(getDuration(), other.getDuration()) <= 0;
     }
 }
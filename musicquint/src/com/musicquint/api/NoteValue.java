@@ -0,0 +1,302 @@
+package com.musicquint.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * The decomposition of a duration into the notation of a single note, i.e. a
+ * {@link Type}, a number of dots and a tuplet ratio. The duration of a
+ * NoteValue is the duration of its Type extended by its dots and scaled by its
+ * tuplet ratio, e.g. an eighth of a triplet has the Type
+ * {@link Type#EIGHTH}, no dots and the tuplet ratio {@code 3:2}, i.e. three
+ * eighths in the time of two, which yields the duration 1/3.
+ * </p>
+ * All NoteValues with up to {@link #MAX_DOTS} dots and those with the tuplet
+ * ratios {@code 3:2, 5:4, 6:4, 7:4, 9:8, 2:3} and {@code 4:3} and up to
+ * {@link #MAX_TUPLET_DOTS} dots are created in advance.
+ * {@link #of(BarTime)} looks up the NoteValue of a duration in a hash table
+ * keyed by the {@linkplain BarTimes packed BarTime} in constant time and
+ * without any allocation. If several NoteValues have the same duration a
+ * NoteValue without tuplet ratio is preferred over a tuplet, then the order of
+ * the tuplet ratios above and then the fewest dots decide. Durations that
+ * cannot be notated by a single note can be split into tied notes by
+ * {@link #split(BarTime)}.
+ */
+public final class NoteValue implements Measurable {
+
+    /**
+     * The maximal number of dots of a NoteValue.
+     */
+    public static final int MAX_DOTS = 3;
+
+    /**
+     * The maximal number of dots of a NoteValue of a tuplet.
+     */
+    public static final int MAX_TUPLET_DOTS = 1;
+
+    /**
+     * The tuplet ratios, the number of notes followed by the number of notes of
+     * the same Type they replace, in the order of preference.
+     */
+    private static final int[][] TUPLETS = { { 1, 1 }, { 3, 2 }, { 5, 4 }, { 6, 4 }, { 7, 4 }, { 9, 8 }, { 2, 3 },
+            { 4, 3 } };
+
+    private static final Type[] TYPES = Type.values();
+
+    /**
+     * All NoteValues indexed by tuplet, Type and dots.
+     */
+    private static final NoteValue[][][] VALUES = new NoteValue[TUPLETS.length][TYPES.length][MAX_DOTS + 1];
+
+    private static final int TABLE_SIZE = 1024;
+
+    private static final long[] KEYS = new long[TABLE_SIZE];
+
+    private static final NoteValue[] TABLE = new NoteValue[TABLE_SIZE];
+
+    static {
+        for (int tuplet = 0; tuplet < TUPLETS.length; tuplet++) {
+            for (int dots = 0; dots <= maxDots(tuplet); dots++) {
+                for (Type type : TYPES) {
+                    NoteValue value = new NoteValue(type, dots, TUPLETS[tuplet][0], TUPLETS[tuplet][1]);
+                    VALUES[tuplet][type.ordinal()][dots] = value;
+                    int slot = slot(value.packedDuration);
+                    while (TABLE[slot] != null && KEYS[slot] != value.packedDuration) {
+                        slot = (slot + 1) & (TABLE_SIZE - 1);
+                    }
+                    if (TABLE[slot] == null) {
+                        KEYS[slot] = value.packedDuration;
+                        TABLE[slot] = value;
+                    }
+                }
+            }
+        }
+    }
+
+    private final Type type;
+
+    private final int dots;
+
+    private final int actual;
+
+    private final int normal;
+
+    private final long packedDuration;
+
+    private final BarTime duration;
+
+    private NoteValue(Type type, int dots, int actual, int normal) {
+        this.type = type;
+        this.dots = dots;
+        this.actual = actual;
+        this.normal = normal;
+        long packed = BarTimes.pack(type.asBarTime());
+        packed = BarTimes.multiply(packed, BarTimes.of((1 << (dots + 1)) - 1, 1 << dots));
+        this.packedDuration = BarTimes.multiply(packed, BarTimes.of(normal, actual));
+        this.duration = BarTimes.toBarTime(packedDuration);
+    }
+
+    /**
+     * Returns the NoteValue with the given duration.
+     *
+     * @param duration the duration.
+     * @return the NoteValue.
+     * @throws NullPointerException   if the duration is null.
+     * @throws NoSuchElementException if the duration cannot be notated by a
+     *                                single note.
+     */
+    public static NoteValue of(BarTime duration) {
+        NoteValue value = lookup(BarTimes.pack(duration));
+        if (value == null) {
+            throw new NoSuchElementException("There is no NoteValue with the duration " + duration);
+        }
+        return value;
+    }
+
+    /**
+     * Returns true if the duration can be notated by a single note.
+     *
+     * @param duration the duration.
+     * @return true if there is a NoteValue with the given duration.
+     * @throws NullPointerException if the duration is null.
+     */
+    public static boolean isNoteValue(BarTime duration) {
+        return lookup(BarTimes.pack(duration)) != null;
+    }
+
+    /**
+     * Splits the duration into NoteValues that are tied together. If the duration
+     * is a NoteValue itself, a list containing only this NoteValue is returned.
+     * Otherwise the duration is split greedily, the longest NoteValues first. A
+     * duration whose denominator is no power of two is split into notes of the
+     * first tuplet ratio that turns it into such a duration.
+     *
+     * @param duration the duration to be split.
+     * @return the tied NoteValues in descending order of their duration, whose
+     *         durations sum up to the given duration.
+     * @throws NullPointerException     if the duration is null.
+     * @throws IllegalArgumentException if the duration is not greater than zero
+     *                                  or cannot be split into NoteValues.
+     */
+    public static List<NoteValue> split(BarTime duration) {
+        long packed = BarTimes.pack(duration);
+        NoteValue value = lookup(packed);
+        if (value != null) {
+            return Collections.singletonList(value);
+        }
+        if (BarTimes.signum(packed) <= 0) {
+            throw new IllegalArgumentException("The duration " + duration + " is not greater than zero.");
+        }
+        for (int tuplet = 0; tuplet < TUPLETS.length; tuplet++) {
+            long scaled = BarTimes.multiply(packed, BarTimes.of(TUPLETS[tuplet][0], TUPLETS[tuplet][1]));
+            if (Integer.bitCount(BarTimes.denominator(scaled)) == 1) {
+                List<NoteValue> values = splitBinary(scaled, tuplet);
+                if (values != null) {
+                    return values;
+                }
+            }
+        }
+        throw new IllegalArgumentException("The duration " + duration + " cannot be split into NoteValues.");
+    }
+
+    /**
+     * Splits a duration with a denominator that is a power of two into the
+     * NoteValues of the given tuplet ratio or returns null if the duration has
+     * fractions shorter than the shortest Type.
+     */
+    private static List<NoteValue> splitBinary(long packed, int tuplet) {
+        List<NoteValue> values = new ArrayList<>();
+        long remaining = packed;
+        int typeIndex = 0;
+        while (BarTimes.signum(remaining) > 0) {
+            while (typeIndex < TYPES.length
+                    && BarTimes.compare(BarTimes.pack(TYPES[typeIndex].asBarTime()), remaining) > 0) {
+                typeIndex++;
+            }
+            if (typeIndex == TYPES.length) {
+                return null;
+            }
+            long value = BarTimes.pack(TYPES[typeIndex].asBarTime());
+            long next = value;
+            int dots = 0;
+            while (dots < maxDots(tuplet)) {
+                next = BarTimes.multiply(next, BarTimes.of(1, 2));
+                if (BarTimes.compare(BarTimes.add(value, next), remaining) > 0) {
+                    break;
+                }
+                value = BarTimes.add(value, next);
+                dots++;
+            }
+            values.add(VALUES[tuplet][typeIndex][dots]);
+            remaining = BarTimes.subtract(remaining, value);
+        }
+        return values;
+    }
+
+    private static int maxDots(int tuplet) {
+        return tuplet == 0 ? MAX_DOTS : MAX_TUPLET_DOTS;
+    }
+
+    private static NoteValue lookup(long packed) {
+        for (int slot = slot(packed); TABLE[slot] != null; slot = (slot + 1) & (TABLE_SIZE - 1)) {
+            if (KEYS[slot] == packed) {
+                return TABLE[slot];
+            }
+        }
+        return null;
+    }
+
+    private static int slot(long packed) {
+        long h = packed * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 54) & (TABLE_SIZE - 1);
+    }
+
+    /**
+     * Returns the Type of the note.
+     *
+     * @return the Type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of dots of the note.
+     *
+     * @return the number of dots.
+     */
+    public int getDots() {
+        return dots;
+    }
+
+    /**
+     * Returns the number of notes of the tuplet, e.g. 3 for a triplet, or 1 if
+     * the note is no tuplet.
+     *
+     * @return the number of notes of the tuplet.
+     */
+    public int getTupletActual() {
+        return actual;
+    }
+
+    /**
+     * Returns the number of notes of the same Type in whose time the notes of the
+     * tuplet are played, e.g. 2 for a triplet, or 1 if the note is no tuplet.
+     *
+     * @return the number of notes replaced by the tuplet.
+     */
+    public int getTupletNormal() {
+        return normal;
+    }
+
+    /**
+     * Returns true if the note is part of a tuplet.
+     *
+     * @return true if the tuplet ratio is not 1:1.
+     */
+    public boolean isTuplet() {
+        return actual != normal;
+    }
+
+    /**
+     * Returns the duration of the note.
+     *
+     * @return the duration.
+     */
+    @Override
+    public BarTime getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(type.getSimpleName());
+        for (int i = 0; i < dots; i++) {
+            builder.append('.');
+        }
+        if (isTuplet()) {
+            builder.append(' ').append(actual).append(':').append(normal);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, dots, actual, normal);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof NoteValue)) {
+            return false;
+        }
+        NoteValue other = (NoteValue) obj;
+        return type == other.type && dots == other.dots && actual == other.actual && normal == other.normal;
+    }
+}
@@ -1,7 +1,6 @@
 package com.musicquint.api;
 
-import java.util.EnumSet;
-import java.util.regex.Matcher;
+import java.util.NoSuchElementException;
 import java.util.regex.Pattern;
 
 //TODO documentation
@@ -29,6 +28,8 @@ public enum Octave {
 
     public static final Pattern PATTERN = Pattern.compile(REGEX);
 
+    private static final Octave[] VALUES = values();
+
     private final int octaveNumber;
 
     private Octave(int i) {
@@ -36,25 +37,33 @@ public enum Octave {
     }
 
     public static Octave parse(String string) {
-        Matcher matcher = PATTERN.matcher(string);
-        if (matcher.matches()) {
-            String subgreat = matcher.group("subsmall");
-            String lined = matcher.group("lined");
-            if (subgreat != null) {
-                return Octave.valueOf(3 - subgreat.length());
-            } else if(lined != null) {
-                return Octave.valueOf(3 + lined.length());
-            } else {
-                return Octave.SMALL;
+        int length = string.length();
+        char c = length == 0 ? 0 : string.charAt(0);
+        if (length == 0) {
+            return SMALL;
+        } else if (c == ',' && length <= 3 && repeats(string, c)) {
+            return VALUES[SMALL.octaveNumber - length];
+        } else if (c == '\'' && length <= 5 && repeats(string, c)) {
+            return VALUES[SMALL.octaveNumber + length];
+        }
+        throw new IllegalArgumentException(
+                "The input " + string + " does not match the regular expression " + REGEX);
+    }
+
+    private static boolean repeats(String string, char c) {
+        for (int i = 1; i < string.length(); i++) {
+            if (string.charAt(i) != c) {
+                return false;
             }
-        } else {
-            throw new IllegalArgumentException(
-                    "The input " + string + " does not match the regular expression " + REGEX);
         }
+        return true;
     }
 
     public static Octave valueOf(int i) {
-        return EnumSet.allOf(Octave.class).stream().filter(t -> t.asInt() == i).findAny().get();
+        if (i < SUBCONTRA.octaveNumber || i > FIVE_LINED.octaveNumber) {
+            throw new NoSuchElementException("There is no Octave with the number " + i);
+        }
+        return VALUES[i];
     }
 
     public int asInt() {
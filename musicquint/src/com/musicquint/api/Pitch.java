@@ -1,7 +1,6 @@
 package com.musicquint.api;
 
 import java.util.Objects;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -14,6 +13,30 @@ public class Pitch implements Pitched {
 
     public static final Pattern PATTERN = Pattern.compile(REGEX);
 
+    private static final int ALTERS = Alter.values().length;
+
+    private static final int OCTAVES = Octave.values().length;
+
+    private static final int ALTER_OFFSET = Alter.NATURAL.ordinal();
+
+    /**
+     * The number of distinct Pitches.
+     */
+    public static final int COUNT = Step.values().length * ALTERS * OCTAVES;
+
+    private static final Pitch[] PITCHES = new Pitch[COUNT];
+
+    static {
+        for (Step step : Step.values()) {
+            for (Alter alter : Alter.values()) {
+                for (Octave octave : Octave.values()) {
+                    PITCHES[ordinal(step.ordinal(), alter.ordinal(), octave.ordinal())] = new Pitch(step, alter,
+                            octave);
+                }
+            }
+        }
+    }
+
     // Class fields
     private final Step step;
 
@@ -27,16 +50,95 @@ public class Pitch implements Pitched {
         this.octave = Objects.requireNonNullElse(octave, Octave.SMALL);
     }
 
+    /**
+     * Parses a Pitch in a single pass over the characters of the string without
+     * matching the {@link #PATTERN}. The string consists of the letter of the
+     * {@link Step}, the alteration, i.e. one or two {@code s} or {@code f}, and
+     * the octave, i.e. one to three {@code ,} or one to five {@code '}, where the
+     * alteration and the octave are optional.
+     *
+     * @param string the string to be parsed.
+     * @return the canonical Pitch instance, see {@link #of(Step, Alter, Octave)}.
+     * @throws IllegalArgumentException if the string does not match the pattern
+     *                                  {@link #REGEX}.
+     */
     public static Pitch parse(String string) {
-        Matcher matcher = PATTERN.matcher(string);
-        if (matcher.matches()) {
-            String step = matcher.group("step");
-            String alter = Objects.requireNonNullElse(matcher.group("alter"), "");
-            String octave = Objects.requireNonNullElse(matcher.group("octave"), "");
-            return new Pitch(Step.parse(step), Alter.parse(alter), Octave.parse(octave));
-        } else {
+        int length = string.length();
+        Step step = length == 0 ? null : Step.valueOf(string.charAt(0));
+        int i = 1;
+        int alter = 0;
+        if (i < length && (string.charAt(i) == 's' || string.charAt(i) == 'f')) {
+            char c = string.charAt(i);
+            int start = i;
+            while (i < length && i - start < 2 && string.charAt(i) == c) {
+                i++;
+            }
+            alter = c == 's' ? i - start : start - i;
+        }
+        int octave = 0;
+        if (i < length && (string.charAt(i) == ',' || string.charAt(i) == '\'')) {
+            char c = string.charAt(i);
+            int start = i;
+            int max = c == ',' ? 3 : 5;
+            while (i < length && i - start < max && string.charAt(i) == c) {
+                i++;
+            }
+            octave = c == ',' ? start - i : i - start;
+        }
+        if (step == null || i != length) {
             throw new IllegalArgumentException("The input " + string + " does not match the pattern " + REGEX);
         }
+        return PITCHES[ordinal(step.ordinal(), alter + ALTER_OFFSET, octave + Octave.SMALL.ordinal())];
+    }
+
+    /**
+     * Returns the canonical instance of the Pitch with the given Step, Alter and
+     * Octave. All 315 Pitches are created in advance, hence this method never
+     * creates a new object. As in {@link #Pitch(Step, Alter, Octave)} a missing
+     * Alter is {@link Alter#NATURAL} and a missing Octave is
+     * {@link Octave#SMALL}.
+     *
+     * @param step   the Step of the Pitch.
+     * @param alter  the Alter of the Pitch or null.
+     * @param octave the Octave of the Pitch or null.
+     * @return the canonical Pitch.
+     * @throws NullPointerException if the Step is null.
+     */
+    public static Pitch of(Step step, Alter alter, Octave octave) {
+        Objects.requireNonNull(step);
+        Alter a = Objects.requireNonNullElse(alter, Alter.NATURAL);
+        Octave o = Objects.requireNonNullElse(octave, Octave.SMALL);
+        return PITCHES[ordinal(step.ordinal(), a.ordinal(), o.ordinal())];
+    }
+
+    /**
+     * Returns the canonical Pitch with the given ordinal.
+     *
+     * @param ordinal the ordinal of the Pitch, see {@link #ordinal()}.
+     * @return the canonical Pitch.
+     * @throws IllegalArgumentException if the ordinal is less than zero or not
+     *                                  less than {@link #COUNT}.
+     */
+    public static Pitch ofOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= COUNT) {
+            throw new IllegalArgumentException("The ordinal " + ordinal + " is not in the range [0, " + COUNT + ")");
+        }
+        return PITCHES[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the Pitch, a number in the range [0, {@link #COUNT})
+     * that is unique for every combination of Step, Alter and Octave. The
+     * ordinals are ordered by Step, then Alter and then Octave.
+     *
+     * @return the ordinal of the Pitch.
+     */
+    public int ordinal() {
+        return ordinal(step.ordinal(), alter.ordinal(), octave.ordinal());
+    }
+
+    private static int ordinal(int step, int alter, int octave) {
+        return (step * ALTERS + alter) * OCTAVES + octave;
     }
 
     /**
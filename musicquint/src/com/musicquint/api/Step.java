@@ -1,6 +1,5 @@
 package com.musicquint.api;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 //TODO documentation
@@ -27,13 +26,32 @@ public enum Step {
 
     public static final Pattern PATTERN = Pattern.compile(REGEX);
 
+    private static final Step[] BY_LETTER = { A, B, C, D, E, F, G };
+
     public static Step parse(String string) {
-        Matcher matcher = PATTERN.matcher(string);
-        if (matcher.matches()) {
-            return Step.valueOf(matcher.group("step").toUpperCase());
-        } else {
+        Step step = string.length() == 1 ? valueOf(string.charAt(0)) : null;
+        if (step == null) {
             throw new IllegalArgumentException("The input " + string + " does not match the pattern " + REGEX);
         }
+        return step;
+    }
+
+    /**
+     * Returns the Step of the given letter, which may be in lower or upper case.
+     * This method does the same as {@link #parse(String)} for a single character
+     * without matching the {@link #PATTERN}.
+     *
+     * @param c the letter of the Step.
+     * @return the Step or null if the character is no letter from a to g.
+     */
+    static Step valueOf(char c) {
+        if (c >= 'a' && c <= 'g') {
+            return BY_LETTER[c - 'a'];
+        }
+        if (c >= 'A' && c <= 'G') {
+            return BY_LETTER[c - 'A'];
+        }
+        return null;
     }
 
     private Step(int i) {
@@ -0,0 +1,22 @@
+package com.musicquint.api;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * The singleton {@link Comparator} returned by
+ * {@link Measurable#timeComparator()}. The comparator obtains the measurement
+ * of both Measurables once and compares the BarTimes with
+ * {@link BarTime#compare(BarTime, BarTime)}.
+ */
+enum TimeComparator implements Comparator<Measurable> {
+
+    INSTANCE;
+
+    @Override
+    public int compare(Measurable m1, Measurable m2) {
+        Objects.requireNonNull(m1, "Cannot compare. The first argument is null.");
+        Objects.requireNonNull(m2, "Cannot compare. The second argument is null.");
+        return BarTime.compare(m1.getDuration(), m2.getDuration());
+    }
+}
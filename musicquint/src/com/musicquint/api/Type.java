@@ -1,7 +1,7 @@
 package com.musicquint.api;
 
-import java.util.EnumSet;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * Notes and Rest usually have a Type for visual representation.
@@ -36,14 +36,31 @@ public enum Type implements Comparable<Type> {
         typeDuration = t;
     }
 
+    private static final Type[] VALUES = values();
+
     /**
-     * Static factory for the class type.
+     * Static factory for the class type. The Type is computed from the numerator
+     * and the denominator of the BarTime in constant time.
      * @param t
-     * @return
-     * @throws NoSuchElementException
+     * @return the Type whose duration is equal to the BarTime
+     * @throws NoSuchElementException if there is no Type with this duration, e.g.
+     *                                for dotted or tuplet durations.
+     * @see NoteValue#of(BarTime)
      */
     public static Type of(BarTime t) {
-        return EnumSet.allOf(Type.class).stream().filter(type -> type.asBarTime().equals(t)).findFirst().get();
+        Objects.requireNonNull(t, "The BarTime is null.");
+        int numerator = t.getNumerator();
+        int denominator = t.getDenominator();
+        int ordinal = -1;
+        if (numerator == 1 && Integer.bitCount(denominator) == 1) {
+            ordinal = QUARTER.ordinal() + Integer.numberOfTrailingZeros(denominator);
+        } else if (denominator == 1 && numerator > 0 && Integer.bitCount(numerator) == 1) {
+            ordinal = QUARTER.ordinal() - Integer.numberOfTrailingZeros(numerator);
+        }
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new NoSuchElementException("There is no Type with the duration " + t);
+        }
+        return VALUES[ordinal];
     }
 
     /**
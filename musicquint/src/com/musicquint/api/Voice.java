@@ -180,8 +180,27 @@ public interface Voice extends BarMap<Voice.MeasurableCollection<PrincipalItem>>
 
     interface MeasurableCollection<T extends Measurable> extends Collection<T>, Measurable {
 
+        /**
+         * Returns the greatest measurement of all items in the collection or
+         * {@link BarTime#ZERO} if the collection is empty. The default
+         * implementation iterates once over the collection and compares the
+         * measurements with the primitive arithmetic of {@link BarTimes}.
+         *
+         * @return the maximal duration of all items in the collection.
+         */
+        @Override
         default BarTime getDuration() {
-            return stream().max(timeComparator()).map(Measurable::getDuration).orElse(BarTime.ZERO);
+            BarTime max = null;
+            long packedMax = 0;
+            for (T item : this) {
+                BarTime duration = item.getDuration();
+                long packed = BarTimes.pack(duration);
+                if (max == null || BarTimes.compare(packed, packedMax) > 0) {
+                    max = duration;
+                    packedMax = packed;
+                }
+            }
+            return max != null ? max : BarTime.ZERO;
         }
     }
 }
@@ -0,0 +1,335 @@
+package com.musicquint.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+import com.musicquint.api.BarMap;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Measurable;
+import com.musicquint.util.AbstractIndexedNavigableMap;
+
+/**
+ * Implementation of a {@link BarMap} that stores its entries in sorted arrays.
+ * Besides the keys and values the map stores the keys as
+ * {@linkplain BarTimes packed BarTimes} together with the packed BarTime at
+ * which every entry ends, i.e. the key plus the duration of the value. The
+ * sorted keys and their end times form an interval index of the map.
+ * Therefore {@link #fits(BarTime, Measurable)}, {@link #lasting(BarTime)},
+ * {@link #next(BarTime)}, {@link #activeEntry(BarTime)} and all navigation
+ * methods run in {@code O(log n)} time with a single binary search over
+ * primitive longs and without creating any intermediate BarTime. Range queries
+ * are supported through the backed views like
+ * {@link #subMap(Object, boolean, Object, boolean)}.
+ * </p>
+ * Inserting and removing an entry shifts the following entries of the arrays
+ * and needs {@code O(n)} time in the worst case. A map can be built from sorted
+ * entries in {@code O(n)} time with
+ * {@link #ArrayBarMap(BarTime, Collection)}.
+ * </p>
+ * The end times are computed when an entry is put into the map. The duration
+ * of a value must therefore not change while the value is contained in the
+ * map.
+ *
+ * @param <T> the type of the Measurable values.
+ */
+public class ArrayBarMap<T extends Measurable> extends AbstractIndexedNavigableMap<BarTime, T> implements BarMap<T> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final BarTime capacity;
+
+    private final long packedCapacity;
+
+    private long[] keys;
+
+    private long[] ends;
+
+    private BarTime[] times;
+
+    private Object[] values;
+
+    private int size;
+
+    /**
+     * Creates an empty BarMap with the given capacity.
+     *
+     * @param capacity the capacity of the BarMap.
+     * @throws NullPointerException     if the capacity is null.
+     * @throws IllegalArgumentException if the capacity is less than zero.
+     */
+    public ArrayBarMap(BarTime capacity) {
+        this(capacity, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a BarMap with the given capacity that contains all given entries.
+     * The entries must be given in strictly ascending order of their keys and
+     * must satisfy all constraints of a BarMap. As the entries are already sorted
+     * the map is built in {@code O(n)} time.
+     *
+     * @param capacity the capacity of the BarMap.
+     * @param entries  the entries in strictly ascending order of their keys.
+     * @throws NullPointerException     if the capacity, the collection or any key
+     *                                  or value is null.
+     * @throws IllegalArgumentException if the capacity is less than zero, the
+     *                                  entries are not in strictly ascending order
+     *                                  or an entry does not fit into the BarMap.
+     */
+    public ArrayBarMap(BarTime capacity, Collection<? extends Entry<BarTime, ? extends T>> entries) {
+        this(capacity, Math.max(INITIAL_CAPACITY, entries.size()));
+        for (Entry<BarTime, ? extends T> entry : entries) {
+            BarTime key = Objects.requireNonNull(entry.getKey(), "The key of an entry is null.");
+            T value = Objects.requireNonNull(entry.getValue(), "The value of an entry is null.");
+            long time = BarTimes.pack(key);
+            long end = BarTimes.add(time, BarTimes.pack(value));
+            if (size > 0 && BarTimes.compare(keys[size - 1], time) >= 0) {
+                throw new IllegalArgumentException("The entries are not in strictly ascending order at " + key);
+            }
+            if (BarTimes.signum(time) < 0 || BarTimes.compare(time, packedCapacity) > 0
+                    || BarTimes.compare(end, packedCapacity) > 0
+                    || (size > 0 && BarTimes.compare(ends[size - 1], time) > 0)) {
+                throw new IllegalArgumentException("The Measurable " + value + " does not fit in at the time " + key);
+            }
+            append(key, time, end, value);
+        }
+    }
+
+    /**
+     * Creates a BarMap that adopts the given arrays without copying or checking
+     * them. The first {@code size} entries of the arrays must be sorted and
+     * satisfy all constraints of a BarMap.
+     */
+    ArrayBarMap(BarTime capacity, long[] keys, long[] ends, BarTime[] times, Object[] values, int size) {
+        this(capacity, 0);
+        this.keys = keys;
+        this.ends = ends;
+        this.times = times;
+        this.values = values;
+        this.size = size;
+    }
+
+    private ArrayBarMap(BarTime capacity, int initialCapacity) {
+        Objects.requireNonNull(capacity, "The capacity is null.");
+        if (capacity.isLess(BarTime.ZERO)) {
+            throw new IllegalArgumentException("The capacity " + capacity + " is less than zero.");
+        }
+        this.capacity = capacity;
+        this.packedCapacity = BarTimes.pack(capacity);
+        this.keys = new long[initialCapacity];
+        this.ends = new long[initialCapacity];
+        this.times = new BarTime[initialCapacity];
+        this.values = new Object[initialCapacity];
+    }
+
+    @Override
+    public BarTime capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T put(BarTime key, T value) {
+        Objects.requireNonNull(key, "The key is null.");
+        Objects.requireNonNull(value, "The value is null.");
+        long time = BarTimes.pack(key);
+        int index = search(time);
+        if (!fits(time, index, BarTimes.pack(value))) {
+            throw new IllegalStateException("The Measurable " + value + " does not fit in at the time " + key);
+        }
+        long end = BarTimes.add(time, BarTimes.pack(value));
+        if (index >= 0) {
+            T previous = valueAt(index);
+            ends[index] = end;
+            values[index] = value;
+            return previous;
+        }
+        insert(-index - 1, key, time, end, value);
+        return null;
+    }
+
+    @Override
+    public boolean fits(BarTime key, Measurable value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        long time = BarTimes.pack(key);
+        return fits(time, search(time), BarTimes.pack(value));
+    }
+
+    @Override
+    public BarTime lasting(BarTime key) {
+        long time = BarTimes.pack(Objects.requireNonNull(key));
+        int lower = lowerIndex(search(time));
+        if (lower < 0) {
+            return BarTime.ZERO;
+        }
+        long lasting = BarTimes.subtract(ends[lower], time);
+        return BarTimes.signum(lasting) > 0 ? BarTimes.toBarTime(lasting) : BarTime.ZERO;
+    }
+
+    @Override
+    public BarTime next(BarTime key) {
+        long time = BarTimes.pack(Objects.requireNonNull(key));
+        int higher = higherIndex(search(time));
+        long limit = higher < size ? keys[higher] : packedCapacity;
+        return BarTimes.toBarTime(BarTimes.subtract(limit, time));
+    }
+
+    @Override
+    public BarTime length() {
+        return size == 0 ? BarTime.ZERO : BarTimes.toBarTime(ends[size - 1]);
+    }
+
+    /**
+     * Returns the entry that is active at the given time, i.e. the entry with the
+     * greatest key {@code k} less or equal than the given time, if the time lies
+     * in the interval {@code [k, k + d)} or is equal to {@code k}, where {@code d}
+     * is the duration of the value of the entry.
+     *
+     * @param time the given time.
+     * @return the active entry at the given time or null if there is no such
+     *         entry.
+     * @throws NullPointerException if the time is null.
+     */
+    public Entry<BarTime, T> activeEntry(BarTime time) {
+        long packed = BarTimes.pack(Objects.requireNonNull(time));
+        int index = search(packed);
+        if (index >= 0) {
+            return entryAt(index);
+        }
+        int floor = -index - 2;
+        return floor >= 0 && BarTimes.compare(ends[floor], packed) > 0 ? entryAt(floor) : null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(times, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    protected int search(BarTime key) {
+        return search(BarTimes.pack(Objects.requireNonNull(key)));
+    }
+
+    @Override
+    protected BarTime keyAt(int index) {
+        return times[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T valueAt(int index) {
+        return (T) values[index];
+    }
+
+    @Override
+    protected T removeAt(int index) {
+        T previous = valueAt(index);
+        int moved = size - index - 1;
+        System.arraycopy(keys, index + 1, keys, index, moved);
+        System.arraycopy(ends, index + 1, ends, index, moved);
+        System.arraycopy(times, index + 1, times, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        times[size] = null;
+        values[size] = null;
+        return previous;
+    }
+
+    /**
+     * Binary search for the packed BarTime in the sorted keys.
+     */
+    int search(long time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = BarTimes.compare(keys[mid], time);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Returns the packed key at the given index.
+     */
+    long packedKeyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the packed BarTime at which the entry at the given index ends.
+     */
+    long packedEndAt(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Returns the packed capacity.
+     */
+    long packedCapacity() {
+        return packedCapacity;
+    }
+
+    private static int lowerIndex(int searchResult) {
+        return searchResult >= 0 ? searchResult - 1 : -searchResult - 2;
+    }
+
+    private static int higherIndex(int searchResult) {
+        return searchResult >= 0 ? searchResult + 1 : -searchResult - 1;
+    }
+
+    /**
+     * Checks the constraints of the BarMap with the result of a previous search
+     * for the given time.
+     */
+    private boolean fits(long time, int searchResult, long duration) {
+        if (BarTimes.signum(time) < 0 || BarTimes.compare(time, packedCapacity) > 0) {
+            return false;
+        }
+        int lower = lowerIndex(searchResult);
+        if (lower >= 0 && BarTimes.compare(ends[lower], time) > 0) {
+            return false;
+        }
+        int higher = higherIndex(searchResult);
+        long limit = higher < size ? keys[higher] : packedCapacity;
+        return BarTimes.compare(BarTimes.add(time, duration), limit) <= 0;
+    }
+
+    private void append(BarTime key, long time, long end, T value) {
+        insert(size, key, time, end, value);
+    }
+
+    private void insert(int index, BarTime key, long time, long end, T value) {
+        if (size == keys.length) {
+            int newLength = Math.max(INITIAL_CAPACITY, keys.length * 2);
+            keys = Arrays.copyOf(keys, newLength);
+            ends = Arrays.copyOf(ends, newLength);
+            times = Arrays.copyOf(times, newLength);
+            values = Arrays.copyOf(values, newLength);
+        }
+        int moved = size - index;
+        System.arraycopy(keys, index, keys, index + 1, moved);
+        System.arraycopy(ends, index, ends, index + 1, moved);
+        System.arraycopy(times, index, times, index + 1, moved);
+        System.arraycopy(values, index, values, index + 1, moved);
+        keys[index] = time;
+        ends[index] = end;
+        times[index] = key;
+        values[index] = value;
+        size++;
+    }
+}
@@ -0,0 +1,309 @@
+package com.musicquint.impl;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.OptionalItem;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Voice;
+
+/**
+ * Implementation of a {@link Voice} based on an {@link ArrayBarMap}. The
+ * PrincipalItems at the same BarTime are stored in a {@link ContentSet}, which
+ * the voice returns only as a read-only view, as the voice caches the end of
+ * every entry. OptionalItems are not supported by this implementation.
+ * </p>
+ * A voice whose items are already known in ascending order of their onsets,
+ * e.g. the items of a voice read by an importer, can be created with a
+ * {@link Builder} in {@code O(n)} time. The builder appends the items without
+ * checking them and validates the whole voice once when it is built.
+ * </p>
+ * The voice keeps track of its gaps while entries are put and removed. A gap is
+ * an interval between the end of an entry, or zero, and the next key, or the
+ * capacity, that is not covered by any entry. As every put and removal changes
+ * at most the two gaps next to the entry, the gaps are updated in
+ * {@code O(log g)} time for {@code g} gaps. Hence {@link #isWellStuffed()} runs
+ * in constant time and {@link #getGaps()} in {@code O(g)} time. Overlapping
+ * entries cannot occur as they are rejected by every put.
+ */
+public class ArrayVoice extends ArrayBarMap<Voice.MeasurableCollection<PrincipalItem>> implements Voice {
+
+    /**
+     * The start of every gap mapped by the end of the gap.
+     */
+    private final TreeMap<BarTime, BarTime> gaps = new TreeMap<>();
+
+    /**
+     * Creates an empty voice with the given capacity.
+     *
+     * @param capacity the capacity of the voice.
+     * @throws NullPointerException     if the capacity is null.
+     * @throws IllegalArgumentException if the capacity is less than zero.
+     */
+    public ArrayVoice(BarTime capacity) {
+        super(capacity);
+        updateGap(0);
+    }
+
+    private ArrayVoice(BarTime capacity, long[] keys, long[] ends, BarTime[] times, Object[] values, int size) {
+        super(capacity, keys, ends, times, values, size);
+        for (int i = 0; i <= size; i++) {
+            updateGap(i);
+        }
+    }
+
+    @Override
+    public Voice.MeasurableCollection<PrincipalItem> put(BarTime key, Voice.MeasurableCollection<PrincipalItem> value) {
+        Voice.MeasurableCollection<PrincipalItem> previous = super.put(key, value);
+        int index = search(BarTimes.pack(key));
+        if (previous == null) {
+            updateGap(index);
+        }
+        updateGap(index + 1);
+        return previous;
+    }
+
+    @Override
+    public void put(BarTime key, PrincipalItem item) {
+        Objects.requireNonNull(key, "The key is null.");
+        Objects.requireNonNull(item, "The item is null.");
+        if (key.isLess(BarTime.ZERO) || key.isGreater(capacity())) {
+            throw new IllegalArgumentException("The key " + key + " is not in the range [0, " + capacity() + "]");
+        }
+        if (!fits(key, item)) {
+            throw new IllegalStateException("The item " + item + " does not fit in at the time " + key);
+        }
+        int index = search(BarTimes.pack(key));
+        Voice.MeasurableCollection<PrincipalItem> items = index >= 0 ? super.valueAt(index) : null;
+        ContentSet<PrincipalItem> content;
+        if (items instanceof ContentSet) {
+            content = (ContentSet<PrincipalItem>) items;
+        } else {
+            content = items == null ? new ContentSet<>() : new ContentSet<>(items);
+        }
+        content.add(item);
+        put(key, content);
+    }
+
+    /**
+     * OptionalItems are not supported by an ArrayVoice.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void put(BarTime key, OptionalItem item) {
+        throw new UnsupportedOperationException("An ArrayVoice does not support OptionalItems.");
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        gaps.clear();
+        updateGap(0);
+    }
+
+    /**
+     * Returns true if the voice is well-stuffed, i.e. its entries cover the whole
+     * interval from zero to the capacity of the voice without gaps. The method
+     * runs in constant time.
+     *
+     * @return true if the voice has no gaps.
+     */
+    public boolean isWellStuffed() {
+        return gaps.isEmpty();
+    }
+
+    /**
+     * Returns the gaps of the voice in ascending order. Every gap is given as an
+     * entry of its start and its end.
+     *
+     * @return the list of gaps, which is empty if the voice is well-stuffed.
+     */
+    public List<Map.Entry<BarTime, BarTime>> getGaps() {
+        List<Map.Entry<BarTime, BarTime>> list = new ArrayList<>(gaps.size());
+        for (Map.Entry<BarTime, BarTime> gap : gaps.entrySet()) {
+            list.add(new SimpleImmutableEntry<>(gap.getValue(), gap.getKey()));
+        }
+        return list;
+    }
+
+    @Override
+    protected Voice.MeasurableCollection<PrincipalItem> valueAt(int index) {
+        return UnmodifiableMeasurableCollection.of(super.valueAt(index));
+    }
+
+    @Override
+    protected Voice.MeasurableCollection<PrincipalItem> removeAt(int index) {
+        BarTime key = keyAt(index);
+        Voice.MeasurableCollection<PrincipalItem> previous = super.removeAt(index);
+        gaps.remove(key);
+        updateGap(index);
+        return previous;
+    }
+
+    /**
+     * Updates the gap in front of the entry at the given index or in front of the
+     * capacity if the index is equal to the size of the voice. If the last key is
+     * equal to the capacity, there is no gap in front of the capacity and the
+     * gap with the capacity as its end belongs to the last entry.
+     */
+    private void updateGap(int index) {
+        boolean last = index == size();
+        if (last && index > 0 && BarTimes.compare(packedKeyAt(index - 1), packedCapacity()) == 0) {
+            return;
+        }
+        long start = index == 0 ? BarTimes.ZERO : packedEndAt(index - 1);
+        long end = last ? packedCapacity() : packedKeyAt(index);
+        BarTime endTime = last ? capacity() : keyAt(index);
+        if (BarTimes.compare(start, end) < 0) {
+            gaps.put(endTime, BarTimes.toBarTime(start));
+        } else {
+            gaps.remove(endTime);
+        }
+    }
+
+    /**
+     * Builder of an {@link ArrayVoice} from items that are appended in ascending
+     * order of their onsets. Items with the same onset as the previous item are
+     * added to the same {@link ContentSet}. Appending an item runs in amortized
+     * constant time and does not check the constraints of a voice. Instead the
+     * voice is checked once by {@link #build()}, which requires the voice to be
+     * well-stuffed, i.e. the items cover the whole interval from zero to the
+     * capacity of the voice without gaps and overlaps.
+     */
+    public static final class Builder {
+
+        private final BarTime capacity;
+
+        private final long packedCapacity;
+
+        private long[] keys = new long[16];
+
+        private long[] ends = new long[16];
+
+        private BarTime[] times = new BarTime[16];
+
+        private Object[] values = new Object[16];
+
+        private int size;
+
+        private boolean built;
+
+        /**
+         * Creates a builder of a voice with the given capacity.
+         *
+         * @param capacity the capacity of the voice.
+         * @throws NullPointerException     if the capacity is null.
+         * @throws IllegalArgumentException if the capacity is less than zero.
+         */
+        public Builder(BarTime capacity) {
+            Objects.requireNonNull(capacity, "The capacity is null.");
+            if (capacity.isLess(BarTime.ZERO)) {
+                throw new IllegalArgumentException("The capacity " + capacity + " is less than zero.");
+            }
+            this.capacity = capacity;
+            this.packedCapacity = BarTimes.pack(capacity);
+        }
+
+        /**
+         * Appends the item at the given onset. If the onset is equal to the onset
+         * of the previously appended item, the item is added to the same
+         * ContentSet.
+         *
+         * @param onset the onset of the item.
+         * @param item  the item.
+         * @return this builder.
+         * @throws NullPointerException  if the onset or item is null.
+         * @throws IllegalStateException if the voice has already been built.
+         */
+        public Builder add(BarTime onset, PrincipalItem item) {
+            Objects.requireNonNull(onset, "The onset is null.");
+            Objects.requireNonNull(item, "The item is null.");
+            if (built) {
+                throw new IllegalStateException("The voice has already been built.");
+            }
+            long time = BarTimes.pack(onset);
+            long end = BarTimes.add(time, BarTimes.pack(item));
+            if (size > 0 && keys[size - 1] == time) {
+                contentAt(size - 1).add(item);
+                ends[size - 1] = BarTimes.max(ends[size - 1], end);
+                return this;
+            }
+            if (size == keys.length) {
+                int length = size * 2;
+                keys = Arrays.copyOf(keys, length);
+                ends = Arrays.copyOf(ends, length);
+                times = Arrays.copyOf(times, length);
+                values = Arrays.copyOf(values, length);
+            }
+            ContentSet<PrincipalItem> content = new ContentSet<>();
+            content.add(item);
+            keys[size] = time;
+            ends[size] = end;
+            times[size] = onset;
+            values[size] = content;
+            size++;
+            return this;
+        }
+
+        /**
+         * Returns the first BarTime at which the appended items violate the
+         * constraints of a well-stuffed voice. This is the onset of the first item
+         * that is not in ascending order or overlaps the previous items, the onset
+         * of the first item that exceeds the capacity or the start of the first
+         * gap.
+         *
+         * @return the first violating BarTime or null if the items form a
+         *         well-stuffed voice.
+         */
+        public BarTime firstViolation() {
+            long expected = BarTimes.ZERO;
+            for (int i = 0; i < size; i++) {
+                int c = BarTimes.compare(keys[i], expected);
+                if (c < 0) {
+                    return times[i];
+                }
+                if (c > 0) {
+                    return BarTimes.toBarTime(expected);
+                }
+                expected = ends[i];
+                if (BarTimes.compare(expected, packedCapacity) > 0) {
+                    return times[i];
+                }
+            }
+            return BarTimes.compare(expected, packedCapacity) < 0 ? BarTimes.toBarTime(expected) : null;
+        }
+
+        /**
+         * Builds the voice. The builder cannot be used afterwards.
+         *
+         * @return the voice.
+         * @throws IllegalStateException if the items do not form a well-stuffed
+         *                               voice or the voice has already been built.
+         * @see #firstViolation()
+         */
+        public ArrayVoice build() {
+            if (built) {
+                throw new IllegalStateException("The voice has already been built.");
+            }
+            BarTime violation = firstViolation();
+            if (violation != null) {
+                throw new IllegalStateException("The voice is not well-stuffed at " + violation);
+            }
+            built = true;
+            return new ArrayVoice(capacity, keys, ends, times, values, size);
+        }
+
+        @SuppressWarnings("unchecked")
+        private ContentSet<PrincipalItem> contentAt(int index) {
+            return (ContentSet<PrincipalItem>) values[index];
+        }
+    }
+}
@@ -0,0 +1,783 @@
+package com.musicquint.impl;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.OptionalItem;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+import com.musicquint.util.AbstractIndexedNavigableMap;
+
+/**
+ * Read-optimised implementation of a {@link Score} that stores all notes and
+ * rests of the score in parallel primitive arrays instead of a graph of
+ * objects. For every event, i.e. a note or a rest, the score stores the
+ * numerator and denominator of its onset in the bar and of its duration, the
+ * {@linkplain Pitch#ordinal() ordinal} of its Pitch or {@code -1} for a rest
+ * and the indices of its voice, bar and part. The events are sorted by part,
+ * bar, voice and onset. Small offset tables map every part to its bars, every
+ * bar to its voices and every voice to the onsets of its events, so that a
+ * score with {@code n} events needs about {@code 40 n} bytes of heap
+ * independent of the number of BarTime, Pitch and collection objects an
+ * object graph of the same score would hold.
+ * </p>
+ * The parts, bars and voices of the score are lightweight views of the arrays
+ * that are created on demand. The voices are backed by an
+ * {@link AbstractIndexedNavigableMap} and all navigation methods run in
+ * {@code O(log n)} time with a binary search over the onsets. The events at the
+ * same onset are returned as a set of notes and rests that are views of the
+ * arrays as well. Two such items are equal if they are the same event of the
+ * same score. Analysis code that does not need objects can access the columns
+ * directly through {@link #getEventCount()} and the methods that take the
+ * index of an event.
+ * </p>
+ * The events of a ColumnarScore cannot be modified, all modifying operations
+ * of the views throw an {@link UnsupportedOperationException}. Only the
+ * composer, the title, the subtitle and the names of the parts can be changed.
+ * A ColumnarScore is created with a {@link Builder} or copied from another
+ * score with {@link #of(Score)}.
+ */
+public final class ColumnarScore extends AbstractList<Part> implements Score {
+
+    /**
+     * The Pitch ordinal of a rest.
+     */
+    public static final int REST = -1;
+
+    private String composer;
+
+    private String title;
+
+    private String subtitle;
+
+    private final String[] partNames;
+
+    /**
+     * The index of the first bar of every part followed by the number of bars.
+     */
+    private final int[] partBars;
+
+    private final int[] capacityNumerators;
+
+    private final int[] capacityDenominators;
+
+    /**
+     * The index of the first voice of every bar followed by the number of voices.
+     */
+    private final int[] barVoices;
+
+    /**
+     * The index of the first onset of every voice followed by the number of
+     * onsets.
+     */
+    private final int[] voiceOnsets;
+
+    /**
+     * The index of the first event of every onset followed by the number of
+     * events.
+     */
+    private final int[] onsetEvents;
+
+    private final int[] onsetNumerators;
+
+    private final int[] onsetDenominators;
+
+    private final int[] durationNumerators;
+
+    private final int[] durationDenominators;
+
+    private final int[] pitches;
+
+    private final int[] voices;
+
+    private final int[] bars;
+
+    private final int[] parts;
+
+    private ColumnarScore(Builder builder) {
+        int events = builder.pitches.size;
+        this.partNames = builder.partNames.toArray(new String[0]);
+        this.partBars = builder.partBars.toArray(builder.capacityNumerators.size);
+        this.capacityNumerators = builder.capacityNumerators.toArray();
+        this.capacityDenominators = builder.capacityDenominators.toArray();
+        this.barVoices = builder.barVoices.toArray(builder.voiceOnsets.size);
+        this.voiceOnsets = builder.voiceOnsets.toArray(builder.onsetEvents.size);
+        this.onsetEvents = builder.onsetEvents.toArray(events);
+        this.onsetNumerators = builder.onsetNumerators.toArray();
+        this.onsetDenominators = builder.onsetDenominators.toArray();
+        this.durationNumerators = builder.durationNumerators.toArray();
+        this.durationDenominators = builder.durationDenominators.toArray();
+        this.pitches = builder.pitches.toArray();
+        this.voices = builder.voices.toArray();
+        this.bars = builder.bars.toArray();
+        this.parts = builder.parts.toArray();
+    }
+
+    /**
+     * Copies the given score into a ColumnarScore. Every item of a voice that is
+     * {@link Pitched} is stored as a note with its Pitch, all other items are
+     * stored as rests. The capacity of a bar is the greatest capacity of its
+     * voices.
+     *
+     * @param score the score to be copied.
+     * @return the ColumnarScore with the same parts, bars, voices and events.
+     * @throws NullPointerException     if the score is null.
+     * @throws IllegalArgumentException if a voice of the score violates the
+     *                                  constraints of a voice.
+     */
+    public static ColumnarScore of(Score score) {
+        Objects.requireNonNull(score, "The score is null.");
+        Builder builder = new Builder();
+        for (Part part : score) {
+            builder.part(part.getPartName());
+            for (Bar bar : part) {
+                long capacity = BarTimes.ZERO;
+                for (Voice voice : bar) {
+                    capacity = BarTimes.max(capacity, BarTimes.pack(voice.capacity()));
+                }
+                builder.bar(BarTimes.toBarTime(capacity));
+                for (Voice voice : bar) {
+                    builder.voice();
+                    for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : voice.entrySet()) {
+                        for (PrincipalItem item : entry.getValue()) {
+                            if (item instanceof Pitched) {
+                                builder.note(entry.getKey(), item.getDuration(), ((Pitched) item).getPitch());
+                            } else {
+                                builder.rest(entry.getKey(), item.getDuration());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        ColumnarScore columnar = builder.build();
+        columnar.composer = score.getComposer();
+        columnar.title = score.getTitle();
+        columnar.subtitle = score.getSubtitle();
+        return columnar;
+    }
+
+    @Override
+    public Part get(int index) {
+        Objects.checkIndex(index, partNames.length);
+        return new PartView(index);
+    }
+
+    @Override
+    public int size() {
+        return partNames.length;
+    }
+
+    @Override
+    public void setComposer(String name) {
+        this.composer = name;
+    }
+
+    @Override
+    public String getComposer() {
+        return composer;
+    }
+
+    @Override
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    @Override
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    /**
+     * Returns the number of events, i.e. notes and rests, of the score.
+     *
+     * @return the number of events.
+     */
+    public int getEventCount() {
+        return pitches.length;
+    }
+
+    /**
+     * Returns the onset of the event relative to the start of its bar as
+     * {@linkplain BarTimes packed BarTime}.
+     *
+     * @param event the index of the event.
+     * @return the packed onset.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public long getPackedOnset(int event) {
+        return BarTimes.of(onsetNumerators[event], onsetDenominators[event]);
+    }
+
+    /**
+     * Returns the duration of the event as {@linkplain BarTimes packed BarTime}.
+     *
+     * @param event the index of the event.
+     * @return the packed duration.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public long getPackedDuration(int event) {
+        return BarTimes.of(durationNumerators[event], durationDenominators[event]);
+    }
+
+    /**
+     * Returns the {@linkplain Pitch#ordinal() ordinal} of the Pitch of the event
+     * or {@link #REST} if the event is a rest.
+     *
+     * @param event the index of the event.
+     * @return the Pitch ordinal.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public int getPitchOrdinal(int event) {
+        return pitches[event];
+    }
+
+    /**
+     * Returns the index of the part of the event in the score.
+     *
+     * @param event the index of the event.
+     * @return the index of the part.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public int getPartIndex(int event) {
+        return parts[event];
+    }
+
+    /**
+     * Returns the index of the bar of the event in its part.
+     *
+     * @param event the index of the event.
+     * @return the index of the bar.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public int getBarIndex(int event) {
+        return bars[event];
+    }
+
+    /**
+     * Returns the index of the voice of the event in its bar.
+     *
+     * @param event the index of the event.
+     * @return the index of the voice.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public int getVoiceIndex(int event) {
+        return voices[event];
+    }
+
+    private final class PartView extends AbstractList<Bar> implements Part {
+
+        private final int part;
+
+        PartView(int part) {
+            this.part = part;
+        }
+
+        @Override
+        public Bar get(int index) {
+            Objects.checkIndex(index, size());
+            return new BarView(partBars[part] + index);
+        }
+
+        @Override
+        public int size() {
+            return partBars[part + 1] - partBars[part];
+        }
+
+        @Override
+        public String getPartName() {
+            return partNames[part];
+        }
+
+        @Override
+        public void setPartName(String partName) {
+            partNames[part] = partName;
+        }
+    }
+
+    private final class BarView extends AbstractList<Voice> implements Bar {
+
+        private final int bar;
+
+        BarView(int bar) {
+            this.bar = bar;
+        }
+
+        @Override
+        public Voice get(int index) {
+            Objects.checkIndex(index, size());
+            return new VoiceView(bar, barVoices[bar] + index);
+        }
+
+        @Override
+        public int size() {
+            return barVoices[bar + 1] - barVoices[bar];
+        }
+    }
+
+    private final class VoiceView extends AbstractIndexedNavigableMap<BarTime, Voice.MeasurableCollection<PrincipalItem>>
+            implements Voice {
+
+        private final int bar;
+
+        private final int first;
+
+        private final int size;
+
+        VoiceView(int bar, int voice) {
+            this.bar = bar;
+            this.first = voiceOnsets[voice];
+            this.size = voiceOnsets[voice + 1] - first;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public BarTime capacity() {
+            return BarTime.of(capacityNumerators[bar], capacityDenominators[bar]);
+        }
+
+        @Override
+        public Voice.MeasurableCollection<PrincipalItem> put(BarTime key,
+                Voice.MeasurableCollection<PrincipalItem> value) {
+            throw new UnsupportedOperationException("A ColumnarScore cannot be modified.");
+        }
+
+        @Override
+        public void put(BarTime key, PrincipalItem item) {
+            throw new UnsupportedOperationException("A ColumnarScore cannot be modified.");
+        }
+
+        @Override
+        public void put(BarTime key, OptionalItem item) {
+            throw new UnsupportedOperationException("A ColumnarScore cannot be modified.");
+        }
+
+        @Override
+        protected int search(BarTime key) {
+            long time = BarTimes.pack(Objects.requireNonNull(key));
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = BarTimes.compare(getPackedOnset(onsetEvents[first + mid]), time);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @Override
+        protected BarTime keyAt(int index) {
+            int event = onsetEvents[first + index];
+            return BarTime.of(onsetNumerators[event], onsetDenominators[event]);
+        }
+
+        @Override
+        protected Voice.MeasurableCollection<PrincipalItem> valueAt(int index) {
+            return new Chord(first + index);
+        }
+    }
+
+    /**
+     * The events of a voice at the same onset.
+     */
+    private final class Chord extends AbstractSet<PrincipalItem> implements Voice.MeasurableCollection<PrincipalItem> {
+
+        private final int from;
+
+        private final int to;
+
+        Chord(int onset) {
+            this.from = onsetEvents[onset];
+            this.to = onsetEvents[onset + 1];
+        }
+
+        @Override
+        public BarTime getDuration() {
+            long max = BarTimes.ZERO;
+            for (int event = from; event < to; event++) {
+                max = BarTimes.max(max, getPackedDuration(event));
+            }
+            return BarTimes.toBarTime(max);
+        }
+
+        @Override
+        public Iterator<PrincipalItem> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public PrincipalItem next() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    int event = next++;
+                    return pitches[event] == REST ? new RestView(event) : new NoteView(event);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private class RestView implements PrincipalItem {
+
+        final int event;
+
+        RestView(int event) {
+            this.event = event;
+        }
+
+        @Override
+        public BarTime getDuration() {
+            return BarTime.of(durationNumerators[event], durationDenominators[event]);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(ColumnarScore.this) * 31 + event;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RestView)) {
+                return false;
+            }
+            RestView other = (RestView) obj;
+            return event == other.event && owner() == other.owner();
+        }
+
+        @Override
+        public String toString() {
+            return "r" + getDuration();
+        }
+
+        private ColumnarScore owner() {
+            return ColumnarScore.this;
+        }
+    }
+
+    private final class NoteView extends RestView implements Pitched {
+
+        NoteView(int event) {
+            super(event);
+        }
+
+        @Override
+        public Pitch getPitch() {
+            return Pitch.ofOrdinal(pitches[event]);
+        }
+
+        @Override
+        public String toString() {
+            return getPitch().toString() + getDuration();
+        }
+    }
+
+    /**
+     * Builder of a {@link ColumnarScore}. The score is built in document order: a
+     * part is started with {@link #part(String)}, a bar of the current part with
+     * {@link #bar(BarTime)}, a voice of the current bar with {@link #voice()} and
+     * then the notes and rests of the current voice are added in ascending order
+     * of their onsets. Events with the same onset are added to the same
+     * {@link Voice.MeasurableCollection}. Every event is checked against the
+     * constraints of a {@link Voice} when it is added.
+     */
+    public static final class Builder {
+
+        private static final int PART = 1;
+
+        private static final int BAR = 2;
+
+        private static final int VOICE = 3;
+
+        private final List<String> partNames = new ArrayList<>();
+
+        private final IntColumn partBars = new IntColumn();
+
+        private final IntColumn capacityNumerators = new IntColumn();
+
+        private final IntColumn capacityDenominators = new IntColumn();
+
+        private final IntColumn barVoices = new IntColumn();
+
+        private final IntColumn voiceOnsets = new IntColumn();
+
+        private final IntColumn onsetEvents = new IntColumn();
+
+        private final IntColumn onsetNumerators = new IntColumn();
+
+        private final IntColumn onsetDenominators = new IntColumn();
+
+        private final IntColumn durationNumerators = new IntColumn();
+
+        private final IntColumn durationDenominators = new IntColumn();
+
+        private final IntColumn pitches = new IntColumn();
+
+        private final IntColumn voices = new IntColumn();
+
+        private final IntColumn bars = new IntColumn();
+
+        private final IntColumn parts = new IntColumn();
+
+        private long capacity;
+
+        /**
+         * The onset of the last event of the current voice or -1 if the voice has
+         * no events.
+         */
+        private long lastOnset;
+
+        /**
+         * The greatest end of the events at the last onset of the current voice.
+         */
+        private long lastEnd;
+
+        /**
+         * The innermost level that has been started, i.e. zero, {@link #PART},
+         * {@link #BAR} or {@link #VOICE}.
+         */
+        private int level;
+
+        private boolean built;
+
+        /**
+         * Creates a builder of an empty score.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Starts a new part with the given name.
+         *
+         * @param name the name of the part or null.
+         * @return this builder.
+         * @throws IllegalStateException if the score has already been built.
+         */
+        public Builder part(String name) {
+            checkNotBuilt();
+            partBars.add(capacityNumerators.size);
+            partNames.add(name);
+            level = PART;
+            return this;
+        }
+
+        /**
+         * Starts a new bar of the current part with the given capacity.
+         *
+         * @param capacity the capacity of the voices of the bar.
+         * @return this builder.
+         * @throws NullPointerException     if the capacity is null.
+         * @throws IllegalArgumentException if the capacity is less than zero.
+         * @throws IllegalStateException    if no part has been started or the
+         *                                  score has already been built.
+         */
+        public Builder bar(BarTime capacity) {
+            Objects.requireNonNull(capacity, "The capacity is null.");
+            checkNotBuilt();
+            if (level < PART) {
+                throw new IllegalStateException("A bar cannot be added before a part has been started.");
+            }
+            if (capacity.isLess(BarTime.ZERO)) {
+                throw new IllegalArgumentException("The capacity " + capacity + " is less than zero.");
+            }
+            barVoices.add(voiceOnsets.size);
+            capacityNumerators.add(capacity.getNumerator());
+            capacityDenominators.add(capacity.getDenominator());
+            this.capacity = BarTimes.pack(capacity);
+            level = BAR;
+            return this;
+        }
+
+        /**
+         * Starts a new voice of the current bar.
+         *
+         * @return this builder.
+         * @throws IllegalStateException if no bar has been started or the score
+         *                               has already been built.
+         */
+        public Builder voice() {
+            checkNotBuilt();
+            if (level < BAR) {
+                throw new IllegalStateException("A voice cannot be added before a bar has been started.");
+            }
+            voiceOnsets.add(onsetEvents.size);
+            lastOnset = -1;
+            level = VOICE;
+            return this;
+        }
+
+        /**
+         * Adds a note to the current voice.
+         *
+         * @param onset    the onset of the note relative to the start of the bar.
+         * @param duration the duration of the note.
+         * @param pitch    the Pitch of the note.
+         * @return this builder.
+         * @throws NullPointerException     if one of the arguments is null.
+         * @throws IllegalArgumentException if the onset is less than the onset of
+         *                                  the previous event of the voice or the
+         *                                  note does not fit into the voice.
+         * @throws IllegalStateException    if no voice has been started or the
+         *                                  score has already been built.
+         */
+        public Builder note(BarTime onset, BarTime duration, Pitch pitch) {
+            Objects.requireNonNull(pitch, "The pitch is null.");
+            return add(onset, duration, pitch.ordinal());
+        }
+
+        /**
+         * Adds a rest to the current voice.
+         *
+         * @param onset    the onset of the rest relative to the start of the bar.
+         * @param duration the duration of the rest.
+         * @return this builder.
+         * @throws NullPointerException     if one of the arguments is null.
+         * @throws IllegalArgumentException if the onset is less than the onset of
+         *                                  the previous event of the voice or the
+         *                                  rest does not fit into the voice.
+         * @throws IllegalStateException    if no voice has been started or the
+         *                                  score has already been built.
+         */
+        public Builder rest(BarTime onset, BarTime duration) {
+            return add(onset, duration, REST);
+        }
+
+        /**
+         * Builds the score. The builder cannot be used afterwards.
+         *
+         * @return the ColumnarScore.
+         * @throws IllegalStateException if the score has already been built.
+         */
+        public ColumnarScore build() {
+            checkNotBuilt();
+            built = true;
+            return new ColumnarScore(this);
+        }
+
+        private Builder add(BarTime onset, BarTime duration, int pitch) {
+            Objects.requireNonNull(onset, "The onset is null.");
+            Objects.requireNonNull(duration, "The duration is null.");
+            checkNotBuilt();
+            if (level < VOICE) {
+                throw new IllegalStateException("An event cannot be added before a voice has been started.");
+            }
+            long time = BarTimes.pack(onset);
+            long end = BarTimes.add(time, BarTimes.pack(duration));
+            boolean chord = lastOnset != -1 && BarTimes.compare(time, lastOnset) == 0;
+            if (lastOnset != -1 && BarTimes.compare(time, lastOnset) < 0) {
+                throw new IllegalArgumentException("The events are not in ascending order at " + onset);
+            }
+            if (BarTimes.signum(time) < 0 || BarTimes.signum(BarTimes.pack(duration)) < 0
+                    || BarTimes.compare(end, capacity) > 0
+                    || (lastOnset != -1 && !chord && BarTimes.compare(lastEnd, time) > 0)) {
+                throw new IllegalArgumentException(
+                        "The event with the duration " + duration + " does not fit in at the time " + onset);
+            }
+            if (chord) {
+                lastEnd = BarTimes.max(lastEnd, end);
+            } else {
+                onsetEvents.add(pitches.size);
+                lastOnset = time;
+                lastEnd = end;
+            }
+            int part = partBars.size - 1;
+            int bar = barVoices.size - 1;
+            onsetNumerators.add(onset.getNumerator());
+            onsetDenominators.add(onset.getDenominator());
+            durationNumerators.add(duration.getNumerator());
+            durationDenominators.add(duration.getDenominator());
+            pitches.add(pitch);
+            voices.add(voiceOnsets.size - 1 - barVoices.get(bar));
+            bars.add(bar - partBars.get(part));
+            parts.add(part);
+            return this;
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("The score has already been built.");
+            }
+        }
+    }
+
+    /**
+     * Growable array of ints.
+     */
+    private static final class IntColumn {
+
+        private int[] data = new int[16];
+
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+
+        /**
+         * Returns the values followed by the given terminal value.
+         */
+        int[] toArray(int terminal) {
+            int[] array = Arrays.copyOf(data, size + 1);
+            array[size] = terminal;
+            return array;
+        }
+    }
+}
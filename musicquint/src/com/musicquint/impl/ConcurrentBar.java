@@ -0,0 +1,28 @@
+package com.musicquint.impl;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.Voice;
+import com.musicquint.util.ForwardingList;
+
+/**
+ * Thread-safe implementation of a {@link Bar} that stores its voices in a
+ * {@link CopyOnWriteArrayList}. Adding or removing a voice locks only this bar,
+ * so voices of different bars can be added and removed in parallel. Reading and
+ * iterating the voices never blocks and every iterator works on the voices the
+ * bar contained when the iterator was created.
+ * </p>
+ * The bar only guarantees the thread safety of its list of voices. The voices
+ * themselves should be {@link ConcurrentVoice ConcurrentVoices} if they are
+ * edited concurrently.
+ */
+public class ConcurrentBar extends ForwardingList<Voice> implements Bar {
+
+    /**
+     * Creates an empty bar.
+     */
+    public ConcurrentBar() {
+        super(CopyOnWriteArrayList::new);
+    }
+}
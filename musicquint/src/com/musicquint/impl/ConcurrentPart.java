@@ -0,0 +1,49 @@
+package com.musicquint.impl;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.Part;
+import com.musicquint.util.ForwardingList;
+
+/**
+ * Thread-safe implementation of a {@link Part} that stores its bars in a
+ * {@link CopyOnWriteArrayList}. Adding or removing a bar locks only this part,
+ * while the bars themselves are edited without locking the part. Reading and
+ * iterating the bars never blocks and every iterator works on the bars the part
+ * contained when the iterator was created.
+ * </p>
+ * The bars should be {@link ConcurrentBar ConcurrentBars} if they are edited
+ * concurrently.
+ */
+public class ConcurrentPart extends ForwardingList<Bar> implements Part {
+
+    private volatile String partName;
+
+    /**
+     * Creates an empty part without a name.
+     */
+    public ConcurrentPart() {
+        super(CopyOnWriteArrayList::new);
+    }
+
+    /**
+     * Creates an empty part with the given name.
+     *
+     * @param partName the name of the part, which may be null.
+     */
+    public ConcurrentPart(String partName) {
+        this();
+        this.partName = partName;
+    }
+
+    @Override
+    public String getPartName() {
+        return partName;
+    }
+
+    @Override
+    public void setPartName(String partName) {
+        this.partName = partName;
+    }
+}
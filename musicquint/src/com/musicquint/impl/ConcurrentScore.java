@@ -0,0 +1,72 @@
+package com.musicquint.impl;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.musicquint.api.Part;
+import com.musicquint.api.Score;
+import com.musicquint.util.ForwardingList;
+
+/**
+ * Thread-safe implementation of a {@link Score} for scores that are edited by
+ * several threads at once. The score is built from {@link ConcurrentPart
+ * ConcurrentParts}, {@link ConcurrentBar ConcurrentBars} and
+ * {@link ConcurrentVoice ConcurrentVoices}, and every level is locked
+ * independently:
+ * <ul>
+ * <li>The lists of parts, bars and voices are {@link CopyOnWriteArrayList
+ * CopyOnWriteArrayLists}. Adding or removing an element locks only the list
+ * that is modified.</li>
+ * <li>Every ConcurrentVoice has its own lock for writers and publishes an
+ * immutable snapshot of its entries for readers.</li>
+ * </ul>
+ * Hence edits of different voices, and in particular of different bars, run in
+ * parallel, and readers never block. Every single operation is atomic, but a
+ * reader that traverses the score may observe the edits that happen during the
+ * traversal on some voices and not on others. The information about the
+ * composer and the piece is stored in volatile fields.
+ */
+public class ConcurrentScore extends ForwardingList<Part> implements Score {
+
+    private volatile String composer;
+
+    private volatile String title;
+
+    private volatile String subtitle;
+
+    /**
+     * Creates an empty score.
+     */
+    public ConcurrentScore() {
+        super(CopyOnWriteArrayList::new);
+    }
+
+    @Override
+    public void setComposer(String name) {
+        this.composer = name;
+    }
+
+    @Override
+    public String getComposer() {
+        return composer;
+    }
+
+    @Override
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    @Override
+    public String getSubtitle() {
+        return subtitle;
+    }
+}
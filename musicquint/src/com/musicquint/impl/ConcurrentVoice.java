@@ -0,0 +1,333 @@
+package com.musicquint.impl;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Measurable;
+import com.musicquint.api.OptionalItem;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Voice;
+
+/**
+ * Thread-safe implementation of a {@link Voice} that is based on a
+ * {@link PersistentVoice}. Writers lock the voice and modify the underlying
+ * PersistentVoice, which afterwards publishes a new snapshot in constant time.
+ * Readers never lock but work on the snapshot that was published last, hence
+ * every read operation is atomic and sees the state of the voice after a
+ * complete write operation.
+ * </p>
+ * All views like {@link #keySet()}, {@link #entrySet()} and
+ * {@link #subMap(BarTime, boolean, BarTime, boolean)} are read-only views of
+ * the snapshot at the time the view was requested. They do not reflect later
+ * modifications of the voice. Several modifications can be applied atomically
+ * with {@link #edit(Consumer)}.
+ * </p>
+ * The values of the voice are read-only views, and a value that is put into
+ * the voice is copied. Hence the state of the voice can only be modified by the
+ * methods of the voice, which hold the lock and check the constraints of a
+ * voice.
+ */
+public class ConcurrentVoice extends AbstractMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> implements Voice {
+
+    private final Object lock = new Object();
+
+    /**
+     * The voice that is modified by the writers, guarded by the lock.
+     */
+    private final PersistentVoice voice;
+
+    private volatile PersistentVoice snapshot;
+
+    /**
+     * Creates an empty voice with the given capacity.
+     *
+     * @param capacity the capacity of the voice.
+     * @throws NullPointerException     if the capacity is null.
+     * @throws IllegalArgumentException if the capacity is less than zero.
+     */
+    public ConcurrentVoice(BarTime capacity) {
+        this.voice = new PersistentVoice(capacity);
+        this.snapshot = voice.snapshot();
+    }
+
+    /**
+     * Returns the snapshot of the voice that was published last. The snapshot is
+     * read-only and does not change.
+     *
+     * @return the current snapshot.
+     */
+    public PersistentVoice snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Applies all modifications of the given edit atomically. Readers either see
+     * the state before the edit or the state after all modifications of the edit.
+     * If the edit throws an exception, the voice is restored to the state before
+     * the edit. The given voice must not be used after the edit returned.
+     *
+     * @param edit the edit of the voice.
+     * @throws NullPointerException if the edit is null.
+     */
+    public void edit(Consumer<? super Voice> edit) {
+        Objects.requireNonNull(edit, "The edit is null.");
+        synchronized (lock) {
+            PersistentVoice before = snapshot;
+            try {
+                edit.accept(voice);
+            } catch (RuntimeException | Error e) {
+                voice.restore(before);
+                throw e;
+            }
+            snapshot = voice.snapshot();
+        }
+    }
+
+    private <R> R write(Function<PersistentVoice, R> operation) {
+        synchronized (lock) {
+            R result = operation.apply(voice);
+            snapshot = voice.snapshot();
+            return result;
+        }
+    }
+
+    @Override
+    public Voice.MeasurableCollection<PrincipalItem> put(BarTime key, Voice.MeasurableCollection<PrincipalItem> value) {
+        Objects.requireNonNull(value, "The value is null.");
+        ContentSet<PrincipalItem> copy = new ContentSet<>(value);
+        return write(v -> v.put(key, copy));
+    }
+
+    @Override
+    public void put(BarTime key, PrincipalItem item) {
+        write(v -> {
+            v.put(key, item);
+            return null;
+        });
+    }
+
+    /**
+     * OptionalItems are not supported by a ConcurrentVoice.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void put(BarTime key, OptionalItem item) {
+        throw new UnsupportedOperationException("A ConcurrentVoice does not support OptionalItems.");
+    }
+
+    @Override
+    public void put(BarTime key, Collection<? extends PrincipalItem> items) {
+        edit(v -> v.put(key, items));
+    }
+
+    @Override
+    public void put(BarTime key, PrincipalItem... items) {
+        edit(v -> v.put(key, items));
+    }
+
+    @Override
+    public Voice.MeasurableCollection<PrincipalItem> remove(Object key) {
+        return write(v -> v.remove(key));
+    }
+
+    @Override
+    public void clear() {
+        write(v -> {
+            v.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> pollFirstEntry() {
+        return write(PersistentVoice::pollFirstEntry);
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> pollLastEntry() {
+        return write(PersistentVoice::pollLastEntry);
+    }
+
+    @Override
+    public BarTime capacity() {
+        return snapshot.capacity();
+    }
+
+    @Override
+    public boolean fits(BarTime key, Measurable value) {
+        return snapshot.fits(key, value);
+    }
+
+    @Override
+    public BarTime lasting(BarTime key) {
+        return snapshot.lasting(key);
+    }
+
+    @Override
+    public BarTime next(BarTime key) {
+        return snapshot.next(key);
+    }
+
+    @Override
+    public BarTime length() {
+        return snapshot.length();
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return snapshot.containsKey(key);
+    }
+
+    @Override
+    public Voice.MeasurableCollection<PrincipalItem> get(Object key) {
+        return snapshot.get(key);
+    }
+
+    @Override
+    public Set<Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>>> entrySet() {
+        return snapshot.entrySet();
+    }
+
+    @Override
+    public Set<BarTime> keySet() {
+        return snapshot.keySet();
+    }
+
+    @Override
+    public Collection<Voice.MeasurableCollection<PrincipalItem>> values() {
+        return snapshot.values();
+    }
+
+    @Override
+    public Comparator<? super BarTime> comparator() {
+        return snapshot.comparator();
+    }
+
+    @Override
+    public BarTime firstKey() {
+        return snapshot.firstKey();
+    }
+
+    @Override
+    public BarTime lastKey() {
+        return snapshot.lastKey();
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> lowerEntry(BarTime key) {
+        return snapshot.lowerEntry(key);
+    }
+
+    @Override
+    public BarTime lowerKey(BarTime key) {
+        return snapshot.lowerKey(key);
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> floorEntry(BarTime key) {
+        return snapshot.floorEntry(key);
+    }
+
+    @Override
+    public BarTime floorKey(BarTime key) {
+        return snapshot.floorKey(key);
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> ceilingEntry(BarTime key) {
+        return snapshot.ceilingEntry(key);
+    }
+
+    @Override
+    public BarTime ceilingKey(BarTime key) {
+        return snapshot.ceilingKey(key);
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> higherEntry(BarTime key) {
+        return snapshot.higherEntry(key);
+    }
+
+    @Override
+    public BarTime higherKey(BarTime key) {
+        return snapshot.higherKey(key);
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> firstEntry() {
+        return snapshot.firstEntry();
+    }
+
+    @Override
+    public Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> lastEntry() {
+        return snapshot.lastEntry();
+    }
+
+    @Override
+    public NavigableMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> descendingMap() {
+        return snapshot.descendingMap();
+    }
+
+    @Override
+    public NavigableSet<BarTime> navigableKeySet() {
+        return snapshot.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<BarTime> descendingKeySet() {
+        return snapshot.descendingKeySet();
+    }
+
+    @Override
+    public NavigableMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> subMap(BarTime fromKey,
+            boolean fromInclusive, BarTime toKey, boolean toInclusive) {
+        return snapshot.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> headMap(BarTime toKey,
+            boolean inclusive) {
+        return snapshot.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> tailMap(BarTime fromKey,
+            boolean inclusive) {
+        return snapshot.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> subMap(BarTime fromKey, BarTime toKey) {
+        return snapshot.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> headMap(BarTime toKey) {
+        return snapshot.headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<BarTime, Voice.MeasurableCollection<PrincipalItem>> tailMap(BarTime fromKey) {
+        return snapshot.tailMap(fromKey);
+    }
+}
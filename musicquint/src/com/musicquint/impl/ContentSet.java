@@ -0,0 +1,137 @@
+package com.musicquint.impl;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Measurable;
+import com.musicquint.api.Voice;
+import com.musicquint.util.ForwardingSet;
+
+/**
+ * Implementation of a {@link Voice.MeasurableCollection} as a set, e.g. the
+ * notes of a chord. Unlike the default implementation of
+ * {@link Voice.MeasurableCollection#getDuration()} the set keeps track of the
+ * greatest duration of its items while items are added or removed. Therefore
+ * {@link #getDuration()} runs in constant time. Adding an item runs in constant
+ * time as well. Only the removal of the last item with the greatest duration
+ * requires a new scan over all remaining items.
+ * </p>
+ * The durations of the items must not change while they are contained in the
+ * set. The set does not permit null items.
+ *
+ * @param <T> the type of the Measurable items.
+ */
+public class ContentSet<T extends Measurable> extends ForwardingSet<T> implements Voice.MeasurableCollection<T> {
+
+    private BarTime duration = BarTime.ZERO;
+
+    private long packedDuration = BarTimes.ZERO;
+
+    /**
+     * The number of items whose duration is equal to the greatest duration.
+     */
+    private int maxCount;
+
+    /**
+     * Creates an empty ContentSet that keeps the insertion order of its items.
+     */
+    public ContentSet() {
+        this(LinkedHashSet::new);
+    }
+
+    /**
+     * Creates a ContentSet that keeps the insertion order and contains all given
+     * items.
+     *
+     * @param items the items to be added to the set.
+     * @throws NullPointerException if the collection or one of its items is null.
+     */
+    public ContentSet(Collection<? extends T> items) {
+        this();
+        addAll(items);
+    }
+
+    /**
+     * Creates a ContentSet that forwards to the set given by the supplier.
+     *
+     * @param supplier the supplier of the forwarded set.
+     */
+    protected ContentSet(Supplier<? extends Set<T>> supplier) {
+        super(supplier);
+        recompute();
+    }
+
+    @Override
+    public BarTime getDuration() {
+        return duration;
+    }
+
+    @Override
+    public boolean add(T e) {
+        Objects.requireNonNull(e, "A ContentSet does not permit null items.");
+        if (super.add(e)) {
+            added(e);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = super.iterator();
+        return new Iterator<>() {
+
+            private T lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                lastReturned = iterator.next();
+                return lastReturned;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                removed(lastReturned);
+            }
+        };
+    }
+
+    private void added(T item) {
+        long packed = BarTimes.pack(item);
+        int c = maxCount == 0 ? 1 : BarTimes.compare(packed, packedDuration);
+        if (c > 0) {
+            duration = item.getDuration();
+            packedDuration = packed;
+            maxCount = 1;
+        } else if (c == 0) {
+            maxCount++;
+        }
+    }
+
+    private void removed(T item) {
+        if (BarTimes.compare(BarTimes.pack(item), packedDuration) == 0 && --maxCount == 0) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        duration = BarTime.ZERO;
+        packedDuration = BarTimes.ZERO;
+        maxCount = 0;
+        for (T item : this) {
+            added(item);
+        }
+    }
+}
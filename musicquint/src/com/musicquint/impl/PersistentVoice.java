@@ -0,0 +1,456 @@
+package com.musicquint.impl;
+
+import java.util.Objects;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Measurable;
+import com.musicquint.api.OptionalItem;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Voice;
+import com.musicquint.util.AbstractIndexedNavigableMap;
+
+/**
+ * Persistent implementation of a {@link Voice} whose entries are stored in an
+ * immutable AVL tree. Every modification copies only the path from the root to
+ * the modified node and shares all other nodes with the previous version of
+ * the tree, hence a put or a removal creates {@code O(log n)} new nodes. Every
+ * node also stores the size of its subtree, so that the voice can be accessed
+ * by index and all navigation methods of the
+ * {@link AbstractIndexedNavigableMap} run in {@code O(log n)} time.
+ * </p>
+ * As the tree is never modified in place, {@link #snapshot()} returns a
+ * read-only voice that shares the current tree in constant time. A snapshot
+ * never changes, regardless of how the voice is modified afterwards, and can
+ * be read by any number of threads without locking while a single writer goes
+ * on modifying the voice. An earlier state is restored in constant time with
+ * {@link #restore(PersistentVoice)}, e.g. to implement an undo history.
+ * </p>
+ * The ContentSets of the voice are shared between the voice and its snapshots
+ * as well. The voice therefore returns its ContentSets only as read-only views,
+ * and {@link #put(BarTime, PrincipalItem)} never adds an item to an existing
+ * ContentSet but replaces it by a copy that contains the item. A ContentSet
+ * that is put into the voice with
+ * {@link #put(BarTime, Voice.MeasurableCollection)} must not be modified
+ * afterwards. OptionalItems are not supported by this implementation.
+ */
+public class PersistentVoice extends AbstractIndexedNavigableMap<BarTime, Voice.MeasurableCollection<PrincipalItem>>
+        implements Voice {
+
+    private final BarTime capacity;
+
+    private final long packedCapacity;
+
+    private final boolean readOnly;
+
+    private volatile Node root;
+
+    /**
+     * Creates an empty voice with the given capacity.
+     *
+     * @param capacity the capacity of the voice.
+     * @throws NullPointerException     if the capacity is null.
+     * @throws IllegalArgumentException if the capacity is less than zero.
+     */
+    public PersistentVoice(BarTime capacity) {
+        Objects.requireNonNull(capacity, "The capacity is null.");
+        if (capacity.isLess(BarTime.ZERO)) {
+            throw new IllegalArgumentException("The capacity " + capacity + " is less than zero.");
+        }
+        this.capacity = capacity;
+        this.packedCapacity = BarTimes.pack(capacity);
+        this.readOnly = false;
+    }
+
+    private PersistentVoice(PersistentVoice voice) {
+        this.capacity = voice.capacity;
+        this.packedCapacity = voice.packedCapacity;
+        this.readOnly = true;
+        this.root = voice.root;
+    }
+
+    /**
+     * Returns a read-only snapshot of the current state of the voice in constant
+     * time. The snapshot is not affected by later modifications of the voice.
+     *
+     * @return the snapshot.
+     */
+    public PersistentVoice snapshot() {
+        return readOnly ? this : new PersistentVoice(this);
+    }
+
+    /**
+     * Restores the state of the given snapshot in constant time. All entries of
+     * the voice are replaced by the entries of the snapshot.
+     *
+     * @param snapshot the snapshot to be restored.
+     * @throws NullPointerException          if the snapshot is null.
+     * @throws IllegalArgumentException      if the capacity of the snapshot is not
+     *                                       equal to the capacity of the voice.
+     * @throws UnsupportedOperationException if the voice is a snapshot itself.
+     */
+    public void restore(PersistentVoice snapshot) {
+        Objects.requireNonNull(snapshot, "The snapshot is null.");
+        checkWritable();
+        if (!capacity.equals(snapshot.capacity)) {
+            throw new IllegalArgumentException("The capacity " + snapshot.capacity
+                    + " of the snapshot is not equal to the capacity " + capacity + " of the voice.");
+        }
+        root = snapshot.root;
+    }
+
+    /**
+     * Returns true if the voice is a read-only snapshot.
+     *
+     * @return true if the voice cannot be modified.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    @Override
+    public BarTime capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public Voice.MeasurableCollection<PrincipalItem> put(BarTime key, Voice.MeasurableCollection<PrincipalItem> value) {
+        Objects.requireNonNull(key, "The key is null.");
+        Objects.requireNonNull(value, "The value is null.");
+        checkWritable();
+        Node current = root;
+        long time = BarTimes.pack(key);
+        long duration = BarTimes.pack(value);
+        if (!fits(current, time, duration)) {
+            throw new IllegalStateException("The Measurable " + value + " does not fit in at the time " + key);
+        }
+        Node previous = find(current, time);
+        root = insert(current, new Node(key, time, value, BarTimes.add(time, duration), null, null));
+        return previous == null ? null : UnmodifiableMeasurableCollection.of(previous.value);
+    }
+
+    @Override
+    public void put(BarTime key, PrincipalItem item) {
+        Objects.requireNonNull(key, "The key is null.");
+        Objects.requireNonNull(item, "The item is null.");
+        checkWritable();
+        if (key.isLess(BarTime.ZERO) || key.isGreater(capacity)) {
+            throw new IllegalArgumentException("The key " + key + " is not in the range [0, " + capacity + "]");
+        }
+        Node current = root;
+        long time = BarTimes.pack(key);
+        if (!fits(current, time, BarTimes.pack(item))) {
+            throw new IllegalStateException("The item " + item + " does not fit in at the time " + key);
+        }
+        Node previous = find(current, time);
+        ContentSet<PrincipalItem> content = previous == null ? new ContentSet<>() : new ContentSet<>(previous.value);
+        content.add(item);
+        long end = BarTimes.add(time, BarTimes.pack(content));
+        root = insert(current, new Node(key, time, content, end, null, null));
+    }
+
+    /**
+     * OptionalItems are not supported by a PersistentVoice.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void put(BarTime key, OptionalItem item) {
+        throw new UnsupportedOperationException("A PersistentVoice does not support OptionalItems.");
+    }
+
+    @Override
+    public boolean fits(BarTime key, Measurable value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        return fits(root, BarTimes.pack(key), BarTimes.pack(value));
+    }
+
+    @Override
+    public BarTime lasting(BarTime key) {
+        long time = BarTimes.pack(Objects.requireNonNull(key));
+        Node lower = lower(root, time);
+        if (lower == null) {
+            return BarTime.ZERO;
+        }
+        long lasting = BarTimes.subtract(lower.end, time);
+        return BarTimes.signum(lasting) > 0 ? BarTimes.toBarTime(lasting) : BarTime.ZERO;
+    }
+
+    @Override
+    public BarTime next(BarTime key) {
+        long time = BarTimes.pack(Objects.requireNonNull(key));
+        Node higher = higher(root, time);
+        return BarTimes.toBarTime(BarTimes.subtract(higher != null ? higher.time : packedCapacity, time));
+    }
+
+    @Override
+    public BarTime length() {
+        Node node = root;
+        if (node == null) {
+            return BarTime.ZERO;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return BarTimes.toBarTime(node.end);
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        root = null;
+    }
+
+    @Override
+    protected int search(BarTime key) {
+        long time = BarTimes.pack(Objects.requireNonNull(key));
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            int c = BarTimes.compare(time, node.time);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -(index + 1);
+    }
+
+    @Override
+    protected BarTime keyAt(int index) {
+        return select(root, index).key;
+    }
+
+    @Override
+    protected Voice.MeasurableCollection<PrincipalItem> valueAt(int index) {
+        return UnmodifiableMeasurableCollection.of(select(root, index).value);
+    }
+
+    @Override
+    protected Voice.MeasurableCollection<PrincipalItem> removeAt(int index) {
+        checkWritable();
+        Node current = root;
+        Node node = select(current, index);
+        root = delete(current, node.time);
+        return UnmodifiableMeasurableCollection.of(node.value);
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("A snapshot of a PersistentVoice cannot be modified.");
+        }
+    }
+
+    /**
+     * Checks the constraints of a voice for the given packed time and duration in
+     * the given tree.
+     */
+    private boolean fits(Node tree, long time, long duration) {
+        if (BarTimes.signum(time) < 0 || BarTimes.compare(time, packedCapacity) > 0) {
+            return false;
+        }
+        Node lower = lower(tree, time);
+        if (lower != null && BarTimes.compare(lower.end, time) > 0) {
+            return false;
+        }
+        Node higher = higher(tree, time);
+        long limit = higher != null ? higher.time : packedCapacity;
+        return BarTimes.compare(BarTimes.add(time, duration), limit) <= 0;
+    }
+
+    /**
+     * Immutable node of the AVL tree.
+     */
+    private static final class Node {
+
+        final BarTime key;
+
+        final long time;
+
+        final Voice.MeasurableCollection<PrincipalItem> value;
+
+        final long end;
+
+        final Node left;
+
+        final Node right;
+
+        final int height;
+
+        final int size;
+
+        Node(BarTime key, long time, Voice.MeasurableCollection<PrincipalItem> value, long end, Node left,
+                Node right) {
+            this.key = key;
+            this.time = time;
+            this.value = value;
+            this.end = end;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+
+        /**
+         * Returns a copy of the node with the given children.
+         */
+        Node with(Node left, Node right) {
+            return new Node(key, time, value, end, left, right);
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node find(Node node, long time) {
+        while (node != null) {
+            int c = BarTimes.compare(time, node.time);
+            if (c == 0) {
+                return node;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node with the greatest key strictly less than the time.
+     */
+    private static Node lower(Node node, long time) {
+        Node result = null;
+        while (node != null) {
+            if (BarTimes.compare(node.time, time) < 0) {
+                result = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node with the least key strictly greater than the time.
+     */
+    private static Node higher(Node node, long time) {
+        Node result = null;
+        while (node != null) {
+            if (BarTimes.compare(node.time, time) > 0) {
+                result = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    private static Node select(Node node, int index) {
+        Objects.checkIndex(index, size(node));
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Inserts the leaf into the tree or replaces the node with the same key and
+     * returns the new root.
+     */
+    private static Node insert(Node node, Node leaf) {
+        if (node == null) {
+            return leaf;
+        }
+        int c = BarTimes.compare(leaf.time, node.time);
+        if (c < 0) {
+            return balance(node.with(insert(node.left, leaf), node.right));
+        } else if (c > 0) {
+            return balance(node.with(node.left, insert(node.right, leaf)));
+        }
+        return leaf.with(node.left, node.right);
+    }
+
+    /**
+     * Deletes the node with the given key from the tree and returns the new root.
+     */
+    private static Node delete(Node node, long time) {
+        if (node == null) {
+            return null;
+        }
+        int c = BarTimes.compare(time, node.time);
+        if (c < 0) {
+            return balance(node.with(delete(node.left, time), node.right));
+        } else if (c > 0) {
+            return balance(node.with(node.left, delete(node.right, time)));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node min = node.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.with(node.left, deleteMin(node.right)));
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.with(deleteMin(node.left), node.right));
+    }
+
+    private static Node balance(Node node) {
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            Node left = node.left;
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(node.with(left, node.right));
+        }
+        if (balance < -1) {
+            Node right = node.right;
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(node.with(node.left, right));
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        return left.with(left.left, node.with(left.right, node.right));
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        return right.with(node.with(node.left, right.left), right.right);
+    }
+}
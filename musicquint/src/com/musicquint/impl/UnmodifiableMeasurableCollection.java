@@ -0,0 +1,135 @@
+package com.musicquint.impl;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Measurable;
+import com.musicquint.api.Voice;
+
+/**
+ * Read-only view of a {@link Voice.MeasurableCollection}. Voices whose values
+ * are shared or whose cached end times depend on the durations of their values
+ * return their values through such a view, so that the values cannot be
+ * modified without the voice noticing it. A view of a {@link Set} is a Set
+ * itself and equal to every Set with the same items.
+ *
+ * @param <T> the type of the Measurable items.
+ */
+class UnmodifiableMeasurableCollection<T extends Measurable> extends AbstractCollection<T>
+        implements Voice.MeasurableCollection<T> {
+
+    final Voice.MeasurableCollection<T> collection;
+
+    private UnmodifiableMeasurableCollection(Voice.MeasurableCollection<T> collection) {
+        this.collection = collection;
+    }
+
+    /**
+     * Returns a read-only view of the given collection. The collection itself is
+     * returned if it is already such a view.
+     */
+    static <T extends Measurable> Voice.MeasurableCollection<T> of(Voice.MeasurableCollection<T> collection) {
+        if (collection == null || collection instanceof UnmodifiableMeasurableCollection) {
+            return collection;
+        }
+        return collection instanceof Set ? new UnmodifiableSet<>(collection)
+                : new UnmodifiableMeasurableCollection<>(collection);
+    }
+
+    @Override
+    public BarTime getDuration() {
+        return collection.getDuration();
+    }
+
+    @Override
+    public int size() {
+        return collection.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return collection.contains(o);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = collection.iterator();
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public boolean add(T e) {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("The items of the voice cannot be modified.");
+    }
+
+    @Override
+    public String toString() {
+        return collection.toString();
+    }
+
+    /**
+     * Read-only view of a MeasurableCollection that is a Set.
+     */
+    private static final class UnmodifiableSet<T extends Measurable> extends UnmodifiableMeasurableCollection<T>
+            implements Set<T> {
+
+        UnmodifiableSet(Voice.MeasurableCollection<T> collection) {
+            super(collection);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || collection.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return collection.hashCode();
+        }
+    }
+}
@@ -1,9 +1,25 @@
 package com.musicquint.io;
 
+import com.musicquint.io.XMLTag.TagType;
+
 public interface BarFactory {
 
     VoiceFactory getVoiceFactory();
 
     void setDivisor(int divisor);
 
+    /**
+     * Sets the number of beats of the time signature. MusicXML allows composite
+     * numbers of beats like {@code 3+2}, hence the text of the element is passed
+     * unchanged and the factory decides how to handle beats that it cannot
+     * represent.
+     *
+     * @param beats the text of the beats element.
+     */
+    @XMLTag(tagName = "beats", tagType = TagType.CHARACTER_TAG, parent = "time")
+    void setBeats(String beats);
+
+    @XMLTag(tagName = "beat-type", tagType = TagType.CHARACTER_TAG, inputType = int.class, parent = "time")
+    void setBeatType(int beatType);
+
 }
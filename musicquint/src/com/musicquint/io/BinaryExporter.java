@@ -0,0 +1,236 @@
+package com.musicquint.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+
+/**
+ * Exporter of scores to the compact binary format that is read by the
+ * {@link BinaryImporter}. Every {@link Pitched} item is written as a note with
+ * its pitch and duration, all other items are written as rests. A file
+ * consists of three sections:
+ * <ol>
+ * <li>The header of 16 bytes with the magic number "MQSB", the version of the
+ * format as int and the position of the directory as long.</li>
+ * <li>The records of all bars of all parts. A bar record starts with the number
+ * of its voices. Every voice consists of the pool index of its capacity, the
+ * number of its items and, for every item, the pool index of the distance of
+ * its onset to the onset of the previous item, the pool index of its duration
+ * and zero for a rest or the pool index of its pitch plus one for a
+ * note. Entries of a voice without items are not written.</li>
+ * <li>The directory with the composer, the title and the subtitle of the score,
+ * the constant pool of all BarTimes as zigzag coded numerators and
+ * denominators, the constant pool of all Pitches as ordinals, and for every
+ * part its name, the number of its bars and a table with the position of every
+ * bar record as long.</li>
+ * </ol>
+ * All numbers in the bar records and the directory except the bar positions
+ * are varints as described in {@link BinaryFormat}. As onsets are delta coded
+ * and all BarTimes and Pitches are replaced by their index in a constant pool,
+ * most items of a typical score are stored in three bytes. The fixed size of
+ * the bar positions allows to decode any bar without decoding the previous
+ * bars.
+ * </p>
+ * The file is encoded in a buffer that is reused for all exports, therefore an
+ * exporter is not thread-safe.
+ */
+public class BinaryExporter {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    private final Map<BarTime, Integer> timeIndices = new HashMap<>();
+
+    private final List<BarTime> times = new ArrayList<>();
+
+    private final int[] pitchIndices = new int[Pitch.COUNT];
+
+    private final List<Pitch> pitches = new ArrayList<>();
+
+    /**
+     * Creates an exporter.
+     */
+    public BinaryExporter() {
+    }
+
+    /**
+     * Exports the score to the file with the given path. An existing file is
+     * overwritten.
+     *
+     * @param score the score to be exported.
+     * @param path  the path of the binary file.
+     * @throws IOException          if the file cannot be written.
+     * @throws NullPointerException if the score or path is null.
+     */
+    public void exportScore(Score score, Path path) throws IOException {
+        Objects.requireNonNull(path, "The path is null.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            exportScore(score, channel);
+        }
+    }
+
+    /**
+     * Exports the score to the given channel. The channel is not closed.
+     *
+     * @param score   the score to be exported.
+     * @param channel the channel the binary file is written to.
+     * @throws IOException          if the channel cannot be written.
+     * @throws NullPointerException if the score or channel is null.
+     */
+    public void exportScore(Score score, WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(score, "The score is null.");
+        Objects.requireNonNull(channel, "The channel is null.");
+        try {
+            encode(score);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+            timeIndices.clear();
+            times.clear();
+            pitches.clear();
+        }
+    }
+
+    private void encode(Score score) {
+        Arrays.fill(pitchIndices, -1);
+        ensure(BinaryFormat.HEADER_LENGTH);
+        buffer.putInt(BinaryFormat.MAGIC).putInt(BinaryFormat.VERSION).putLong(0);
+        long[][] positions = new long[score.size()][];
+        int partIndex = 0;
+        for (Part part : score) {
+            long[] barPositions = new long[part.size()];
+            int barIndex = 0;
+            for (Bar bar : part) {
+                barPositions[barIndex++] = buffer.position();
+                writeBar(bar);
+            }
+            positions[partIndex++] = barPositions;
+        }
+        buffer.putLong(BinaryFormat.DIRECTORY_POSITION, buffer.position());
+        putString(score.getComposer());
+        putString(score.getTitle());
+        putString(score.getSubtitle());
+        putVarint(times.size());
+        for (BarTime time : times) {
+            putVarint(BinaryFormat.zigzag(time.getNumerator()));
+            putVarint(time.getDenominator());
+        }
+        putVarint(pitches.size());
+        for (Pitch pitch : pitches) {
+            putVarint(pitch.ordinal());
+        }
+        putVarint(score.size());
+        partIndex = 0;
+        for (Part part : score) {
+            putString(part.getPartName());
+            long[] barPositions = positions[partIndex++];
+            putVarint(barPositions.length);
+            ensure(barPositions.length * Long.BYTES);
+            for (long position : barPositions) {
+                buffer.putLong(position);
+            }
+        }
+    }
+
+    private void writeBar(Bar bar) {
+        putVarint(bar.size());
+        for (Voice voice : bar) {
+            putVarint(timeIndex(voice.capacity()));
+            int count = 0;
+            for (Voice.MeasurableCollection<PrincipalItem> items : voice.values()) {
+                count += items.size();
+            }
+            putVarint(count);
+            long previous = BarTimes.ZERO;
+            for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : voice.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+                long onset = BarTimes.pack(entry.getKey());
+                int delta = timeIndex(BarTimes.toBarTime(BarTimes.subtract(onset, previous)));
+                for (PrincipalItem item : entry.getValue()) {
+                    putVarint(delta);
+                    putVarint(timeIndex(item.getDuration()));
+                    putVarint(item instanceof Pitched ? pitchIndex(((Pitched) item).getPitch()) + 1 : 0);
+                    delta = timeIndex(BarTime.ZERO);
+                }
+                previous = onset;
+            }
+        }
+    }
+
+    private int timeIndex(BarTime time) {
+        Integer index = timeIndices.get(time);
+        if (index == null) {
+            index = times.size();
+            timeIndices.put(time, index);
+            times.add(time);
+        }
+        return index;
+    }
+
+    private int pitchIndex(Pitch pitch) {
+        int index = pitchIndices[pitch.ordinal()];
+        if (index < 0) {
+            index = pitches.size();
+            pitchIndices[pitch.ordinal()] = index;
+            pitches.add(pitch);
+        }
+        return index;
+    }
+
+    private void putString(String string) {
+        if (string == null) {
+            putVarint(0);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length + 1);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void putVarint(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int length) {
+        if (buffer.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.musicquint.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and decoding helpers of the binary score format that is written by
+ * the {@link BinaryExporter} and read by the {@link BinaryImporter}. All
+ * numbers of the format are stored in big-endian byte order. Unsigned numbers
+ * are stored as varints of 7 bits per byte, where the highest bit of a byte is
+ * set if another byte follows. Signed numbers are zigzag encoded before they
+ * are stored as varints. A string is stored as the varint of its UTF-8 length
+ * plus one followed by its UTF-8 bytes, and null is stored as the varint zero.
+ */
+final class BinaryFormat {
+
+    /**
+     * The magic number "MQSB" at the beginning of every file.
+     */
+    static final int MAGIC = 0x4D515342;
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The length of the header, i.e. the magic number, the version and the
+     * position of the directory.
+     */
+    static final int HEADER_LENGTH = 16;
+
+    /**
+     * The position of the directory position in the header.
+     */
+    static final int DIRECTORY_POSITION = 8;
+
+    private BinaryFormat() {
+        throw new AssertionError("No instances of BinaryFormat.");
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads an unsigned varint at the position of the buffer.
+     *
+     * @throws IllegalArgumentException if the varint is longer than five bytes.
+     */
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("The varint at " + (buffer.position() - 5) + " is malformed.");
+    }
+
+    /**
+     * Reads a string at the position of the buffer.
+     */
+    static String getString(ByteBuffer buffer) {
+        int length = getVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
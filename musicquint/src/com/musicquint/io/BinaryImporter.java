@@ -0,0 +1,324 @@
+package com.musicquint.io;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+import com.musicquint.impl.ArrayVoice;
+
+/**
+ * Importer of scores from the binary format written by the
+ * {@link BinaryExporter}. A file is mapped into memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)} and only its header
+ * and directory are decoded when the score is imported, i.e. the information
+ * about the piece, the constant pools and the names and sizes of the parts.
+ * The bar position tables are read in place, hence importing a score takes
+ * time proportional to the size of the directory but independent of the number
+ * of bars and items.
+ * </p>
+ * A bar is decoded into {@link ArrayVoice ArrayVoices} when it is accessed for
+ * the first time and cached afterwards. The bars are decoded from independent
+ * views of the mapped buffer and published atomically, so the imported score
+ * can be read by several threads. The lists of parts, bars and voices cannot
+ * be modified, while the composer, the title, the subtitle, the names of the
+ * parts and the decoded voices can be changed in memory. The notes and rests
+ * of the voices are items of this importer, where the notes implement
+ * {@link Pitched}.
+ * </p>
+ * Malformed bar records are only detected when the bar is decoded and cause an
+ * {@link IllegalArgumentException}.
+ */
+public class BinaryImporter {
+
+    /**
+     * Creates an importer.
+     */
+    public BinaryImporter() {
+    }
+
+    /**
+     * Imports the score from the file with the given path. The file is mapped
+     * into memory and must not be modified while the score is in use.
+     *
+     * @param path the path of the binary file.
+     * @return the imported score.
+     * @throws IOException          if the file cannot be read or is not a binary
+     *                              score of a supported version.
+     * @throws NullPointerException if the path is null.
+     */
+    public Score importScore(Path path) throws IOException {
+        Objects.requireNonNull(path, "The path is null.");
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return importScore(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The file " + path + " is not a valid binary score.", e);
+        }
+    }
+
+    /**
+     * Imports the score from the remaining bytes of the given buffer. The
+     * position of the buffer is not changed and its content must not be modified
+     * while the score is in use.
+     *
+     * @param buffer the buffer with the binary score.
+     * @return the imported score.
+     * @throws IllegalArgumentException if the buffer does not contain a binary
+     *                                  score of a supported version.
+     * @throws NullPointerException     if the buffer is null.
+     */
+    public Score importScore(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "The buffer is null.");
+        ByteBuffer data = buffer.slice().asReadOnlyBuffer();
+        if (data.remaining() < BinaryFormat.HEADER_LENGTH || data.getInt(0) != BinaryFormat.MAGIC) {
+            throw new IllegalArgumentException("The buffer does not contain a binary score.");
+        }
+        int version = data.getInt(4);
+        if (version != BinaryFormat.VERSION) {
+            throw new IllegalArgumentException("The version " + version + " of the binary score is not supported.");
+        }
+        try {
+            return new MappedScore(data);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("The directory of the binary score is truncated.", e);
+        }
+    }
+
+    /**
+     * Score whose bars are decoded from the buffer on demand.
+     */
+    private static final class MappedScore extends AbstractList<Part> implements Score {
+
+        private final ByteBuffer data;
+
+        private final BarTime[] times;
+
+        private final Pitch[] pitches;
+
+        private final MappedPart[] parts;
+
+        private String composer;
+
+        private String title;
+
+        private String subtitle;
+
+        MappedScore(ByteBuffer data) {
+            this.data = data;
+            ByteBuffer directory = data.duplicate();
+            directory.position(Math.toIntExact(data.getLong(BinaryFormat.DIRECTORY_POSITION)));
+            composer = BinaryFormat.getString(directory);
+            title = BinaryFormat.getString(directory);
+            subtitle = BinaryFormat.getString(directory);
+            times = new BarTime[BinaryFormat.getVarint(directory)];
+            for (int i = 0; i < times.length; i++) {
+                int numerator = BinaryFormat.unzigzag(BinaryFormat.getVarint(directory));
+                times[i] = BarTime.of(numerator, BinaryFormat.getVarint(directory));
+            }
+            pitches = new Pitch[BinaryFormat.getVarint(directory)];
+            for (int i = 0; i < pitches.length; i++) {
+                pitches[i] = Pitch.ofOrdinal(BinaryFormat.getVarint(directory));
+            }
+            parts = new MappedPart[BinaryFormat.getVarint(directory)];
+            for (int i = 0; i < parts.length; i++) {
+                String name = BinaryFormat.getString(directory);
+                int bars = BinaryFormat.getVarint(directory);
+                parts[i] = new MappedPart(name, bars, directory.position());
+                directory.position(Math.addExact(directory.position(), Math.multiplyExact(bars, Long.BYTES)));
+            }
+        }
+
+        @Override
+        public Part get(int index) {
+            return parts[index];
+        }
+
+        @Override
+        public int size() {
+            return parts.length;
+        }
+
+        @Override
+        public void setComposer(String name) {
+            this.composer = name;
+        }
+
+        @Override
+        public String getComposer() {
+            return composer;
+        }
+
+        @Override
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public void setSubtitle(String subtitle) {
+            this.subtitle = subtitle;
+        }
+
+        @Override
+        public String getSubtitle() {
+            return subtitle;
+        }
+
+        private Bar decodeBar(long position) {
+            ByteBuffer record = data.duplicate();
+            try {
+                record.position(Math.toIntExact(position));
+                Voice[] voices = new Voice[BinaryFormat.getVarint(record)];
+                for (int i = 0; i < voices.length; i++) {
+                    ArrayVoice voice = new ArrayVoice(times[BinaryFormat.getVarint(record)]);
+                    int count = BinaryFormat.getVarint(record);
+                    long onset = BarTimes.ZERO;
+                    BarTime key = BarTime.ZERO;
+                    for (int j = 0; j < count; j++) {
+                        BarTime delta = times[BinaryFormat.getVarint(record)];
+                        if (delta.getNumerator() != 0) {
+                            onset = BarTimes.add(onset, BarTimes.pack(delta));
+                            key = BarTimes.toBarTime(onset);
+                        }
+                        BarTime duration = times[BinaryFormat.getVarint(record)];
+                        int pitch = BinaryFormat.getVarint(record);
+                        voice.put(key, pitch == 0 ? new Rest(duration) : new Note(duration, pitches[pitch - 1]));
+                    }
+                    voices[i] = voice;
+                }
+                return new MappedBar(voices);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalStateException e) {
+                throw new IllegalArgumentException("The bar record at " + position + " is malformed.", e);
+            }
+        }
+
+        private final class MappedPart extends AbstractList<Bar> implements Part {
+
+            private final int tablePosition;
+
+            private final AtomicReferenceArray<Bar> bars;
+
+            private String partName;
+
+            MappedPart(String partName, int size, int tablePosition) {
+                this.partName = partName;
+                this.tablePosition = tablePosition;
+                this.bars = new AtomicReferenceArray<>(size);
+            }
+
+            @Override
+            public Bar get(int index) {
+                Objects.checkIndex(index, bars.length());
+                Bar bar = bars.get(index);
+                if (bar == null) {
+                    bar = decodeBar(data.getLong(tablePosition + index * Long.BYTES));
+                    if (!bars.compareAndSet(index, null, bar)) {
+                        bar = bars.get(index);
+                    }
+                }
+                return bar;
+            }
+
+            @Override
+            public int size() {
+                return bars.length();
+            }
+
+            @Override
+            public String getPartName() {
+                return partName;
+            }
+
+            @Override
+            public void setPartName(String partName) {
+                this.partName = partName;
+            }
+        }
+    }
+
+    private static final class MappedBar extends AbstractList<Voice> implements Bar {
+
+        private final Voice[] voices;
+
+        MappedBar(Voice[] voices) {
+            this.voices = voices;
+        }
+
+        @Override
+        public Voice get(int index) {
+            return voices[index];
+        }
+
+        @Override
+        public int size() {
+            return voices.length;
+        }
+    }
+
+    /**
+     * Rest of an imported voice.
+     */
+    private static class Rest implements PrincipalItem {
+
+        private final BarTime duration;
+
+        Rest(BarTime duration) {
+            this.duration = duration;
+        }
+
+        @Override
+        public BarTime getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return "Rest[" + duration + "]";
+        }
+    }
+
+    /**
+     * Note of an imported voice.
+     */
+    private static final class Note extends Rest implements Pitched {
+
+        private final Pitch pitch;
+
+        Note(BarTime duration, Pitch pitch) {
+            super(duration);
+            this.pitch = pitch;
+        }
+
+        @Override
+        public Pitch getPitch() {
+            return pitch;
+        }
+
+        @Override
+        public String toString() {
+            return "Note[" + pitch + ", " + getDuration() + "]";
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.musicquint.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Tokenizer of MusicXML documents that reads the bytes of a buffer, usually a
+ * {@link java.nio.MappedByteBuffer}, without decoding them. The names of the
+ * elements are recognized by comparing their bytes with the names of the
+ * {@link DispatchTable}, integers are parsed directly from the bytes and the
+ * text of an element is only decoded into a String if a handler expects a
+ * String. Therefore no String is created for the elements of the document and
+ * the numeric content like {@code <duration>} reaches the factories without any
+ * allocation.
+ * </p>
+ * The tokenizer checks that the elements are properly nested but it is no
+ * validating XML parser. It skips the XML declaration, processing
+ * instructions, comments and the document type declaration, ignores attributes
+ * and requires an encoding in which the markup characters are single ASCII
+ * bytes, e.g. UTF-8 or ISO-8859-1. The text of an element may contain CDATA
+ * sections and the predefined and numeric character references.
+ */
+final class ByteTokenizer extends EventDispatcher {
+
+    private final ByteBuffer buffer;
+
+    private final Charset charset;
+
+    private int[] nameStarts = new int[16];
+
+    private int[] nameLengths = new int[16];
+
+    private int textStart;
+
+    private int textEnd;
+
+    /**
+     * Creates a tokenizer of the bytes of the buffer from index zero up to its
+     * limit.
+     *
+     * @param buffer  the buffer of the document.
+     * @param charset the encoding of the document.
+     * @param factory the factory receiving the events.
+     * @param parts   the separately imported parts or null.
+     */
+    ByteTokenizer(ByteBuffer buffer, Charset charset, ScoreFactory factory, List<? extends PartSource> parts) {
+        super(factory, parts);
+        this.buffer = buffer;
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the encoding declared by the XML declaration at the start of the
+     * buffer or UTF-8 if no encoding is declared.
+     *
+     * @param buffer the buffer of the document.
+     * @return the encoding of the document.
+     * @throws XMLStreamException if the declared encoding is not supported.
+     */
+    static Charset charsetOf(ByteBuffer buffer) throws XMLStreamException {
+        int start = startOfDocument(buffer);
+        if (!startsWith(buffer, start, "<?xml")) {
+            return StandardCharsets.UTF_8;
+        }
+        int end = indexOf(buffer, "?>", start);
+        int attribute = indexOf(buffer, "encoding", start);
+        if (end < 0 || attribute < 0 || attribute > end) {
+            return StandardCharsets.UTF_8;
+        }
+        int i = attribute + "encoding".length();
+        while (i < end && buffer.get(i) != '"' && buffer.get(i) != '\'') {
+            i++;
+        }
+        byte quote = buffer.get(i);
+        int nameStart = i + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < end && buffer.get(nameEnd) != quote) {
+            nameEnd++;
+        }
+        String name = decode(buffer, nameStart, nameEnd, StandardCharsets.US_ASCII);
+        try {
+            return Charset.forName(name);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new XMLStreamException("The encoding " + name + " is not supported.", e);
+        }
+    }
+
+    /**
+     * Reads the whole document and dispatches its events.
+     *
+     * @throws XMLStreamException if the document is malformed or the content of
+     *                            an element cannot be converted.
+     */
+    void read() throws XMLStreamException {
+        int limit = buffer.limit();
+        int i = startOfDocument(buffer);
+        while (i < limit) {
+            if (buffer.get(i) != '<') {
+                i++;
+                continue;
+            }
+            if (i + 1 >= limit) {
+                throw error("Unexpected end of document", i);
+            }
+            byte b = buffer.get(i + 1);
+            if (b == '?') {
+                i = skip(i, "?>");
+            } else if (b == '!') {
+                if (startsWith(buffer, i, "<!--")) {
+                    i = skip(i, "-->");
+                } else if (startsWith(buffer, i, "<![CDATA[")) {
+                    i = skip(i, "]]>");
+                } else {
+                    i = skipDeclaration(i);
+                }
+            } else if (b == '/') {
+                i = endTag(i);
+            } else {
+                i = startTag(i);
+            }
+        }
+        if (depth() > 0) {
+            throw error("The element " + decode(buffer, nameStarts[depth() - 1],
+                    nameStarts[depth() - 1] + nameLengths[depth() - 1], charset) + " is not closed", limit);
+        }
+    }
+
+    @Override
+    int textAsInt() throws XMLStreamException {
+        int begin = textStart;
+        int end = textEnd;
+        while (begin < end && isWhitespace(buffer.get(begin))) {
+            begin++;
+        }
+        while (end > begin && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        boolean negative = begin < end && buffer.get(begin) == '-';
+        int i = negative || (begin < end && buffer.get(begin) == '+') ? begin + 1 : begin;
+        if (i < end && end - i <= 9) {
+            int value = 0;
+            for (; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            if (i == end) {
+                return negative ? -value : value;
+            }
+        }
+        String text = textAsString();
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("The content " + text + " of the element is not an integer.", e);
+        }
+    }
+
+    @Override
+    String textAsString() throws XMLStreamException {
+        for (int i = textStart; i < textEnd; i++) {
+            byte b = buffer.get(i);
+            if (b == '<' || b == '&') {
+                return decodeMarkup().strip();
+            }
+        }
+        return decode(buffer, textStart, textEnd, charset).strip();
+    }
+
+    /**
+     * Decodes the text of the current element that contains markup, i.e. CDATA
+     * sections, comments, nested elements or references.
+     */
+    private String decodeMarkup() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int run = textStart;
+        int i = textStart;
+        while (i < textEnd) {
+            byte b = buffer.get(i);
+            if (b != '<' && b != '&') {
+                i++;
+                continue;
+            }
+            text.append(decode(buffer, run, i, charset));
+            if (b == '&') {
+                int end = indexOf(buffer, ";", i);
+                if (end < 0 || end > textEnd) {
+                    throw error("The reference is not terminated", i);
+                }
+                text.append(reference(decode(buffer, i + 1, end, charset), i));
+                i = end + 1;
+            } else if (startsWith(buffer, i, "<![CDATA[")) {
+                int end = indexOf(buffer, "]]>", i);
+                text.append(decode(buffer, i + "<![CDATA[".length(), end, charset));
+                i = end + "]]>".length();
+            } else if (startsWith(buffer, i, "<!--")) {
+                i = indexOf(buffer, "-->", i) + "-->".length();
+            } else if (startsWith(buffer, i, "<?")) {
+                i = indexOf(buffer, "?>", i) + "?>".length();
+            } else {
+                i = tagEnd(i + 1);
+            }
+            run = i;
+        }
+        text.append(decode(buffer, run, textEnd, charset));
+        return text.toString();
+    }
+
+    private String reference(String name, int index) throws XMLStreamException {
+        switch (name) {
+        case "amp":
+            return "&";
+        case "lt":
+            return "<";
+        case "gt":
+            return ">";
+        case "quot":
+            return "\"";
+        case "apos":
+            return "'";
+        default:
+            try {
+                if (name.startsWith("#x")) {
+                    return Character.toString(Integer.parseInt(name.substring(2), 16));
+                }
+                if (name.startsWith("#")) {
+                    return Character.toString(Integer.parseInt(name.substring(1)));
+                }
+            } catch (IllegalArgumentException e) {
+                throw error("The character reference &" + name + "; is invalid", index);
+            }
+            throw error("The entity &" + name + "; is not supported", index);
+        }
+    }
+
+    private int startTag(int index) throws XMLStreamException {
+        int nameStart = index + 1;
+        int nameEnd = nameEnd(nameStart);
+        int end = tagEnd(nameEnd);
+        boolean empty = buffer.get(end - 2) == '/';
+        if (nameEnd == nameStart) {
+            throw error("The element has no name", index);
+        }
+        int depth = depth();
+        if (depth == nameStarts.length) {
+            nameStarts = Arrays.copyOf(nameStarts, depth * 2);
+            nameLengths = Arrays.copyOf(nameLengths, depth * 2);
+        }
+        nameStarts[depth] = nameStart;
+        nameLengths[depth] = nameEnd - nameStart;
+        if (startElement(table().name(buffer, nameStart, nameEnd - nameStart))) {
+            textStart = end;
+        }
+        if (empty) {
+            textEnd = end;
+            endElement();
+        }
+        return end;
+    }
+
+    private int endTag(int index) throws XMLStreamException {
+        int nameStart = index + 2;
+        int nameEnd = nameEnd(nameStart);
+        int end = tagEnd(nameEnd);
+        int depth = depth();
+        if (depth == 0 || !sameName(nameStarts[depth - 1], nameLengths[depth - 1], nameStart, nameEnd - nameStart)) {
+            throw error("The end tag " + decode(buffer, nameStart, nameEnd, charset)
+                    + " does not match the start tag", index);
+        }
+        textEnd = index;
+        endElement();
+        return end;
+    }
+
+    private boolean sameName(int start, int length, int otherStart, int otherLength) {
+        if (length != otherLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != buffer.get(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nameEnd(int index) {
+        int limit = buffer.limit();
+        int i = index;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '>' || b == '/' || isWhitespace(b)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index after the {@code >} that closes the tag, skipping quoted
+     * attribute values.
+     */
+    private int tagEnd(int index) throws XMLStreamException {
+        int limit = buffer.limit();
+        byte quote = 0;
+        for (int i = index; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i + 1;
+            }
+        }
+        throw error("The tag is not closed", index);
+    }
+
+    private int skip(int index, String terminator) throws XMLStreamException {
+        int end = indexOf(buffer, terminator, index);
+        if (end < 0) {
+            throw error("The markup is not terminated by " + terminator, index);
+        }
+        return end + terminator.length();
+    }
+
+    /**
+     * Skips a markup declaration like the document type declaration including
+     * its internal subset.
+     */
+    private int skipDeclaration(int index) throws XMLStreamException {
+        int limit = buffer.limit();
+        int brackets = 0;
+        byte quote = 0;
+        for (int i = index + 2; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '[') {
+                brackets++;
+            } else if (b == ']') {
+                brackets--;
+            } else if (b == '>' && brackets == 0) {
+                return i + 1;
+            }
+        }
+        throw error("The declaration is not closed", index);
+    }
+
+    private static XMLStreamException error(String message, int index) {
+        return new XMLStreamException(message + " at byte " + index + ".");
+    }
+
+    /**
+     * Returns the index after a byte order mark of UTF-8.
+     */
+    private static int startOfDocument(ByteBuffer buffer) {
+        if (buffer.limit() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r';
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int index, String prefix) {
+        if (index + prefix.length() > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(index + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, String s, int from) {
+        int last = buffer.limit() - s.length();
+        byte first = (byte) s.charAt(0);
+        for (int i = from; i <= last; i++) {
+            if (buffer.get(i) == first && startsWith(buffer, i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end, Charset charset) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, charset);
+    }
+}
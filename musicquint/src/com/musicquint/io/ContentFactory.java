@@ -1,17 +1,40 @@
 package com.musicquint.io;
 
 import com.musicquint.api.BarTime;
+import com.musicquint.io.XMLTag.TagType;
 
 public interface ContentFactory {
 
+    @XMLTag(tagName = "duration", tagType = TagType.CHARACTER_TAG, inputType = int.class, parent = "note")
     void setDuration(int numerator);
 
     void setDivisor(int divisor);
 
     void setDuration(BarTime duration);
 
+    @XMLTag(tagName = "dot", tagType = TagType.START_TAG, parent = "note")
     void increaseDots();
 
     void setDots(int dots);
 
+    @XMLTag(tagName = "step", tagType = TagType.CHARACTER_TAG, parent = "pitch")
+    void setStep(String step);
+
+    /**
+     * Sets the chromatic alteration of the pitch in semitones. MusicXML defines
+     * the alteration as a decimal, e.g. {@code -0.5} for a quarter tone flat,
+     * hence the text of the element is passed unchanged and the factory decides
+     * how to handle alterations that it cannot represent.
+     *
+     * @param alter the text of the alter element.
+     */
+    @XMLTag(tagName = "alter", tagType = TagType.CHARACTER_TAG, parent = "pitch")
+    void setAlter(String alter);
+
+    @XMLTag(tagName = "octave", tagType = TagType.CHARACTER_TAG, inputType = int.class, parent = "pitch")
+    void setOctave(int octave);
+
+    @XMLTag(tagName = "rest", tagType = TagType.START_TAG, parent = "note")
+    void setRest();
+
 }
@@ -0,0 +1,345 @@
+package com.musicquint.io;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.musicquint.io.XMLTag.TagType;
+
+/**
+ * The table that maps the names of XML elements to the methods of the factories
+ * annotated with {@link XMLTag}. The table is compiled once per class of
+ * {@link ScoreFactory} from the annotations of all interfaces of the class and
+ * of all factories reachable through their getters, e.g.
+ * {@link ScoreFactory#getPartFactory()}. A getter is a public method without
+ * parameters whose name starts with {@code get} and which returns an interface
+ * of this package. Every annotated method is turned into a
+ * {@link MethodHandle} that already contains the calls of the getters leading
+ * from the ScoreFactory to the child factory, so the dispatch of an event needs
+ * a single hash lookup per element and no reflection at all.
+ * </p>
+ * The handles have one of the fixed types {@code (ScoreFactory)Object},
+ * {@code (ScoreFactory,int)void} and {@code (ScoreFactory,String)void} and are
+ * invoked with {@link MethodHandle#invokeExact(Object...)}. The tag names and
+ * parent names are interned, as the names reported by the StAX parser of the
+ * JDK are, such that the comparison of the names usually succeeds by identity.
+ */
+final class DispatchTable {
+
+    private static final ClassValue<DispatchTable> TABLES = new ClassValue<>() {
+
+        @Override
+        protected DispatchTable computeValue(Class<?> type) {
+            return new DispatchTable(type);
+        }
+    };
+
+    /**
+     * The names of elements that are known to the importer regardless of the
+     * annotations.
+     */
+    private static final Set<String> KNOWN_NAMES = Set.of("score-partwise", "part", "note");
+
+    private static final MethodType START_END_TYPE = MethodType.methodType(Object.class, ScoreFactory.class);
+
+    private static final MethodType INT_TYPE = MethodType.methodType(void.class, ScoreFactory.class, int.class);
+
+    private static final MethodType STRING_TYPE = MethodType.methodType(void.class, ScoreFactory.class,
+            String.class);
+
+    private final Map<String, Element> elements = new HashMap<>();
+
+    /**
+     * Open addressing hash table of the encoded names of all elements that occur
+     * in the table either as tag or as parent, see
+     * {@link #name(ByteBuffer, int, int)}.
+     */
+    private final byte[][] encodedNames;
+
+    private final String[] names;
+
+    private DispatchTable(Class<?> type) {
+        if (!ScoreFactory.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("The class " + type.getName() + " is no ScoreFactory.");
+        }
+        Map<String, List<List<Handler>>> handlers = new HashMap<>();
+        collect(type, ScoreFactory.class, new ArrayList<>(), new HashSet<>(), handlers);
+        handlers.forEach((name, lists) -> elements.put(name, new Element(name, lists)));
+        Set<String> known = new HashSet<>(KNOWN_NAMES);
+        for (Element element : elements.values()) {
+            known.add(element.name);
+            for (Handler[] typeHandlers : List.of(element.start, element.character, element.end)) {
+                for (Handler handler : typeHandlers) {
+                    if (handler.parent != null) {
+                        known.add(handler.parent);
+                    }
+                }
+            }
+        }
+        int length = Integer.highestOneBit(known.size() * 4);
+        encodedNames = new byte[length][];
+        names = new String[length];
+        for (String name : known) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            int slot = hash(encoded, 0, encoded.length) & (length - 1);
+            while (names[slot] != null) {
+                slot = (slot + 1) & (length - 1);
+            }
+            encodedNames[slot] = encoded;
+            names[slot] = name.intern();
+        }
+    }
+
+    /**
+     * Returns the dispatch table of the given class of ScoreFactory. The table is
+     * compiled on the first call for a class and cached afterwards.
+     *
+     * @param type the class of the ScoreFactory.
+     * @return the dispatch table of the class.
+     * @throws IllegalArgumentException if the class is no ScoreFactory.
+     * @throws IllegalStateException    if an annotated method does not match its
+     *                                  {@link XMLTag}.
+     */
+    static DispatchTable of(Class<?> type) {
+        return TABLES.get(Objects.requireNonNull(type));
+    }
+
+    /**
+     * Returns the handlers of the element with the given name.
+     *
+     * @param name the local name of the element.
+     * @return the handlers of the element or null if no method is annotated with
+     *         this name.
+     */
+    Element element(String name) {
+        return elements.get(name);
+    }
+
+    /**
+     * Returns the interned name of an element whose UTF-8 encoded name is given
+     * by the bytes of the buffer, if the name is known to the table, i.e. it is
+     * the name of an element of the table, the name of a parent of a handler or
+     * one of the elements {@code score-partwise}, {@code part} and {@code note}.
+     * The bytes are compared without decoding them.
+     *
+     * @param buffer the buffer.
+     * @param start  the index of the first byte of the name.
+     * @param length the number of bytes of the name.
+     * @return the interned name or null if the name is unknown.
+     */
+    String name(ByteBuffer buffer, int start, int length) {
+        int mask = names.length - 1;
+        for (int slot = hash(buffer, start, length) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            byte[] encoded = encodedNames[slot];
+            if (encoded.length == length && equals(encoded, buffer, start)) {
+                return names[slot];
+            }
+        }
+        return null;
+    }
+
+    private static boolean equals(byte[] encoded, ByteBuffer buffer, int start) {
+        for (int i = 0; i < encoded.length; i++) {
+            if (encoded[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int start, int length) {
+        int h = length;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer.get(start + i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(byte[] bytes, int start, int length) {
+        return hash(ByteBuffer.wrap(bytes), start, length);
+    }
+
+    private static void collect(Class<?> type, Class<?> factoryType, List<Method> getters, Set<Class<?>> path,
+            Map<String, List<List<Handler>>> handlers) {
+        if (!path.add(type)) {
+            return;
+        }
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> declaring : interfacesOf(type, factoryType)) {
+            for (Method method : declaring.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+                        || !signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    continue;
+                }
+                XMLTag tag = method.getAnnotation(XMLTag.class);
+                if (tag != null) {
+                    Handler handler = new Handler(compile(getters, method, tag), tag);
+                    handlers.computeIfAbsent(tag.tagName(), k -> newHandlerLists())
+                            .get(tag.tagType().ordinal()).add(handler);
+                } else if (method.getParameterCount() == 0 && method.getName().startsWith("get")
+                        && method.getReturnType().isInterface()
+                        && method.getReturnType().getPackage() == XMLTag.class.getPackage()) {
+                    getters.add(method);
+                    collect(method.getReturnType(), method.getReturnType(), getters, path, handlers);
+                    getters.remove(getters.size() - 1);
+                }
+            }
+        }
+        path.remove(type);
+    }
+
+    private static List<List<Handler>> newHandlerLists() {
+        List<List<Handler>> lists = new ArrayList<>();
+        for (int i = 0; i < TagType.values().length; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    /**
+     * Returns the given interface or all interfaces implemented by the given
+     * class that extend the given factory type, the subinterfaces before their
+     * superinterfaces. The other factory interfaces a class may implement are
+     * reached through the getters only.
+     */
+    private static Set<Class<?>> interfacesOf(Class<?> type, Class<?> factoryType) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        List<Class<?>> pending = new ArrayList<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (c.isInterface()) {
+                pending.add(c);
+            }
+            pending.addAll(Arrays.asList(c.getInterfaces()));
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            if (factoryType.isAssignableFrom(pending.get(i)) && interfaces.add(pending.get(i))) {
+                pending.addAll(Arrays.asList(pending.get(i).getInterfaces()));
+            }
+        }
+        return interfaces;
+    }
+
+    private static MethodHandle compile(List<Method> getters, Method method, XMLTag tag) {
+        MethodType type = handleType(method, tag);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            for (int i = getters.size() - 1; i >= 0; i--) {
+                MethodHandle getter = lookup.unreflect(getters.get(i));
+                handle = handle.asType(handle.type().changeParameterType(0, getter.type().returnType()));
+                handle = MethodHandles.filterArguments(handle, 0, getter);
+            }
+            return handle.asType(type);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("The method " + method + " is not accessible.", e);
+        }
+    }
+
+    private static MethodType handleType(Method method, XMLTag tag) {
+        int parameters = tag.tagType() == TagType.CHARACTER_TAG ? 1 : 0;
+        if (method.getParameterCount() != parameters) {
+            throw new IllegalStateException("The method " + method + " must have " + parameters
+                    + " parameters for the tag type " + tag.tagType());
+        }
+        if (parameters == 0) {
+            return START_END_TYPE;
+        }
+        Class<?> type = method.getParameterTypes()[0];
+        if (type != tag.inputType() || (type != int.class && type != String.class)) {
+            throw new IllegalStateException("The input type " + tag.inputType().getName() + " of the method "
+                    + method + " is not supported.");
+        }
+        return type == int.class ? INT_TYPE : STRING_TYPE;
+    }
+
+    /**
+     * The handlers of all tag types of an element.
+     */
+    static final class Element {
+
+        private static final Handler[] NONE = new Handler[0];
+
+        final String name;
+
+        final Handler[] start;
+
+        final Handler[] character;
+
+        final Handler[] end;
+
+        private Element(String name, List<List<Handler>> handlers) {
+            this.name = name.intern();
+            this.start = handlers.get(TagType.START_TAG.ordinal()).toArray(NONE);
+            this.character = handlers.get(TagType.CHARACTER_TAG.ordinal()).toArray(NONE);
+            this.end = handlers.get(TagType.END_TAG.ordinal()).toArray(NONE);
+        }
+    }
+
+    /**
+     * A compiled annotated method.
+     */
+    static final class Handler {
+
+        private final MethodHandle handle;
+
+        final String parent;
+
+        final boolean intInput;
+
+        private Handler(MethodHandle handle, XMLTag tag) {
+            this.handle = handle;
+            this.parent = tag.parent().isEmpty() ? null : tag.parent().intern();
+            this.intInput = tag.inputType() == int.class;
+        }
+
+        /**
+         * Returns true if the handler applies to an element with the given parent.
+         */
+        boolean accepts(String parentName) {
+            return parent == null || parent == parentName || parent.equals(parentName);
+        }
+
+        Object invoke(ScoreFactory factory) {
+            try {
+                return (Object) handle.invokeExact(factory);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void invoke(ScoreFactory factory, int argument) {
+            try {
+                handle.invokeExact(factory, argument);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void invoke(ScoreFactory factory, String argument) {
+            try {
+                handle.invokeExact(factory, argument);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.musicquint.io;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.musicquint.api.Part;
+import com.musicquint.api.Score;
+
+/**
+ * Dispatches the start and end events of the elements of a MusicXML document to
+ * the handlers of a {@link DispatchTable}. The dispatcher keeps the stack of the
+ * open elements for the parent checks of the handlers and the element whose
+ * text is collected. How the document is read and how the text of an element
+ * is obtained is left to the subclasses.
+ */
+abstract class EventDispatcher {
+
+    static final String NOTE = "note";
+
+    static final String PART = "part";
+
+    /**
+     * A part that is imported separately, e.g. in parallel, and that replaces the
+     * events of a {@code <part>} element of the document.
+     */
+    interface PartSource {
+
+        /**
+         * Waits for the import of the part and returns the part.
+         *
+         * @return the imported part.
+         * @throws XMLStreamException if the import of the part failed.
+         */
+        Part join() throws XMLStreamException;
+    }
+
+    private final ScoreFactory factory;
+
+    private final DispatchTable table;
+
+    private final List<? extends PartSource> parts;
+
+    private int nextPart;
+
+    private String[] names = new String[16];
+
+    private DispatchTable.Element[] elements = new DispatchTable.Element[16];
+
+    private int depth;
+
+    private DispatchTable.Element collecting;
+
+    private long notes;
+
+    private Score score;
+
+    /**
+     * Creates a dispatcher to the given factory.
+     *
+     * @param factory the factory.
+     * @param parts   the parts that replace the events of the {@code <part>}
+     *                elements in the order of the document, or null if the events
+     *                of the parts are dispatched to the factory as well.
+     */
+    EventDispatcher(ScoreFactory factory, List<? extends PartSource> parts) {
+        this.factory = factory;
+        this.table = DispatchTable.of(factory.getClass());
+        this.parts = parts;
+    }
+
+    final DispatchTable table() {
+        return table;
+    }
+
+    /**
+     * Returns the number of notes dispatched so far.
+     */
+    final long notes() {
+        return notes;
+    }
+
+    /**
+     * Returns the score returned by the last end handler returning a score or
+     * null if there was no such handler.
+     */
+    final Score score() {
+        return score;
+    }
+
+    /**
+     * Returns the depth of the current element, i.e. the number of open elements.
+     */
+    final int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns true if the text of the current element has to be collected.
+     */
+    final boolean isCollecting() {
+        return collecting != null;
+    }
+
+    /**
+     * Dispatches the start of an element.
+     *
+     * @param name the name of the element or null if the name is known not to
+     *             occur in the dispatch table.
+     * @return true if the text of the element has to be collected.
+     * @throws XMLStreamException if a separately imported part failed.
+     */
+    final boolean startElement(String name) throws XMLStreamException {
+        if (parts != null && depth == 1 && PART.equals(name)) {
+            factory.addPart(parts.get(nextPart++).join());
+            push(name, null);
+            return false;
+        }
+        DispatchTable.Element element = name == null ? null : table.element(name);
+        boolean collect = false;
+        if (element != null) {
+            String parent = parent();
+            for (DispatchTable.Handler handler : element.start) {
+                if (handler.accepts(parent)) {
+                    handler.invoke(factory);
+                }
+            }
+            if (element.character.length > 0) {
+                collecting = element;
+                collect = true;
+            }
+        }
+        push(name, element);
+        return collect;
+    }
+
+    /**
+     * Dispatches the end of the current element. If the text of the element has
+     * been collected, the character handlers are invoked with the text before the
+     * end handlers are invoked.
+     *
+     * @throws XMLStreamException if the text cannot be converted.
+     */
+    final void endElement() throws XMLStreamException {
+        depth--;
+        String name = names[depth];
+        DispatchTable.Element element = elements[depth];
+        elements[depth] = null;
+        if (NOTE.equals(name)) {
+            notes++;
+        }
+        if (element == null) {
+            return;
+        }
+        String parent = parent();
+        if (collecting == element) {
+            dispatchText(element.character, parent);
+            collecting = null;
+        }
+        for (DispatchTable.Handler handler : element.end) {
+            if (handler.accepts(parent)) {
+                Object result = handler.invoke(factory);
+                if (result instanceof Score) {
+                    score = (Score) result;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the collected text of the current element as int.
+     *
+     * @return the text as int.
+     * @throws XMLStreamException if the text is not an int.
+     */
+    abstract int textAsInt() throws XMLStreamException;
+
+    /**
+     * Returns the collected text of the current element without leading and
+     * trailing whitespace.
+     *
+     * @return the text.
+     * @throws XMLStreamException if the text cannot be decoded.
+     */
+    abstract String textAsString() throws XMLStreamException;
+
+    private String parent() {
+        return depth == 0 ? null : names[depth - 1];
+    }
+
+    private void push(String name, DispatchTable.Element element) {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            elements = Arrays.copyOf(elements, depth * 2);
+        }
+        names[depth] = name;
+        elements[depth] = element;
+        depth++;
+    }
+
+    private void dispatchText(DispatchTable.Handler[] handlers, String parent) throws XMLStreamException {
+        String string = null;
+        for (DispatchTable.Handler handler : handlers) {
+            if (!handler.accepts(parent)) {
+                continue;
+            }
+            if (handler.intInput) {
+                handler.invoke(factory, textAsInt());
+            } else {
+                if (string == null) {
+                    string = textAsString();
+                }
+                handler.invoke(factory, string);
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.musicquint.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.NoteValue;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Type;
+import com.musicquint.api.Voice;
+
+/**
+ * Exporter of scores to LilyPond input files. The pitches are written with the
+ * English note names of {@link Pitch#toString()}, hence the file selects the
+ * language {@code english}. Every part is written as a staff and every bar as
+ * a sequence of notes that is terminated by a bar check. A bar with several
+ * voices is written as simultaneous voices separated by {@code \\}. The time
+ * signature is written whenever the capacity of a bar differs from the
+ * capacity of the previous bar.
+ * </p>
+ * The {@link PrincipalItem PrincipalItems} of a voice at the same BarTime are
+ * written as one chord of all {@link Pitched} items with the duration of the
+ * whole collection, or as a rest if no item is pitched. Durations that cannot
+ * be notated by a single note are split into tied notes by
+ * {@link NoteValue#split(BarTime)}, and tuplets are written as
+ * {@code \tuplet} of single notes. Gaps between the items of a voice are
+ * filled with spacer rests.
+ * </p>
+ * The names of all Pitches and Types are precomputed as char arrays. The
+ * exporter copies these tokens and the digits of numbers directly into a
+ * buffer that is flushed to the target {@link Writer} or {@link CharBuffer},
+ * so no intermediate String is built while a score is exported. The buffer is
+ * reused for all exports, therefore an exporter is not thread-safe.
+ */
+public class LilyPondExporter {
+
+    /**
+     * The LilyPond version the exported files are written for.
+     */
+    public static final String VERSION = "2.24.0";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char[][] PITCHES = new char[Pitch.COUNT][];
+
+    private static final char[][] TYPES = new char[Type.values().length][];
+
+    static {
+        for (int i = 0; i < Pitch.COUNT; i++) {
+            PITCHES[i] = Pitch.ofOrdinal(i).toString().toCharArray();
+        }
+        for (Type type : Type.values()) {
+            TYPES[type.ordinal()] = type.getSimpleName().toCharArray();
+        }
+    }
+
+    private static final char[] HEADER = ("\\version \"" + VERSION + "\"\n\\language \"english\"\n").toCharArray();
+
+    private static final char[] TITLE = "  title = \"".toCharArray();
+
+    private static final char[] SUBTITLE = "  subtitle = \"".toCharArray();
+
+    private static final char[] COMPOSER = "  composer = \"".toCharArray();
+
+    private static final char[] STAFF = "    \\new Staff".toCharArray();
+
+    private static final char[] INSTRUMENT = " \\with { instrumentName = \"".toCharArray();
+
+    private static final char[] TIME = "\\time ".toCharArray();
+
+    private static final char[] TUPLET = "\\tuplet ".toCharArray();
+
+    /**
+     * The target of the buffer.
+     */
+    @FunctionalInterface
+    private interface Target {
+
+        void write(char[] chars, int offset, int length) throws IOException;
+    }
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private Target target;
+
+    private char[][] chord = new char[8][];
+
+    /**
+     * Creates an exporter.
+     */
+    public LilyPondExporter() {
+    }
+
+    /**
+     * Exports the score to the file with the given path in UTF-8. An existing file
+     * is overwritten.
+     *
+     * @param score the score to be exported.
+     * @param path  the path of the LilyPond file.
+     * @throws IOException              if the file cannot be written.
+     * @throws NullPointerException     if the score or path is null.
+     * @throws IllegalArgumentException if a duration of the score cannot be split
+     *                                  into NoteValues.
+     */
+    public void exportScore(Score score, Path path) throws IOException {
+        Objects.requireNonNull(path, "The path is null.");
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            exportScore(score, writer);
+        }
+    }
+
+    /**
+     * Exports the score to the given writer. The writer is neither flushed nor
+     * closed.
+     *
+     * @param score  the score to be exported.
+     * @param writer the writer the LilyPond file is written to.
+     * @throws IOException              if the writer cannot be written.
+     * @throws NullPointerException     if the score or writer is null.
+     * @throws IllegalArgumentException if a duration of the score cannot be split
+     *                                  into NoteValues.
+     */
+    public void exportScore(Score score, Writer writer) throws IOException {
+        Objects.requireNonNull(writer, "The writer is null.");
+        export(score, writer::write);
+    }
+
+    /**
+     * Exports the score into the given CharBuffer, starting at its position.
+     *
+     * @param score  the score to be exported.
+     * @param buffer the buffer the LilyPond file is written to.
+     * @throws java.nio.BufferOverflowException if the remaining chars of the
+     *                                          buffer are not sufficient.
+     * @throws NullPointerException             if the score or buffer is null.
+     * @throws IllegalArgumentException         if a duration of the score cannot
+     *                                          be split into NoteValues.
+     */
+    public void exportScore(Score score, CharBuffer buffer) {
+        Objects.requireNonNull(buffer, "The buffer is null.");
+        try {
+            export(score, buffer::put);
+        } catch (IOException e) {
+            throw new AssertionError("A CharBuffer does not throw an IOException.", e);
+        }
+    }
+
+    private void export(Score score, Target target) throws IOException {
+        Objects.requireNonNull(score, "The score is null.");
+        this.target = target;
+        this.position = 0;
+        try {
+            put(HEADER);
+            writeHeaderBlock(score);
+            put("\\score {\n  <<\n");
+            for (Part part : score) {
+                writePart(part);
+            }
+            put("  >>\n}\n");
+            flush();
+        } finally {
+            this.target = null;
+            Arrays.fill(chord, null);
+        }
+    }
+
+    private void writeHeaderBlock(Score score) throws IOException {
+        if (score.getTitle() == null && score.getSubtitle() == null && score.getComposer() == null) {
+            return;
+        }
+        put("\\header {\n");
+        writeField(TITLE, score.getTitle());
+        writeField(SUBTITLE, score.getSubtitle());
+        writeField(COMPOSER, score.getComposer());
+        put("}\n");
+    }
+
+    private void writeField(char[] prefix, String value) throws IOException {
+        if (value != null) {
+            put(prefix);
+            putEscaped(value);
+            put("\"\n");
+        }
+    }
+
+    private void writePart(Part part) throws IOException {
+        put(STAFF);
+        if (part.getPartName() != null) {
+            put(INSTRUMENT);
+            putEscaped(part.getPartName());
+            put("\" }");
+        }
+        put(" {\n");
+        long capacity = -1;
+        for (Bar bar : part) {
+            if (bar.isEmpty()) {
+                continue;
+            }
+            put("      ");
+            long barCapacity = BarTimes.ZERO;
+            for (Voice voice : bar) {
+                barCapacity = BarTimes.max(barCapacity, BarTimes.pack(voice.capacity()));
+            }
+            if (capacity == -1 || BarTimes.compare(capacity, barCapacity) != 0) {
+                writeTime(barCapacity);
+                capacity = barCapacity;
+            }
+            if (bar.size() == 1) {
+                writeVoice(bar.get(0), barCapacity);
+            } else {
+                put("<< { ");
+                for (int i = 0; i < bar.size(); i++) {
+                    if (i > 0) {
+                        put(" } \\\\ { ");
+                    }
+                    writeVoice(bar.get(i), barCapacity);
+                }
+                put(" } >>");
+            }
+            put(" |\n");
+        }
+        put("    }\n");
+    }
+
+    /**
+     * Writes the time signature of the capacity if its denominator as fraction
+     * of a whole note is a power of two.
+     */
+    private void writeTime(long capacity) throws IOException {
+        long whole = BarTimes.divide(capacity, BarTimes.pack(BarTime.WHOLE));
+        int numerator = BarTimes.numerator(whole);
+        int denominator = BarTimes.denominator(whole);
+        if (numerator <= 0 || Integer.bitCount(denominator) != 1) {
+            return;
+        }
+        if (denominator < 4) {
+            numerator *= 4 / denominator;
+            denominator = 4;
+        }
+        put(TIME);
+        putInt(numerator);
+        put('/');
+        putInt(denominator);
+        put(' ');
+    }
+
+    private void writeVoice(Voice voice, long capacity) throws IOException {
+        long time = BarTimes.ZERO;
+        boolean first = true;
+        for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : voice.entrySet()) {
+            long onset = BarTimes.pack(entry.getKey());
+            if (BarTimes.compare(onset, time) > 0) {
+                writeEvent('s', 0, BarTimes.toBarTime(BarTimes.subtract(onset, time)), first);
+                first = false;
+            }
+            Voice.MeasurableCollection<PrincipalItem> items = entry.getValue();
+            int count = 0;
+            for (PrincipalItem item : items) {
+                if (item instanceof Pitched) {
+                    if (count == chord.length) {
+                        chord = Arrays.copyOf(chord, count * 2);
+                    }
+                    chord[count++] = PITCHES[((Pitched) item).getPitch().ordinal()];
+                }
+            }
+            BarTime duration = items.getDuration();
+            if (BarTimes.signum(BarTimes.pack(duration)) > 0) {
+                writeEvent(count == 0 ? 'r' : 0, count, duration, first);
+                first = false;
+            }
+            time = BarTimes.max(time, BarTimes.add(onset, BarTimes.pack(duration)));
+        }
+        if (BarTimes.compare(capacity, time) > 0) {
+            writeEvent('s', 0, BarTimes.toBarTime(BarTimes.subtract(capacity, time)), first);
+        }
+    }
+
+    /**
+     * Writes the chord of the first {@code count} tokens of {@link #chord} or the
+     * given rest if {@code count} is zero with the given duration.
+     */
+    private void writeEvent(char rest, int count, BarTime duration, boolean first) throws IOException {
+        List<NoteValue> values = NoteValue.split(duration);
+        for (int i = 0; i < values.size(); i++) {
+            NoteValue value = values.get(i);
+            if (!first || i > 0) {
+                put(' ');
+            }
+            if (value.isTuplet()) {
+                put(TUPLET);
+                putInt(value.getTupletActual());
+                put('/');
+                putInt(value.getTupletNormal());
+                put(" { ");
+            }
+            if (count == 0) {
+                put(rest);
+            } else if (count == 1) {
+                put(chord[0]);
+            } else {
+                put('<');
+                for (int j = 0; j < count; j++) {
+                    if (j > 0) {
+                        put(' ');
+                    }
+                    put(chord[j]);
+                }
+                put('>');
+            }
+            put(TYPES[value.getType().ordinal()]);
+            for (int dot = 0; dot < value.getDots(); dot++) {
+                put('.');
+            }
+            if (count > 0 && i < values.size() - 1) {
+                put('~');
+            }
+            if (value.isTuplet()) {
+                put(" }");
+            }
+        }
+    }
+
+    private void putEscaped(String string) throws IOException {
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+            }
+            put(c);
+        }
+    }
+
+    private void putInt(int value) throws IOException {
+        if (value >= 10) {
+            putInt(value / 10);
+        }
+        put((char) ('0' + value % 10));
+    }
+
+    private void put(String string) throws IOException {
+        for (int i = 0; i < string.length(); i++) {
+            put(string.charAt(i));
+        }
+    }
+
+    private void put(char[] chars) throws IOException {
+        int offset = 0;
+        while (offset < chars.length) {
+            if (position == buffer.length) {
+                flush();
+            }
+            int length = Math.min(chars.length - offset, buffer.length - position);
+            System.arraycopy(chars, offset, buffer, position, length);
+            position += length;
+            offset += length;
+        }
+    }
+
+    private void put(char c) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = c;
+    }
+
+    private void flush() throws IOException {
+        target.write(buffer, 0, position);
+        position = 0;
+    }
+}
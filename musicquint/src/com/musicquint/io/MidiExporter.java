@@ -0,0 +1,443 @@
+package com.musicquint.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Part;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+
+/**
+ * Exporter of scores to Standard MIDI Files of format 1. The first track of the
+ * file is a conductor track with the tempo and the title of the score, every
+ * part of the score is written to a track of its own. The parts are assigned to
+ * the MIDI channels in order, skipping the percussion channel 10, and channels
+ * are reused if a score has more than 15 parts. Every {@link Pitched} item of a
+ * voice is written as a note on and a note off event with the MIDI key
+ * {@link com.musicquint.api.Pitch#asInt()} + 12, i.e. {@code c'} is the middle
+ * C with key 60. All other items are rests.
+ * </p>
+ * The onsets and durations are converted into ticks with a single resolution
+ * for the whole score. The number of ticks per quarter is the least common
+ * multiple of the denominators of all onsets, durations and capacities of the
+ * score, hence every BarTime is converted exactly. The resolution of a MIDI
+ * file is limited to {@value #MAX_TICKS_PER_QUARTER} ticks per quarter.
+ * </p>
+ * The tracks are streamed to a {@link WritableByteChannel} through a single
+ * buffer that is reused for all tracks and all exports of the exporter. The
+ * events of a track are collected as primitive longs that are sorted in place,
+ * so that exporting a score creates no objects per note besides those created
+ * by the score itself. An exporter is therefore not thread-safe. The throughput
+ * of all exports of an exporter is recorded in the {@link ExportStatistics}
+ * returned by {@link #getStatistics()}.
+ */
+public class MidiExporter {
+
+    /**
+     * The maximal number of ticks per quarter of a Standard MIDI File.
+     */
+    public static final int MAX_TICKS_PER_QUARTER = 0x7FFF;
+
+    /**
+     * The default tempo in quarters per minute.
+     */
+    public static final int DEFAULT_TEMPO = 120;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int VELOCITY = 64;
+
+    private static final int NOTE_OFF = 0x80;
+
+    private static final int NOTE_ON = 0x90;
+
+    private static final int META = 0xFF;
+
+    private static final int META_TRACK_NAME = 0x03;
+
+    private static final int META_TEMPO = 0x51;
+
+    private static final int META_END_OF_TRACK = 0x2F;
+
+    private static final int PERCUSSION_CHANNEL = 9;
+
+    private static final int MIDI_KEY_OFFSET = 12;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final int tempo;
+
+    /**
+     * The events of the current track. Every event is encoded as
+     * {@code tick << 8 | on << 7 | key}, hence sorting the array orders the
+     * events by their tick and note off events before note on events.
+     */
+    private long[] events = new long[256];
+
+    private int eventCount;
+
+    private long scores;
+
+    private long bytes;
+
+    private long nanos;
+
+    /**
+     * Creates an exporter with the {@link #DEFAULT_TEMPO}.
+     */
+    public MidiExporter() {
+        this(DEFAULT_TEMPO);
+    }
+
+    /**
+     * Creates an exporter with the given tempo.
+     *
+     * @param tempo the tempo in quarters per minute.
+     * @throws IllegalArgumentException if the tempo is not greater than zero or
+     *                                  too small to be represented in a MIDI file.
+     */
+    public MidiExporter(int tempo) {
+        if (tempo <= 0 || 60_000_000 / tempo > 0xFFFFFF) {
+            throw new IllegalArgumentException("The tempo " + tempo + " cannot be represented in a MIDI file.");
+        }
+        this.tempo = tempo;
+    }
+
+    /**
+     * Exports the score to the file with the given path. An existing file is
+     * overwritten.
+     *
+     * @param score the score to be exported.
+     * @param path  the path of the MIDI file.
+     * @throws IOException              if the file cannot be written.
+     * @throws NullPointerException     if the score or path is null.
+     * @throws IllegalArgumentException if the score requires more than
+     *                                  {@link #MAX_TICKS_PER_QUARTER} ticks per
+     *                                  quarter.
+     */
+    public void exportScore(Score score, Path path) throws IOException {
+        Objects.requireNonNull(path, "The path is null.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            exportScore(score, channel);
+        }
+    }
+
+    /**
+     * Exports the score to the given channel. The channel is not closed.
+     *
+     * @param score   the score to be exported.
+     * @param channel the channel the MIDI file is written to.
+     * @throws IOException              if the channel cannot be written.
+     * @throws NullPointerException     if the score or channel is null.
+     * @throws IllegalArgumentException if the score requires more than
+     *                                  {@link #MAX_TICKS_PER_QUARTER} ticks per
+     *                                  quarter.
+     */
+    public void exportScore(Score score, WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(score, "The score is null.");
+        Objects.requireNonNull(channel, "The channel is null.");
+        long start = System.nanoTime();
+        int ticksPerQuarter = ticksPerQuarter(score);
+        buffer.clear();
+        long written = writeHeader(channel, score.size() + 1, ticksPerQuarter);
+        written += writeConductorTrack(channel, score.getTitle());
+        for (int i = 0; i < score.size(); i++) {
+            Part part = score.get(i);
+            collectEvents(part, ticksPerQuarter);
+            written += writeTrack(channel, part.getPartName(), channel(i));
+        }
+        flush(channel);
+        scores++;
+        bytes += written;
+        nanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the statistics of all exports of this exporter.
+     *
+     * @return the statistics of all exports.
+     */
+    public ExportStatistics getStatistics() {
+        return new ExportStatistics(scores, bytes, nanos);
+    }
+
+    /**
+     * Returns the least common multiple of the denominators of all onsets,
+     * durations and capacities of the score.
+     */
+    private static int ticksPerQuarter(Score score) {
+        long lcm = 1;
+        for (Part part : score) {
+            for (Bar bar : part) {
+                for (Voice voice : bar) {
+                    lcm = lcm(lcm, voice.capacity().getDenominator());
+                    for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : voice.entrySet()) {
+                        lcm = lcm(lcm, entry.getKey().getDenominator());
+                        for (PrincipalItem item : entry.getValue()) {
+                            lcm = lcm(lcm, item.getDuration().getDenominator());
+                        }
+                    }
+                }
+            }
+        }
+        return (int) lcm;
+    }
+
+    private static long lcm(long lcm, int denominator) {
+        long result = lcm / BarTimes.gcd(lcm, denominator) * denominator;
+        if (result > MAX_TICKS_PER_QUARTER) {
+            throw new IllegalArgumentException("The score requires more than " + MAX_TICKS_PER_QUARTER
+                    + " ticks per quarter to represent the denominator " + denominator);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the MIDI channel of the part with the given index, skipping the
+     * percussion channel.
+     */
+    private static int channel(int part) {
+        int channel = part % 15;
+        return channel < PERCUSSION_CHANNEL ? channel : channel + 1;
+    }
+
+    private void collectEvents(Part part, int ticksPerQuarter) {
+        eventCount = 0;
+        long barTick = 0;
+        for (Bar bar : part) {
+            long length = 0;
+            for (Voice voice : bar) {
+                length = Math.max(length, ticks(voice.capacity(), ticksPerQuarter));
+                for (Entry<BarTime, Voice.MeasurableCollection<PrincipalItem>> entry : voice.entrySet()) {
+                    long onset = barTick + ticks(entry.getKey(), ticksPerQuarter);
+                    for (PrincipalItem item : entry.getValue()) {
+                        if (item instanceof Pitched) {
+                            int key = ((Pitched) item).getPitch().asInt() + MIDI_KEY_OFFSET;
+                            long end = onset + ticks(item.getDuration(), ticksPerQuarter);
+                            addEvent(onset << 8 | 1 << 7 | key);
+                            addEvent(end << 8 | key);
+                        }
+                    }
+                }
+            }
+            barTick += length;
+        }
+        Arrays.sort(events, 0, eventCount);
+    }
+
+    private static long ticks(BarTime time, int ticksPerQuarter) {
+        return (long) time.getNumerator() * (ticksPerQuarter / time.getDenominator());
+    }
+
+    private void addEvent(long event) {
+        if (eventCount == events.length) {
+            events = Arrays.copyOf(events, eventCount * 2);
+        }
+        events[eventCount++] = event;
+    }
+
+    private long writeHeader(WritableByteChannel channel, int tracks, int ticksPerQuarter) throws IOException {
+        if (tracks > 0xFFFF) {
+            throw new IllegalArgumentException("A MIDI file cannot contain " + tracks + " tracks.");
+        }
+        putBytes(channel, "MThd".getBytes(StandardCharsets.US_ASCII));
+        putInt(channel, 6);
+        putShort(channel, 1);
+        putShort(channel, tracks);
+        putShort(channel, ticksPerQuarter);
+        return 14;
+    }
+
+    private long writeConductorTrack(WritableByteChannel channel, String title) throws IOException {
+        byte[] name = title == null ? null : title.getBytes(StandardCharsets.UTF_8);
+        int length = metaLength(name) + 7 + 4;
+        writeTrackHeader(channel, length);
+        writeMeta(channel, name);
+        int microsPerQuarter = 60_000_000 / tempo;
+        put(channel, 0);
+        put(channel, META);
+        put(channel, META_TEMPO);
+        put(channel, 3);
+        put(channel, microsPerQuarter >>> 16);
+        put(channel, microsPerQuarter >>> 8);
+        put(channel, microsPerQuarter);
+        writeEndOfTrack(channel);
+        return 8 + length;
+    }
+
+    private long writeTrack(WritableByteChannel channel, String partName, int midiChannel) throws IOException {
+        byte[] name = partName == null ? null : partName.getBytes(StandardCharsets.UTF_8);
+        long length = metaLength(name) + 4;
+        long tick = 0;
+        for (int i = 0; i < eventCount; i++) {
+            long eventTick = events[i] >>> 8;
+            length += varLength(eventTick - tick) + 3;
+            tick = eventTick;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The part " + partName + " is too long for a MIDI track.");
+        }
+        writeTrackHeader(channel, (int) length);
+        writeMeta(channel, name);
+        tick = 0;
+        for (int i = 0; i < eventCount; i++) {
+            long event = events[i];
+            long eventTick = event >>> 8;
+            putVar(channel, eventTick - tick);
+            put(channel, ((event & 0x80) != 0 ? NOTE_ON : NOTE_OFF) | midiChannel);
+            put(channel, (int) event & 0x7F);
+            put(channel, VELOCITY);
+            tick = eventTick;
+        }
+        writeEndOfTrack(channel);
+        return 8 + length;
+    }
+
+    private void writeTrackHeader(WritableByteChannel channel, int length) throws IOException {
+        putBytes(channel, "MTrk".getBytes(StandardCharsets.US_ASCII));
+        putInt(channel, length);
+    }
+
+    private static int metaLength(byte[] text) {
+        return text == null ? 0 : 3 + varLength(text.length) + text.length;
+    }
+
+    private void writeMeta(WritableByteChannel channel, byte[] text) throws IOException {
+        if (text != null) {
+            put(channel, 0);
+            put(channel, META);
+            put(channel, META_TRACK_NAME);
+            putVar(channel, text.length);
+            putBytes(channel, text);
+        }
+    }
+
+    private void writeEndOfTrack(WritableByteChannel channel) throws IOException {
+        put(channel, 0);
+        put(channel, META);
+        put(channel, META_END_OF_TRACK);
+        put(channel, 0);
+    }
+
+    /**
+     * Returns the number of bytes of the value as variable-length quantity.
+     */
+    private static int varLength(long value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private void putVar(WritableByteChannel channel, long value) throws IOException {
+        for (int shift = (varLength(value) - 1) * 7; shift > 0; shift -= 7) {
+            put(channel, (int) (value >>> shift) & 0x7F | 0x80);
+        }
+        put(channel, (int) value & 0x7F);
+    }
+
+    private void putInt(WritableByteChannel channel, int value) throws IOException {
+        putShort(channel, value >>> 16);
+        putShort(channel, value);
+    }
+
+    private void putShort(WritableByteChannel channel, int value) throws IOException {
+        put(channel, value >>> 8);
+        put(channel, value);
+    }
+
+    private void putBytes(WritableByteChannel channel, byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            put(channel, b);
+        }
+    }
+
+    private void put(WritableByteChannel channel, int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush(channel);
+        }
+        buffer.put((byte) b);
+    }
+
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Statistics about the throughput of the exports of an exporter.
+     */
+    public static final class ExportStatistics {
+
+        private final long scores;
+
+        private final long bytes;
+
+        private final long nanos;
+
+        private ExportStatistics(long scores, long bytes, long nanos) {
+            this.scores = scores;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return the number of exported scores.
+         */
+        public long getScores() {
+            return scores;
+        }
+
+        /**
+         * @return the number of bytes written.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the duration of all exports in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the throughput in scores per second.
+         */
+        public double getScoresPerSecond() {
+            return nanos == 0 ? 0 : scores * 1e9 / nanos;
+        }
+
+        /**
+         * @return the throughput in megabytes (10^6 bytes) per second.
+         */
+        public double getMegabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e3 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d scores, %d bytes in %.3f ms (%.0f scores/s, %.2f MB/s)", scores, bytes,
+                    nanos / 1e6, getScoresPerSecond(), getMegabytesPerSecond());
+        }
+    }
+}
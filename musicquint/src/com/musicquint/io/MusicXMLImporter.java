@@ -0,0 +1,516 @@
+package com.musicquint.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.musicquint.api.Part;
+import com.musicquint.api.Score;
+
+/**
+ * Streaming importer of partwise MusicXML documents. The importer reads the
+ * document with a StAX {@link XMLStreamReader} and dispatches every start,
+ * character and end event directly to the methods of the factories that are
+ * annotated with {@link XMLTag}. No document tree is built, hence the memory
+ * needed by the importer does not depend on the size of the document but only
+ * on its nesting depth.
+ * </p>
+ * The events are dispatched through a table of method handles that is compiled
+ * once per class of ScoreFactory from the annotations of {@link ScoreFactory}
+ * and all factories reachable through its getters, e.g.
+ * {@link ScoreFactory#getPartFactory()}. The getters are invoked for every
+ * event, so a factory may switch the child factory it returns while the
+ * document is read.
+ * </p>
+ * Files can be imported without decoding them by {@link #importScoreMapped(Path)},
+ * which maps the file into memory and reads it with a tokenizer that compares
+ * the names of the elements and parses the integers byte by byte. With
+ * {@link #importScoreInParallel(Path)} the parts of a mapped file are
+ * additionally imported concurrently, each part by its own task of the common
+ * {@link ForkJoinPool}.
+ * </p>
+ * Every import records
+ * {@link ImportStatistics} about the throughput of the import which can be
+ * obtained with {@link #getStatistics()}.
+ */
+public class MusicXMLImporter {
+
+    private static final byte[] PART_PLACEHOLDER = "<part/>".getBytes(StandardCharsets.US_ASCII);
+
+    private final Supplier<? extends ScoreFactory> supplier;
+
+    private final XMLInputFactory inputFactory;
+
+    private volatile ImportStatistics statistics = new ImportStatistics(0, 0, 0);
+
+    /**
+     * Creates an importer that requests a new ScoreFactory from the supplier for
+     * every imported document.
+     *
+     * @param supplier the supplier of the ScoreFactory.
+     * @throws NullPointerException if the supplier is null.
+     */
+    public MusicXMLImporter(Supplier<? extends ScoreFactory> supplier) {
+        this.supplier = Objects.requireNonNull(supplier, "The supplier is null.");
+        this.inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+
+    /**
+     * Imports the MusicXML document of the given file.
+     *
+     * @param path the path of the file.
+     * @return the Score built by the ScoreFactory.
+     * @throws IOException        if the file cannot be read.
+     * @throws XMLStreamException if the document is malformed or the content of
+     *                            an element cannot be converted.
+     */
+    public Score importScore(Path path) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return importScore(in);
+        }
+    }
+
+    /**
+     * Imports the MusicXML document from the given stream. The stream is not
+     * closed by this method.
+     *
+     * @param in the stream of the document.
+     * @return the Score built by the ScoreFactory.
+     * @throws XMLStreamException if the document is malformed or the content of
+     *                            an element cannot be converted.
+     */
+    public Score importScore(InputStream in) throws XMLStreamException {
+        Objects.requireNonNull(in, "The input stream is null.");
+        ScoreFactory factory = Objects.requireNonNull(supplier.get(), "The supplied ScoreFactory is null.");
+        CountingInputStream counter = new CountingInputStream(in);
+        long start = System.nanoTime();
+        XMLStreamReader reader = createReader(counter);
+        try {
+            StaxReader events = new StaxReader(reader, factory);
+            events.read();
+            statistics = new ImportStatistics(counter.count, events.notes(), System.nanoTime() - start);
+            return events.score();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Imports the MusicXML document of the given file and builds its parts in
+     * parallel. The file is mapped into memory and split at the boundaries of
+     * its {@code <part>} elements by a byte level scanner. Every part is
+     * imported by its own task of the common {@link ForkJoinPool} into a
+     * PartFactory returned by {@link ScoreFactory#newPartFactory()}. Meanwhile
+     * the remainder of the document is imported by the ScoreFactory, which
+     * receives the built parts in the declared order by
+     * {@link ScoreFactory#addPart(Part)} instead of the events of the parts.
+     * </p>
+     * Documents that are larger than 2 GB, that are not encoded in an ASCII
+     * compatible encoding or that are no partwise documents are imported
+     * sequentially by {@link #importScore(Path)}.
+     *
+     * @param path the path of the file.
+     * @return the Score built by the ScoreFactory.
+     * @throws IOException                   if the file cannot be read.
+     * @throws XMLStreamException            if the document is malformed or the
+     *                                       content of an element cannot be
+     *                                       converted.
+     * @throws UnsupportedOperationException if the ScoreFactory does not
+     *                                       override
+     *                                       {@link ScoreFactory#newPartFactory()}
+     *                                       and
+     *                                       {@link ScoreFactory#addPart(Part)}.
+     */
+    public Score importScoreInParallel(Path path) throws IOException, XMLStreamException {
+        ByteBuffer buffer = map(path);
+        int[] ranges = buffer == null ? new int[0] : PartScanner.scan(buffer);
+        if (ranges.length == 0) {
+            return importScore(path);
+        }
+        ScoreFactory factory = Objects.requireNonNull(supplier.get(), "The supplied ScoreFactory is null.");
+        long start = System.nanoTime();
+        Charset charset = ByteTokenizer.charsetOf(buffer);
+        List<PartImport> parts = new ArrayList<>(ranges.length / 2);
+        try {
+            for (int i = 0; i < ranges.length; i += 2) {
+                ByteBuffer slice = buffer.slice(ranges[i], ranges[i + 1] - ranges[i]);
+                PartImport part = new PartImport(slice, charset, factory.newPartFactory());
+                part.task = ForkJoinPool.commonPool().submit(part);
+                parts.add(part);
+            }
+            ByteTokenizer tokenizer = new ByteTokenizer(ByteBuffer.wrap(skeleton(buffer, ranges)), charset, factory,
+                    parts);
+            tokenizer.read();
+            long notes = tokenizer.notes();
+            for (PartImport part : parts) {
+                notes += part.notes;
+            }
+            statistics = new ImportStatistics(buffer.limit(), notes, System.nanoTime() - start);
+            return tokenizer.score();
+        } finally {
+            for (PartImport part : parts) {
+                part.task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Imports the MusicXML document of the given file without decoding it. The
+     * file is mapped into memory and read by a tokenizer that recognizes the
+     * names of the elements by comparing their bytes and parses integers like
+     * the content of {@code <duration>} directly from the bytes. Only the text
+     * of elements whose handlers expect a String is decoded. The tokenizer is no
+     * validating XML parser, e.g. it ignores the document type declaration and
+     * supports the predefined entities only.
+     * </p>
+     * Documents that are larger than 2 GB or that are not encoded in an ASCII
+     * compatible encoding are imported by {@link #importScore(Path)}.
+     *
+     * @param path the path of the file.
+     * @return the Score built by the ScoreFactory.
+     * @throws IOException        if the file cannot be read.
+     * @throws XMLStreamException if the document is malformed or the content of
+     *                            an element cannot be converted.
+     */
+    public Score importScoreMapped(Path path) throws IOException, XMLStreamException {
+        ByteBuffer buffer = map(path);
+        if (buffer == null || !PartScanner.isAsciiCompatible(buffer)) {
+            return importScore(path);
+        }
+        ScoreFactory factory = Objects.requireNonNull(supplier.get(), "The supplied ScoreFactory is null.");
+        long start = System.nanoTime();
+        ByteTokenizer tokenizer = new ByteTokenizer(buffer, ByteTokenizer.charsetOf(buffer), factory, null);
+        tokenizer.read();
+        statistics = new ImportStatistics(buffer.limit(), tokenizer.notes(), System.nanoTime() - start);
+        return tokenizer.score();
+    }
+
+    /**
+     * Returns the statistics of the last import of this importer.
+     *
+     * @return the statistics of the last import.
+     */
+    public ImportStatistics getStatistics() {
+        return statistics;
+    }
+
+    private XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        synchronized (inputFactory) {
+            return inputFactory.createXMLStreamReader(in);
+        }
+    }
+
+    /**
+     * Maps the file into memory or returns null if the file is too large.
+     */
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Returns the document without the content of its parts, every part being
+     * replaced by an empty part element.
+     */
+    private static byte[] skeleton(ByteBuffer buffer, int[] ranges) {
+        int tail = buffer.limit() - ranges[ranges.length - 1];
+        byte[] skeleton = new byte[ranges[0] + ranges.length / 2 * PART_PLACEHOLDER.length + tail];
+        buffer.get(0, skeleton, 0, ranges[0]);
+        int position = ranges[0];
+        for (int i = 0; i < ranges.length; i += 2) {
+            System.arraycopy(PART_PLACEHOLDER, 0, skeleton, position, PART_PLACEHOLDER.length);
+            position += PART_PLACEHOLDER.length;
+        }
+        buffer.get(ranges[ranges.length - 1], skeleton, position, tail);
+        return skeleton;
+    }
+
+    /**
+     * The import of a single part into its own PartFactory.
+     */
+    private static final class PartImport implements Callable<Part>, EventDispatcher.PartSource {
+
+        private final ByteBuffer buffer;
+
+        private final Charset charset;
+
+        private final PartFactory partFactory;
+
+        private ForkJoinTask<Part> task;
+
+        private long notes;
+
+        private PartImport(ByteBuffer buffer, Charset charset, PartFactory partFactory) {
+            this.buffer = buffer;
+            this.charset = charset;
+            this.partFactory = Objects.requireNonNull(partFactory, "The new PartFactory is null.");
+        }
+
+        @Override
+        public Part call() throws XMLStreamException {
+            ByteTokenizer tokenizer = new ByteTokenizer(buffer, charset, new PartScoreFactory(partFactory), null);
+            tokenizer.read();
+            notes = tokenizer.notes();
+            return partFactory.build();
+        }
+
+        @Override
+        public Part join() throws XMLStreamException {
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new XMLStreamException("The import of a part has been interrupted.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof XMLStreamException) {
+                    throw (XMLStreamException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new XMLStreamException(cause);
+            }
+        }
+    }
+
+    /**
+     * The ScoreFactory that directs the events of a single part to the factory
+     * of this part.
+     */
+    private static final class PartScoreFactory implements ScoreFactory {
+
+        private final PartFactory partFactory;
+
+        private PartScoreFactory(PartFactory partFactory) {
+            this.partFactory = partFactory;
+        }
+
+        @Override
+        public Score build() {
+            return null;
+        }
+
+        @Override
+        public void setTitle(String string) {
+        }
+
+        @Override
+        public void addPartName(String partName) {
+        }
+
+        @Override
+        public void createPart() {
+        }
+
+        @Override
+        public void finishPart() {
+        }
+
+        @Override
+        public PartFactory getPartFactory() {
+            return partFactory;
+        }
+    }
+
+    /**
+     * Reads a document with a StAX reader and collects the text of the current
+     * character element.
+     */
+    private static final class StaxReader extends EventDispatcher {
+
+        private final XMLStreamReader reader;
+
+        private final StringBuilder text = new StringBuilder();
+
+        private StaxReader(XMLStreamReader reader, ScoreFactory factory) {
+            super(factory, null);
+            this.reader = reader;
+        }
+
+        private void read() throws XMLStreamException {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (startElement(reader.getLocalName())) {
+                        text.setLength(0);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (isCollecting()) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+
+        @Override
+        int textAsInt() throws XMLStreamException {
+            int begin = begin();
+            int end = end(begin);
+            try {
+                return Integer.parseInt(text, begin, end, 10);
+            } catch (NumberFormatException e) {
+                throw new XMLStreamException("The content " + text.substring(begin, end)
+                        + " of the element is not an integer.", reader.getLocation(), e);
+            }
+        }
+
+        @Override
+        String textAsString() {
+            int begin = begin();
+            return text.substring(begin, end(begin));
+        }
+
+        private int begin() {
+            int begin = 0;
+            while (begin < text.length() && Character.isWhitespace(text.charAt(begin))) {
+                begin++;
+            }
+            return begin;
+        }
+
+        private int end(int begin) {
+            int end = text.length();
+            while (end > begin && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Counts the bytes read from the underlying stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Statistics about the throughput of an import.
+     */
+    public static final class ImportStatistics {
+
+        private final long bytes;
+
+        private final long notes;
+
+        private final long nanos;
+
+        private ImportStatistics(long bytes, long notes, long nanos) {
+            this.bytes = bytes;
+            this.notes = notes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return the number of bytes read.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the number of note elements read.
+         */
+        public long getNotes() {
+            return notes;
+        }
+
+        /**
+         * @return the duration of the import in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the throughput in megabytes (10^6 bytes) per second.
+         */
+        public double getMegabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e3 / nanos;
+        }
+
+        /**
+         * @return the throughput in notes per second.
+         */
+        public double getNotesPerSecond() {
+            return nanos == 0 ? 0 : notes * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bytes, %d notes in %.3f ms (%.2f MB/s, %.0f notes/s)", bytes, notes,
+                    nanos / 1e6, getMegabytesPerSecond(), getNotesPerSecond());
+        }
+    }
+}
@@ -1,9 +1,34 @@
 package com.musicquint.io;
 
+import com.musicquint.api.Part;
+import com.musicquint.io.XMLTag.TagType;
+
 public interface PartFactory {
 
     BarFactory getBarFactory();
 
+    /**
+     * Returns the part built from the events of a single {@code <part>} element.
+     * The method is only invoked on the factories returned by
+     * {@link ScoreFactory#newPartFactory()}, and the default implementation
+     * throws an UnsupportedOperationException.
+     *
+     * @return the part.
+     * @throws UnsupportedOperationException if the factory does not support
+     *                                       parallel imports.
+     */
+    default Part build() {
+        throw new UnsupportedOperationException(
+                "The PartFactory " + getClass().getName() + " does not support parallel imports.");
+    }
+
+    @XMLTag(tagName = "divisions", tagType = TagType.CHARACTER_TAG, inputType = int.class)
     void setDivisor(int divisor);
 
+    @XMLTag(tagName = "measure", tagType = TagType.START_TAG)
+    void createBar();
+
+    @XMLTag(tagName = "measure", tagType = TagType.END_TAG)
+    void finishBar();
+
 }
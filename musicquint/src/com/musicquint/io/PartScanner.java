@@ -0,0 +1,203 @@
+package com.musicquint.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte level scanner that finds the {@code <part>} elements of a partwise
+ * MusicXML document without decoding or parsing the document. The scanner
+ * only understands as much XML as is needed to find the boundaries of the
+ * parts, i.e. it skips comments, CDATA sections, processing instructions and
+ * quoted attribute values. It relies on an encoding in which the markup
+ * characters are single ASCII bytes, e.g. UTF-8 or ISO-8859-1.
+ * </p>
+ * The buffer is accessed with absolute get methods only, hence its position
+ * and limit are never changed.
+ */
+final class PartScanner {
+
+    private static final byte[] PART = bytes("part");
+
+    private static final byte[] SCORE_PARTWISE = bytes("<score-partwise");
+
+    private static final byte[] COMMENT_START = bytes("<!--");
+
+    private static final byte[] COMMENT_END = bytes("-->");
+
+    private static final byte[] CDATA_START = bytes("<![CDATA[");
+
+    private static final byte[] CDATA_END = bytes("]]>");
+
+    private static final byte[] PI_START = bytes("<?");
+
+    private static final byte[] PI_END = bytes("?>");
+
+    private static final int[] NONE = new int[0];
+
+    private PartScanner() {
+    }
+
+    /**
+     * Scans the given buffer of a partwise MusicXML document for the
+     * {@code <part>} elements.
+     *
+     * @param buffer the buffer that contains the document from index zero up to
+     *               its limit.
+     * @return the start index (inclusive) and end index (exclusive) of every
+     *         part, one pair after the other, in document order. An empty array
+     *         is returned if the document is no partwise document, it is not
+     *         encoded in an ASCII compatible encoding or its parts cannot be
+     *         determined, e.g. because the document is malformed.
+     */
+    static int[] scan(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        if (!isAsciiCompatible(buffer)) {
+            return NONE;
+        }
+        int[] ranges = new int[16];
+        int count = 0;
+        int start = -1;
+        boolean partwise = false;
+        int i = 0;
+        while ((i = indexOf(buffer, (byte) '<', i, limit)) >= 0) {
+            if (startsWith(buffer, i, COMMENT_START)) {
+                i = skip(buffer, i + COMMENT_START.length, COMMENT_END);
+            } else if (startsWith(buffer, i, CDATA_START)) {
+                i = skip(buffer, i + CDATA_START.length, CDATA_END);
+            } else if (startsWith(buffer, i, PI_START)) {
+                i = skip(buffer, i + PI_START.length, PI_END);
+            } else if (start < 0 && isTag(buffer, i + 1, PART)) {
+                if (!partwise) {
+                    return NONE;
+                }
+                int end = tagEnd(buffer, i + 1 + PART.length);
+                if (end < 0) {
+                    return NONE;
+                }
+                if (buffer.get(end - 2) == '/') {
+                    ranges = add(ranges, count, i, end);
+                    count += 2;
+                } else {
+                    start = i;
+                }
+                i = end;
+            } else if (start >= 0 && i + 1 < limit && buffer.get(i + 1) == '/' && isTag(buffer, i + 2, PART)) {
+                int end = tagEnd(buffer, i + 2 + PART.length);
+                if (end < 0) {
+                    return NONE;
+                }
+                ranges = add(ranges, count, start, end);
+                count += 2;
+                start = -1;
+                i = end;
+            } else {
+                if (!partwise && start < 0) {
+                    partwise = startsWith(buffer, i, SCORE_PARTWISE);
+                }
+                i++;
+            }
+            if (i < 0) {
+                return NONE;
+            }
+        }
+        return start < 0 ? Arrays.copyOf(ranges, count) : NONE;
+    }
+
+    /**
+     * Returns false if the buffer starts with a byte order mark or the first
+     * character of the document of an UTF-16 or UTF-32 encoding.
+     */
+    static boolean isAsciiCompatible(ByteBuffer buffer) {
+        if (buffer.limit() < 2) {
+            return true;
+        }
+        byte b0 = buffer.get(0);
+        byte b1 = buffer.get(1);
+        return b0 != 0 && b1 != 0 && !(b0 == (byte) 0xFE && b1 == (byte) 0xFF)
+                && !(b0 == (byte) 0xFF && b1 == (byte) 0xFE);
+    }
+
+    /**
+     * Returns true if the name starts at the index and is followed by the end of
+     * the name, i.e. a whitespace, {@code >} or {@code /}.
+     */
+    private static boolean isTag(ByteBuffer buffer, int index, byte[] name) {
+        if (!startsWith(buffer, index, name) || index + name.length >= buffer.limit()) {
+            return false;
+        }
+        byte next = buffer.get(index + name.length);
+        return next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\n' || next == '\r';
+    }
+
+    /**
+     * Returns the index after the {@code >} that closes the tag, skipping quoted
+     * attribute values, or -1 if the tag is not closed.
+     */
+    private static int tagEnd(ByteBuffer buffer, int index) {
+        int limit = buffer.limit();
+        byte quote = 0;
+        for (int i = index; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index after the next occurrence of the terminator or -1 if the
+     * terminator does not occur.
+     */
+    private static int skip(ByteBuffer buffer, int index, byte[] terminator) {
+        int limit = buffer.limit() - terminator.length;
+        for (int i = index; i <= limit; i = indexOf(buffer, terminator[0], i + 1, buffer.limit())) {
+            if (i < 0) {
+                return -1;
+            }
+            if (startsWith(buffer, i, terminator)) {
+                return i + terminator.length;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte b, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int index, byte[] prefix) {
+        if (index + prefix.length > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(index + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] add(int[] ranges, int count, int start, int end) {
+        int[] result = count + 2 > ranges.length ? Arrays.copyOf(ranges, ranges.length * 2) : ranges;
+        result[count] = start;
+        result[count + 1] = end;
+        return result;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
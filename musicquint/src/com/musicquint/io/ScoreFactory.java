@@ -1,5 +1,6 @@
 package com.musicquint.io;
 
+import com.musicquint.api.Part;
 import com.musicquint.api.Score;
 import com.musicquint.io.XMLTag.TagType;
 
@@ -8,10 +9,51 @@ public interface ScoreFactory {
     @XMLTag(tagName = "score-partwise", tagType = TagType.END_TAG)
     Score build();
 
+    @XMLTag(tagName = "work-title", tagType = TagType.CHARACTER_TAG)
     void setTitle(String string);
 
+    @XMLTag(tagName = "part-name", tagType = TagType.CHARACTER_TAG, parent = "score-part")
+    void addPartName(String partName);
+
+    @XMLTag(tagName = "part", tagType = TagType.START_TAG)
     void createPart();
-    
+
+    @XMLTag(tagName = "part", tagType = TagType.END_TAG)
+    void finishPart();
+
     PartFactory getPartFactory();
 
+    /**
+     * Returns a new PartFactory that is independent of this ScoreFactory and of
+     * all other PartFactories returned by this method. The returned factory is
+     * used to build a single part, possibly in another thread, while this
+     * factory is used to build the other parts. The default implementation
+     * throws an UnsupportedOperationException, hence only factories that
+     * override this method and {@link #addPart(Part)} support parallel imports.
+     *
+     * @return a new PartFactory.
+     * @throws UnsupportedOperationException if the factory does not support
+     *                                       parallel imports.
+     * @see MusicXMLImporter#importScoreInParallel(java.nio.file.Path)
+     */
+    default PartFactory newPartFactory() {
+        throw new UnsupportedOperationException(
+                "The ScoreFactory " + getClass().getName() + " does not support parallel imports.");
+    }
+
+    /**
+     * Appends a part that has been built by a factory returned by
+     * {@link #newPartFactory()}. The parts are added in the order they are
+     * declared in the document. The default implementation throws an
+     * UnsupportedOperationException.
+     *
+     * @param part the part.
+     * @throws UnsupportedOperationException if the factory does not support
+     *                                       parallel imports.
+     */
+    default void addPart(Part part) {
+        throw new UnsupportedOperationException(
+                "The ScoreFactory " + getClass().getName() + " does not support parallel imports.");
+    }
+
 }
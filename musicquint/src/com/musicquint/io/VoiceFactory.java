@@ -1,7 +1,21 @@
 package com.musicquint.io;
 
+import com.musicquint.io.XMLTag.TagType;
+
 public interface VoiceFactory {
 
     ContentFactory getContentFactory();
 
+    @XMLTag(tagName = "note", tagType = TagType.START_TAG)
+    void createContent();
+
+    @XMLTag(tagName = "note", tagType = TagType.END_TAG)
+    void finishContent();
+
+    @XMLTag(tagName = "voice", tagType = TagType.CHARACTER_TAG, inputType = int.class, parent = "note")
+    void setVoice(int voice);
+
+    @XMLTag(tagName = "chord", tagType = TagType.START_TAG, parent = "note")
+    void setChord();
+
 }
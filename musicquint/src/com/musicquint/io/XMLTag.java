@@ -1,5 +1,30 @@
 package com.musicquint.io;
 
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a method of a factory to an XML event of a MusicXML document. Whenever
+ * the importer encounters an element with the given {@link #tagName()} the
+ * annotated method is invoked depending on the {@link #tagType()}:
+ * <ul>
+ * <li>{@link TagType#START_TAG}: the method has no parameters and is invoked
+ * when the element starts.</li>
+ * <li>{@link TagType#CHARACTER_TAG}: the method has exactly one parameter of the
+ * type {@link #inputType()} and is invoked with the text content of the
+ * element, when the element ends.</li>
+ * <li>{@link TagType#END_TAG}: the method has no parameters and is invoked when
+ * the element ends.</li>
+ * </ul>
+ * If {@link #parent()} is not empty the method is only invoked if the element
+ * is a direct child of an element with this name.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
 public @interface XMLTag {
 
     String tagName();
@@ -8,6 +33,8 @@ public @interface XMLTag {
 
     TagType tagType();
 
+    String parent() default "";
+
     public enum TagType {
         START_TAG, CHARACTER_TAG, END_TAG;
     }
@@ -0,0 +1,837 @@
+package com.musicquint.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Skeletal implementation of a NavigableMap whose entries are stored in
+ * ascending order and can be accessed by their index. An implementor only has
+ * to provide a binary search for keys and the random access to keys and values
+ * through {@link #search(Object)}, {@link #keyAt(int)}, {@link #valueAt(int)}
+ * and {@link #size()}. All navigation methods and all views like
+ * {@link #subMap(Object, boolean, Object, boolean)} or {@link #descendingMap()}
+ * are derived from these methods. Views are backed by the map and compute their
+ * index range with a binary search on every call, therefore all navigation
+ * methods run in the time of one or two searches.
+ * </p>
+ * To implement a modifiable map the implementor must additionally override
+ * {@link #put(Object, Object)} and {@link #removeAt(int)}. The entries returned
+ * by this class are immutable snapshots.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public abstract class AbstractIndexedNavigableMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+
+    private final SubMap ascending = new SubMap(null, true, true, null, true, true, false);
+
+    protected AbstractIndexedNavigableMap() {
+    }
+
+    /**
+     * Searches the given key with a binary search. The contract is the same as for
+     * {@link java.util.Arrays#binarySearch(Object[], Object)}.
+     *
+     * @param key the key to be searched for.
+     * @return the index of the key, if it is contained in the map; otherwise,
+     *         {@code (-(insertion point) - 1)}.
+     * @throws NullPointerException if the key is null.
+     */
+    protected abstract int search(K key);
+
+    /**
+     * Returns the key at the given index.
+     *
+     * @param index the index of the entry.
+     * @return the key at the index.
+     */
+    protected abstract K keyAt(int index);
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @param index the index of the entry.
+     * @return the value at the index.
+     */
+    protected abstract V valueAt(int index);
+
+    /**
+     * Removes the entry at the given index. The default implementation throws an
+     * UnsupportedOperationException.
+     *
+     * @param index the index of the entry.
+     * @return the value of the removed entry.
+     * @throws UnsupportedOperationException if the map does not support removal.
+     */
+    protected V removeAt(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns an immutable entry of the key and value at the given index.
+     *
+     * @param index the index of the entry.
+     * @return the entry at the index.
+     */
+    protected Entry<K, V> entryAt(int index) {
+        return new SimpleImmutableEntry<>(keyAt(index), valueAt(index));
+    }
+
+    /**
+     * Compares both keys with the comparator of the map or with their natural
+     * ordering if the comparator is null.
+     */
+    @SuppressWarnings("unchecked")
+    protected int compare(K k1, K k2) {
+        Comparator<? super K> comparator = comparator();
+        return comparator != null ? comparator.compare(k1, k2) : ((Comparable<? super K>) k1).compareTo(k2);
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public abstract int size();
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? removeAt(index) : null;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = size() - 1; i >= 0; i--) {
+            removeAt(i);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return ascending.entrySet();
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return ascending.lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return ascending.lowerKey(key);
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return ascending.floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return ascending.floorKey(key);
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return ascending.ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return ascending.ceilingKey(key);
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return ascending.higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return ascending.higherKey(key);
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return ascending.firstEntry();
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return ascending.lastEntry();
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return ascending.pollFirstEntry();
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return ascending.pollLastEntry();
+    }
+
+    @Override
+    public K firstKey() {
+        return ascending.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return ascending.lastKey();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return ascending.descendingMap();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return new KeySet<>(descendingMap());
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return ascending.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return ascending.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return ascending.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object key) {
+        return search((K) Objects.requireNonNull(key));
+    }
+
+    private int ceilingIndex(K key) {
+        int index = search(key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int higherIndex(K key) {
+        int index = search(key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private int floorIndex(K key) {
+        int index = search(key);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int lowerIndex(K key) {
+        int index = search(key);
+        return index >= 0 ? index - 1 : -index - 2;
+    }
+
+    private static <K> K key(Entry<K, ?> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    /**
+     * A view of the map that is bounded by an ascending index range and can be
+     * iterated in ascending or descending order. The range is computed from the
+     * bounds whenever it is needed, so the view always reflects the current state
+     * of the map.
+     */
+    private final class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+
+        private final K lo;
+
+        private final boolean fromStart;
+
+        private final boolean loInclusive;
+
+        private final K hi;
+
+        private final boolean toEnd;
+
+        private final boolean hiInclusive;
+
+        private final boolean descending;
+
+        private SubMap(K lo, boolean fromStart, boolean loInclusive, K hi, boolean toEnd, boolean hiInclusive,
+                boolean descending) {
+            if (!fromStart && !toEnd && compare(lo, hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.lo = lo;
+            this.fromStart = fromStart;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.toEnd = toEnd;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private int low() {
+            if (fromStart) {
+                return 0;
+            }
+            return loInclusive ? ceilingIndex(lo) : higherIndex(lo);
+        }
+
+        private int high() {
+            if (toEnd) {
+                return AbstractIndexedNavigableMap.this.size();
+            }
+            return Math.max(low(), hiInclusive ? higherIndex(hi) : ceilingIndex(hi));
+        }
+
+        private boolean tooLow(K key) {
+            if (fromStart) {
+                return false;
+            }
+            int c = compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (toEnd) {
+                return false;
+            }
+            int c = compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean inRange(K key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        private boolean inClosedRange(K key) {
+            return (fromStart || compare(key, lo) >= 0) && (toEnd || compare(key, hi) <= 0);
+        }
+
+        private boolean inRange(K key, boolean inclusive) {
+            return inclusive ? inRange(key) : inClosedRange(key);
+        }
+
+        /**
+         * Returns the index of the highest key strictly less (or less or equal if
+         * {@code inclusive}) than the given key in ascending order or -1.
+         */
+        private int below(K key, boolean inclusive) {
+            int index = Math.min(inclusive ? floorIndex(key) : lowerIndex(key), high() - 1);
+            return index >= low() ? index : -1;
+        }
+
+        /**
+         * Returns the index of the lowest key strictly greater (or greater or equal
+         * if {@code inclusive}) than the given key in ascending order or -1.
+         */
+        private int above(K key, boolean inclusive) {
+            int index = Math.max(inclusive ? ceilingIndex(key) : higherIndex(key), low());
+            return index < high() ? index : -1;
+        }
+
+        private int first() {
+            int low = low();
+            int high = high();
+            if (low >= high) {
+                return -1;
+            }
+            return descending ? high - 1 : low;
+        }
+
+        private int last() {
+            int low = low();
+            int high = high();
+            if (low >= high) {
+                return -1;
+            }
+            return descending ? low : high - 1;
+        }
+
+        private Entry<K, V> entryOrNull(int index) {
+            return index >= 0 ? entryAt(index) : null;
+        }
+
+        @Override
+        public int size() {
+            return high() - low();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean containsKey(Object key) {
+            return inRange((K) Objects.requireNonNull(key)) && AbstractIndexedNavigableMap.this.containsKey(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return inRange((K) Objects.requireNonNull(key)) ? AbstractIndexedNavigableMap.this.get(key) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!inRange(Objects.requireNonNull(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return AbstractIndexedNavigableMap.this.put(key, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            return inRange((K) Objects.requireNonNull(key)) ? AbstractIndexedNavigableMap.this.remove(key) : null;
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            Comparator<? super K> comparator = AbstractIndexedNavigableMap.this.comparator();
+            if (!descending) {
+                return comparator;
+            }
+            return comparator != null ? Collections.reverseOrder(comparator) : Collections.reverseOrder();
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return entryOrNull(descending ? above(key, false) : below(key, false));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return key(lowerEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return entryOrNull(descending ? above(key, true) : below(key, true));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return key(floorEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return entryOrNull(descending ? below(key, true) : above(key, true));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return key(ceilingEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return entryOrNull(descending ? below(key, false) : above(key, false));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return key(higherEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return entryOrNull(first());
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return entryOrNull(last());
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            int index = first();
+            if (index < 0) {
+                return null;
+            }
+            Entry<K, V> entry = entryAt(index);
+            removeAt(index);
+            return entry;
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            int index = last();
+            if (index < 0) {
+                return null;
+            }
+            Entry<K, V> entry = entryAt(index);
+            removeAt(index);
+            return entry;
+        }
+
+        @Override
+        public K firstKey() {
+            int index = first();
+            if (index < 0) {
+                throw new NoSuchElementException();
+            }
+            return keyAt(index);
+        }
+
+        @Override
+        public K lastKey() {
+            int index = last();
+            if (index < 0) {
+                throw new NoSuchElementException();
+            }
+            return keyAt(index);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator(low(), high(), descending);
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap(lo, fromStart, loInclusive, hi, toEnd, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return new KeySet<>(descendingMap());
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (descending) {
+                return bounded(toKey, toInclusive, false, fromKey, fromInclusive, false);
+            }
+            return bounded(fromKey, fromInclusive, false, toKey, toInclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            if (descending) {
+                return bounded(toKey, inclusive, false, null, false, true);
+            }
+            return bounded(null, false, true, toKey, inclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            if (descending) {
+                return bounded(null, false, true, fromKey, inclusive, false);
+            }
+            return bounded(fromKey, inclusive, false, null, false, true);
+        }
+
+        /**
+         * Creates a view with the given bounds in ascending order. Unbounded sides
+         * inherit the bounds of this view.
+         */
+        private NavigableMap<K, V> bounded(K newLo, boolean newLoInclusive, boolean unboundedLo, K newHi,
+                boolean newHiInclusive, boolean unboundedHi) {
+            if (!unboundedLo && !inRange(Objects.requireNonNull(newLo), newLoInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+            if (!unboundedHi && !inRange(Objects.requireNonNull(newHi), newHiInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            if (unboundedLo) {
+                newLo = lo;
+                newLoInclusive = loInclusive;
+            }
+            if (unboundedHi) {
+                newHi = hi;
+                newHiInclusive = hiInclusive;
+            }
+            return new SubMap(newLo, unboundedLo && fromStart, newLoInclusive, newHi, unboundedHi && toEnd,
+                    newHiInclusive, descending);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+
+    /**
+     * Iterator over the entries in the index range {@code [low, high)}.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final boolean descending;
+
+        private int next;
+
+        private int end;
+
+        private int lastReturned = -1;
+
+        private int expectedSize;
+
+        private EntryIterator(int low, int high, boolean descending) {
+            this.descending = descending;
+            this.next = descending ? high - 1 : low;
+            this.end = descending ? low - 1 : high;
+            this.expectedSize = size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != end;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (expectedSize != size()) {
+                throw new ConcurrentModificationException();
+            }
+            lastReturned = next;
+            next += descending ? -1 : 1;
+            return entryAt(lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(lastReturned);
+            if (!descending) {
+                next--;
+                end--;
+            }
+            lastReturned = -1;
+            expectedSize = size();
+        }
+    }
+
+    /**
+     * NavigableSet of the keys of a NavigableMap, which is backed by the map.
+     */
+    private static final class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+
+        private final NavigableMap<K, ?> map;
+
+        private KeySet(NavigableMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Entry<K, ?>> iterator = map.entrySet().iterator();
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return iterator.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (map.containsKey(o)) {
+                map.remove(o);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K lower(K e) {
+            return map.lowerKey(e);
+        }
+
+        @Override
+        public K floor(K e) {
+            return map.floorKey(e);
+        }
+
+        @Override
+        public K ceiling(K e) {
+            return map.ceilingKey(e);
+        }
+
+        @Override
+        public K higher(K e) {
+            return map.higherKey(e);
+        }
+
+        @Override
+        public K pollFirst() {
+            return key(map.pollFirstEntry());
+        }
+
+        @Override
+        public K pollLast() {
+            return key(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet<>(map.descendingMap());
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return new KeySet<>(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return new KeySet<>(map.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return new KeySet<>(map.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
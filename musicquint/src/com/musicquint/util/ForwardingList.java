@@ -1,7 +1,12 @@
 package com.musicquint.util;
 
 import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public class ForwardingList<E> extends AbstractList<E> implements List<E> {
@@ -36,4 +41,44 @@ public class ForwardingList<E> extends AbstractList<E> implements List<E> {
     public int size() {
         return forwardedList.size();
     }
+
+    @Override
+    public Iterator<E> iterator() {
+        return forwardedList.iterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        return forwardedList.listIterator(index);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return forwardedList.spliterator();
+    }
+
+    @Override
+    public void clear() {
+        forwardedList.clear();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        return forwardedList.removeIf(filter);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return forwardedList.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return forwardedList.retainAll(c);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        forwardedList.subList(fromIndex, toIndex).clear();
+    }
 }
@@ -1,3 +1,9 @@
 module musicquint {
+    requires transitive java.xml;
+
+    exports com.musicquint.analysis;
     exports com.musicquint.api;
+    exports com.musicquint.impl;
+    exports com.musicquint.io;
+    exports com.musicquint.util;
 }
\ No newline at end of file
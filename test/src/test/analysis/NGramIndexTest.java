@@ -0,0 +1,110 @@
+package test.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.musicquint.analysis.NGramIndex;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.impl.ColumnarScore;
+
+class NGramIndexTest {
+
+    private static final BarTime EIGHTH = BarTime.EIGHTH;
+
+    private static final BarTime QUARTER = BarTime.QUARTER;
+
+    @TempDir
+    Path directory;
+
+    private NGramIndex index;
+
+    @BeforeEach
+    void createIndex() throws IOException {
+        NGramIndex.Builder builder = new NGramIndex.Builder(3);
+        // c' d' e' c' | e' f' g'
+        assertEquals(0, builder.add(new ColumnarScore.Builder()
+                .part("Melody")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, QUARTER, Pitch.parse("c'"))
+                .note(BarTime.of(1), QUARTER, Pitch.parse("d'"))
+                .note(BarTime.of(2), QUARTER, Pitch.parse("e'"))
+                .note(BarTime.of(3), QUARTER, Pitch.parse("c'"))
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, QUARTER, Pitch.parse("e'"))
+                .note(BarTime.of(1), QUARTER, Pitch.parse("f'"))
+                .rest(BarTime.of(2), QUARTER)
+                .note(BarTime.of(3), QUARTER, Pitch.parse("g'"))
+                .build()));
+        // a rest, then g' a' b' in eighths, and a chord whose top note continues
+        assertEquals(1, builder.add(new ColumnarScore.Builder()
+                .part("Flute")
+                .bar(BarTime.of(2))
+                .voice()
+                .rest(BarTime.ZERO, EIGHTH)
+                .note(BarTime.of(1, 2), EIGHTH, Pitch.parse("g'"))
+                .note(BarTime.of(1), EIGHTH, Pitch.parse("a'"))
+                .note(BarTime.of(3, 2), EIGHTH, Pitch.parse("b'"))
+                .note(BarTime.of(3, 2), EIGHTH, Pitch.parse("d'"))
+                .build()));
+        Path path = directory.resolve("corpus.mqng");
+        builder.write(path);
+        index = NGramIndex.open(path);
+    }
+
+    private List<String> find(String pitches, BarTime... durations) {
+        return index.find(List.of(pitches.split(" ")).stream().map(Pitch::parse).collect(Collectors.toList()),
+                List.of(durations))
+                .stream()
+                .map(hit -> hit.getScore() + "/" + hit.getPartIndex() + "/" + hit.getBarIndex() + " "
+                        + hit.getOnset())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testFindTransposedAndScaled() {
+        assertEquals(3, index.getN());
+        assertEquals(List.of("0/0/0 0/1", "1/0/0 1/2"), find("f' g' a'", QUARTER, QUARTER, QUARTER));
+        assertEquals(List.of("0/0/0 0/1", "1/0/0 1/2"), find("c'' d'' e''", EIGHTH, EIGHTH, EIGHTH));
+        assertEquals(List.of(), find("c' d' e'", QUARTER, QUARTER, BarTime.HALF));
+    }
+
+    @Test
+    void testFindAcrossBarsAndRests() {
+        assertEquals(List.of("0/0/0 2/1"), find("e' c' e' f'", QUARTER, QUARTER, QUARTER, QUARTER));
+        assertEquals(List.of("0/0/1 0/1"), find("e' f' g'", QUARTER, QUARTER, QUARTER));
+        assertEquals(List.of(), find("c' d' e' c' e' f' a'", QUARTER, QUARTER, QUARTER, QUARTER, QUARTER,
+                QUARTER, QUARTER));
+    }
+
+    @Test
+    void testInvalidQueries() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> find("c' d'", QUARTER, QUARTER));
+        assertThrows(IllegalArgumentException.class, () -> find("c' d' e'", QUARTER, QUARTER));
+        assertThrows(IllegalArgumentException.class, () -> new NGramIndex.Builder(1));
+        Path path = Files.write(directory.resolve("other"), new byte[32]);
+        assertThrows(IOException.class, () -> NGramIndex.open(path));
+    }
+
+    @Test
+    void testCorruptDictionaryPosition() throws IOException {
+        byte[] bytes = Files.readAllBytes(directory.resolve("corpus.mqng"));
+        ByteBuffer.wrap(bytes).putLong(12, 3L << 31);
+        Path path = Files.write(directory.resolve("corrupt.mqng"), bytes);
+
+        assertThrows(IOException.class, () -> NGramIndex.open(path));
+    }
+}
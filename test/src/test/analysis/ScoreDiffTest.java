@@ -0,0 +1,129 @@
+package test.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.analysis.ScoreDiff;
+import com.musicquint.analysis.ScoreDiff.Edit;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Score;
+import com.musicquint.impl.ColumnarScore;
+
+class ScoreDiffTest {
+
+    private static final String[] PITCHES = { "c'", "d'", "e'", "f'", "g'" };
+
+    /**
+     * Creates a score with a single part whose bars contain one whole note each.
+     */
+    private static Score melody(String name, int... notes) {
+        ColumnarScore.Builder builder = new ColumnarScore.Builder().part(name);
+        for (int note : notes) {
+            builder.bar(BarTime.FOUR_QUARTER).voice().note(BarTime.ZERO, BarTime.FOUR_QUARTER,
+                    Pitch.parse(PITCHES[note]));
+        }
+        return builder.build();
+    }
+
+    private static List<String> diff(Score oldScore, Score newScore) {
+        return ScoreDiff.diff(oldScore, newScore).stream().map(Edit::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void testEqualScores() {
+        assertEquals(List.of(), diff(melody("Flute", 0, 1, 2), melody("Flute", 0, 1, 2)));
+    }
+
+    @Test
+    void testBarEdits() {
+        assertEquals(List.of("BAR_INSERTED Flute bar -->1"), diff(melody("Flute", 0, 2), melody("Flute", 0, 1, 2)));
+        assertEquals(List.of("BAR_DELETED Flute bar 1->-"), diff(melody("Flute", 0, 1, 2), melody("Flute", 0, 2)));
+        assertEquals(List.of("ENTRY_CHANGED Flute bar 1->1 voice 0 at 0/1"),
+                diff(melody("Flute", 0, 1, 2), melody("Flute", 0, 3, 2)));
+    }
+
+    @Test
+    void testVoiceEdits() {
+        Score oldScore = new ColumnarScore.Builder()
+                .part("Piano")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("c'"))
+                .note(BarTime.HALF, BarTime.HALF, Pitch.parse("e'"))
+                .build();
+        Score newScore = new ColumnarScore.Builder()
+                .part("Piano")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("c'"))
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("g'"))
+                .rest(BarTime.THREE_QUARTER, BarTime.QUARTER)
+                .voice()
+                .rest(BarTime.ZERO, BarTime.WHOLE)
+                .build();
+
+        assertEquals(List.of("ENTRY_CHANGED Piano bar 0->0 voice 0 at 0/1",
+                "ENTRY_REMOVED Piano bar 0->0 voice 0 at 2/1",
+                "ENTRY_ADDED Piano bar 0->0 voice 0 at 3/1",
+                "VOICE_ADDED Piano bar 0->0 voice 1"), diff(oldScore, newScore));
+    }
+
+    @Test
+    void testPartsAreAlignedByName() {
+        ColumnarScore oldScore = new ColumnarScore.Builder().part("Violin").bar(BarTime.WHOLE).part("Viola")
+                .bar(BarTime.WHOLE).build();
+        ColumnarScore newScore = new ColumnarScore.Builder().part("Cello").bar(BarTime.WHOLE).part("Violin")
+                .bar(BarTime.WHOLE).build();
+
+        assertEquals(List.of("PART_REMOVED Viola", "PART_ADDED Cello"), diff(oldScore, newScore));
+    }
+
+    /**
+     * The bars of the old score that are neither deleted nor changed must form a
+     * longest common subsequence of both scores.
+     */
+    @Test
+    void testAlignmentIsLongestCommonSubsequence() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int[] a = random.ints(random.nextInt(30), 0, 3).toArray();
+            int[] b = random.ints(random.nextInt(30), 0, 3).toArray();
+            Set<Integer> unmatched = new HashSet<>();
+            for (Edit edit : ScoreDiff.diff(melody("Oboe", a), melody("Oboe", b))) {
+                if (edit.getOldBar() >= 0) {
+                    unmatched.add(edit.getOldBar());
+                }
+            }
+            assertEquals(lcs(a, b), a.length - unmatched.size());
+        }
+    }
+
+    @Test
+    void testFewEditsOnLargeScore() {
+        int[] a = new Random(7).ints(1000, 0, 5).toArray();
+        int[] b = a.clone();
+        b[500] = (b[500] + 1) % 5;
+
+        assertEquals(List.of("ENTRY_CHANGED Oboe bar 500->500 voice 0 at 0/1"),
+                diff(melody("Oboe", a), melody("Oboe", b)));
+    }
+
+    private static int lcs(int[] a, int[] b) {
+        int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                table[i][j] = a[i - 1] == b[j - 1] ? table[i - 1][j - 1] + 1
+                        : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+}
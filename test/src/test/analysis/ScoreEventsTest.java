@@ -0,0 +1,79 @@
+package test.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.analysis.ScoreEvent;
+import com.musicquint.analysis.ScoreEvents;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.impl.ArrayVoice;
+import com.musicquint.impl.ConcurrentBar;
+import com.musicquint.impl.ConcurrentPart;
+import com.musicquint.impl.ConcurrentScore;
+
+class ScoreEventsTest {
+
+    private final PrincipalItem half = () -> BarTime.HALF;
+
+    private final PrincipalItem quarter = () -> BarTime.QUARTER;
+
+    private final PrincipalItem whole = () -> BarTime.WHOLE;
+
+    @Test
+    void testMergedOrder() {
+        ConcurrentScore score = new ConcurrentScore();
+        ConcurrentPart upper = new ConcurrentPart();
+        upper.add(bar(voice(BarTime.FOUR_QUARTER, half, half)));
+        upper.add(bar(voice(BarTime.FOUR_QUARTER, whole), voice(BarTime.FOUR_QUARTER, quarter, quarter)));
+        ConcurrentPart lower = new ConcurrentPart();
+        lower.add(bar(voice(BarTime.THREE_QUARTER, quarter, quarter, quarter)));
+        lower.add(bar(voice(BarTime.FOUR_QUARTER, whole)));
+        score.add(upper);
+        score.add(lower);
+
+        List<ScoreEvent> events = ScoreEvents.stream(score).collect(Collectors.toList());
+
+        assertEquals(List.of(
+                new ScoreEvent(0, 0, 0, BarTime.ZERO, half),
+                new ScoreEvent(1, 0, 0, BarTime.ZERO, quarter),
+                new ScoreEvent(1, 0, 0, BarTime.of(1), quarter),
+                new ScoreEvent(0, 0, 0, BarTime.of(2), half),
+                new ScoreEvent(1, 0, 0, BarTime.of(2), quarter),
+                new ScoreEvent(1, 1, 0, BarTime.of(3), whole),
+                new ScoreEvent(0, 1, 0, BarTime.of(4), whole),
+                new ScoreEvent(0, 1, 1, BarTime.of(4), quarter),
+                new ScoreEvent(0, 1, 1, BarTime.of(5), quarter)), events);
+    }
+
+    @Test
+    void testEmptyScore() {
+        ConcurrentScore score = new ConcurrentScore();
+        score.add(new ConcurrentPart());
+
+        assertFalse(ScoreEvents.iterator(score).hasNext());
+        assertThrows(NullPointerException.class, () -> ScoreEvents.stream(null));
+    }
+
+    private static ConcurrentBar bar(ArrayVoice... voices) {
+        ConcurrentBar bar = new ConcurrentBar();
+        bar.addAll(List.of(voices));
+        return bar;
+    }
+
+    private static ArrayVoice voice(BarTime capacity, PrincipalItem... items) {
+        ArrayVoice voice = new ArrayVoice(capacity);
+        BarTime time = BarTime.ZERO;
+        for (PrincipalItem item : items) {
+            voice.put(time, item);
+            time = BarTime.add(time, item.getDuration());
+        }
+        return voice;
+    }
+}
@@ -0,0 +1,75 @@
+package test.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.analysis.ScoreEvent;
+import com.musicquint.analysis.VerticalIndex;
+import com.musicquint.analysis.Verticality;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.impl.ColumnarScore;
+
+class VerticalIndexTest {
+
+    private final VerticalIndex index = VerticalIndex.of(new ColumnarScore.Builder()
+            .part("Soprano")
+            .bar(BarTime.FOUR_QUARTER)
+            .voice()
+            .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("e''"))
+            .note(BarTime.HALF, BarTime.QUARTER, Pitch.parse("d''"))
+            .rest(BarTime.THREE_QUARTER, BarTime.QUARTER)
+            .bar(BarTime.FOUR_QUARTER)
+            .voice()
+            .note(BarTime.ZERO, BarTime.WHOLE, Pitch.parse("c''"))
+            .part("Bass")
+            .bar(BarTime.FOUR_QUARTER)
+            .voice()
+            .note(BarTime.ZERO, BarTime.THREE_QUARTER, Pitch.parse("c"))
+            .note(BarTime.ZERO, BarTime.THREE_QUARTER, Pitch.parse("g"))
+            .bar(BarTime.FOUR_QUARTER)
+            .voice()
+            .note(BarTime.QUARTER, BarTime.THREE_QUARTER, Pitch.parse("c"))
+            .build());
+
+    private Set<Pitch> soundingAt(BarTime time) {
+        return index.soundingAt(time)
+                .stream()
+                .map(ScoreEvent::getItem)
+                .filter(Pitched.class::isInstance)
+                .map(item -> ((Pitched) item).getPitch())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    void testSoundingAt() {
+        assertEquals(7, index.size());
+        assertEquals(Set.of(Pitch.parse("e''"), Pitch.parse("c"), Pitch.parse("g")), soundingAt(BarTime.ZERO));
+        assertEquals(Set.of(Pitch.parse("d''"), Pitch.parse("c"), Pitch.parse("g")), soundingAt(BarTime.of(5, 2)));
+        assertEquals(Set.of(), soundingAt(BarTime.THREE_QUARTER));
+        assertEquals(1, index.soundingAt(BarTime.THREE_QUARTER).size());
+        assertEquals(Set.of(Pitch.parse("c''")), soundingAt(BarTime.of(4)));
+        assertEquals(Set.of(Pitch.parse("c''"), Pitch.parse("c")), soundingAt(BarTime.of(5)));
+        assertTrue(index.soundingAt(BarTime.of(8)).isEmpty());
+    }
+
+    @Test
+    void testVerticalities() {
+        List<Verticality> slices = index.verticalities().collect(Collectors.toList());
+
+        assertEquals(List.of(BarTime.ZERO, BarTime.HALF, BarTime.THREE_QUARTER, BarTime.of(4), BarTime.of(5)),
+                slices.stream().map(Verticality::getStart).collect(Collectors.toList()));
+        assertEquals(List.of(BarTime.HALF, BarTime.THREE_QUARTER, BarTime.of(4), BarTime.of(5), BarTime.of(8)),
+                slices.stream().map(Verticality::getEnd).collect(Collectors.toList()));
+        assertEquals(List.of(Pitch.parse("e''"), Pitch.parse("c"), Pitch.parse("g")), slices.get(0).getPitches());
+        assertEquals(List.of(), slices.get(2).getPitches());
+        assertEquals(List.of(Pitch.parse("c''"), Pitch.parse("c")), slices.get(4).getPitches());
+    }
+}
@@ -4,6 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.jupiter.api.Test;
 
 import com.musicquint.api.BarTime;
@@ -40,6 +46,11 @@ class BarTimeTest {
         assertEquals(252, BarTime.leastCommonMultiple(21, 36));
     }
 
+    @Test
+    void leastCommonMultipleOverflow() {
+        assertThrows(ArithmeticException.class, () -> BarTime.leastCommonMultiple(46341, 46349));
+    }
+
     @Test
     void testStaticFactoryShortenedForm() {
         BarTime t = BarTime.of(18, 45);
@@ -68,6 +79,45 @@ class BarTimeTest {
         assertTrue(t1 == t2);
     }
 
+    @Test
+    void singeltonStaticFactoryPropertyConcurrent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<BarTime[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    BarTime[] times = new BarTime[1000];
+                    for (int j = 0; j < times.length; j++) {
+                        times[j] = BarTime.of(j + 1, 1009);
+                    }
+                    return times;
+                }));
+            }
+            BarTime[] first = futures.get(0).get();
+            for (Future<BarTime[]> future : futures) {
+                BarTime[] times = future.get();
+                for (int j = 0; j < times.length; j++) {
+                    assertTrue(first[j] == times[j]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testPoolStatistics() {
+        BarTime.PoolStatistics before = BarTime.poolStatistics();
+        BarTime t1 = BarTime.of(1, 1000003);
+        BarTime t2 = BarTime.of(2, 2000006);
+        BarTime.PoolStatistics after = BarTime.poolStatistics();
+
+        assertTrue(t1 == t2);
+        assertTrue(after.getMissCount() >= before.getMissCount() + 1);
+        assertTrue(after.getHitCount() >= before.getHitCount() + 1);
+        assertTrue(after.getSize() >= 1);
+    }
+
     @Test
     void testStaticFactoryException() {
         IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BarTime.of(1, 0));
@@ -271,6 +321,48 @@ class BarTimeTest {
         assertEquals("Cannot divide by zero.", e.getMessage());
     }
 
+    @Test
+    void testAddIntermediateOverflow() {
+        BarTime t1 = BarTime.of(1500000001, 2);
+        BarTime t2 = BarTime.of(-1500000001, 3);
+
+        assertEquals(BarTime.of(1500000001, 6), t1.add(t2));
+        assertEquals(BarTime.of(1500000001, 6), t1.subtract(BarTime.of(1500000001, 3)));
+    }
+
+    @Test
+    void testMultiplyIntermediateOverflow() {
+        BarTime t1 = BarTime.of(65537, 2);
+        BarTime t2 = BarTime.of(65536, 65537);
+
+        assertEquals(BarTime.of(32768), t1.multiply(t2));
+    }
+
+    @Test
+    void testDivideIntermediateOverflow() {
+        BarTime t1 = BarTime.of(65537, 2);
+        BarTime t2 = BarTime.of(65537, 65536);
+
+        assertEquals(BarTime.of(32768), t1.divide(t2));
+    }
+
+    @Test
+    void testArithmeticExceptionIfNotRepresentable() {
+        BarTime t1 = BarTime.of(1, 46341);
+        BarTime t2 = BarTime.of(1, 46349);
+
+        ArithmeticException e = assertThrows(ArithmeticException.class, () -> t1.add(t2));
+        assertEquals("The fraction 92690/2147859009 cannot be represented as BarTime.", e.getMessage());
+    }
+
+    @Test
+    void testStaticFactoryMinValue() {
+        BarTime t = BarTime.of(Integer.MIN_VALUE, -4);
+
+        assertEquals(536870912, t.getNumerator());
+        assertEquals(1, t.getDenominator());
+    }
+
     @Test
     void testMax() {
         BarTime t1 = BarTime.of(7, 15);
@@ -310,4 +402,23 @@ class BarTimeTest {
         assertEquals(1, t1.compareTo(t3));
         assertEquals(-1, t2.compareTo(t1));
     }
+
+    @Test
+    void testStaticCompare() {
+        assertEquals(0, BarTime.compare(BarTime.of(1, 5), BarTime.of(2, 10)));
+        assertEquals(1, BarTime.compare(BarTime.of(7, 15), BarTime.of(1, 5)));
+        assertEquals(-1, BarTime.compare(BarTime.of(-1, 3), BarTime.ZERO));
+        assertEquals(1, BarTime.compare(BarTime.of(Integer.MAX_VALUE, 1), BarTime.of(Integer.MAX_VALUE - 1, 1)));
+        assertThrows(NullPointerException.class, () -> BarTime.compare(null, BarTime.ZERO));
+    }
+
+    @Test
+    void testBarTimeComparisons() {
+        assertTrue(BarTime.HALF.isGreater(BarTime.QUARTER));
+        assertTrue(BarTime.HALF.isGreaterOrEqual(BarTime.of(4, 2)));
+        assertTrue(BarTime.EIGHTH.isLess(BarTime.QUARTER));
+        assertTrue(BarTime.EIGHTH.isLessOrEqual(BarTime.EIGHTH));
+        NullPointerException e = assertThrows(NullPointerException.class, () -> BarTime.HALF.isLess(null));
+        assertEquals("The other BarTime is null.", e.getMessage());
+    }
 }
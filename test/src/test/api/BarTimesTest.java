@@ -0,0 +1,108 @@
+package test.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+
+class BarTimesTest {
+
+    @Test
+    void testGcd() {
+        assertEquals(6, BarTimes.gcd(24, 594));
+        assertEquals(1, BarTimes.gcd(31, 101));
+        assertEquals(31, BarTimes.gcd(31, 0));
+        assertEquals(31, BarTimes.gcd(0, -31));
+        assertEquals(12, BarTimes.gcd(-36, 48));
+    }
+
+    @Test
+    void testOfShortenedForm() {
+        long t = BarTimes.of(18, 45);
+        assertEquals(2, BarTimes.numerator(t));
+        assertEquals(5, BarTimes.denominator(t));
+    }
+
+    @Test
+    void testOfNegativeDenominator() {
+        long t = BarTimes.of(1, -4);
+        assertEquals(-1, BarTimes.numerator(t));
+        assertEquals(4, BarTimes.denominator(t));
+        assertEquals(BarTimes.of(-1, 4), t);
+    }
+
+    @Test
+    void testOfZero() {
+        assertEquals(BarTimes.ZERO, BarTimes.of(0, 10));
+    }
+
+    @Test
+    void testOfException() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BarTimes.of(1, 0));
+        assertEquals("A BarTime cannot have denominator zero.", e.getMessage());
+    }
+
+    @Test
+    void testPackAndToBarTime() {
+        BarTime t = BarTime.of(7, 12);
+        assertTrue(t == BarTimes.toBarTime(BarTimes.pack(t)));
+        assertTrue(BarTime.ZERO == BarTimes.toBarTime(BarTimes.ZERO));
+    }
+
+    @Test
+    void testAdd() {
+        assertEquals(BarTimes.of(3, 1), BarTimes.add(BarTimes.of(60, 25), BarTimes.of(3, 5)));
+        assertEquals(BarTimes.of(1, 12), BarTimes.add(BarTimes.of(1, 3), BarTimes.of(-1, 4)));
+    }
+
+    @Test
+    void testSubtract() {
+        assertEquals(BarTimes.of(4, 15), BarTimes.subtract(BarTimes.of(7, 15), BarTimes.of(1, 5)));
+        assertEquals(BarTimes.of(7, 12), BarTimes.subtract(BarTimes.of(1, 3), BarTimes.of(-1, 4)));
+    }
+
+    @Test
+    void testMultiply() {
+        assertEquals(BarTimes.of(20, 21), BarTimes.multiply(BarTimes.of(2, 3), BarTimes.of(10, 7)));
+    }
+
+    @Test
+    void testDivide() {
+        assertEquals(BarTimes.of(-4, 3), BarTimes.divide(BarTimes.of(1, 3), BarTimes.of(-1, 4)));
+    }
+
+    @Test
+    void testDivideArithmeticException() {
+        ArithmeticException e = assertThrows(ArithmeticException.class,
+                () -> BarTimes.divide(BarTimes.QUARTER, BarTimes.ZERO));
+        assertEquals("Cannot divide by zero.", e.getMessage());
+    }
+
+    @Test
+    void testAddLargeDenominators() {
+        long t1 = BarTimes.of(1, 46341);
+        long t2 = BarTimes.of(1, 46349);
+        assertThrows(ArithmeticException.class, () -> BarTimes.add(t1, t2));
+        assertEquals(BarTimes.of(2, 46341), BarTimes.add(t1, t1));
+    }
+
+    @Test
+    void testCompare() {
+        assertEquals(0, BarTimes.compare(BarTimes.of(1, 5), BarTimes.of(2, 10)));
+        assertEquals(1, BarTimes.compare(BarTimes.of(7, 15), BarTimes.of(1, 5)));
+        assertEquals(-1, BarTimes.compare(BarTimes.of(-1, 5), BarTimes.ZERO));
+        assertEquals(1, BarTimes.compare(BarTimes.of(2000000000, 1), BarTimes.of(1, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testMinMax() {
+        long t1 = BarTimes.of(7, 15);
+        long t2 = BarTimes.of(1, 5);
+        assertEquals(t1, BarTimes.max(t1, t2));
+        assertEquals(t2, BarTimes.min(t1, t2));
+    }
+}
@@ -3,6 +3,7 @@ package test.api;
 import static com.musicquint.api.Measurable.timeComparator;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -163,4 +164,9 @@ class MeasurableTest {
         NullPointerException e = assertThrows(NullPointerException.class,() ->  m2.isLessOrEqual(null));
         assertEquals("The other Measurable is null.", e.getMessage());
     }
+
+    @Test
+    void testComparatorIsSingleton() {
+        assertSame(timeComparator(), timeComparator());
+    }
 }
@@ -0,0 +1,80 @@
+package test.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.NoteValue;
+import com.musicquint.api.Type;
+
+class NoteValueTest {
+
+    @Test
+    void testTypeOf() {
+        for (Type type : Type.values()) {
+            assertSame(type, Type.of(type.asBarTime()));
+        }
+        assertThrows(NoSuchElementException.class, () -> Type.of(BarTime.EIGHTH_DOT));
+        assertThrows(NoSuchElementException.class, () -> Type.of(BarTime.of(16)));
+        assertThrows(NoSuchElementException.class, () -> Type.of(BarTime.of(1, 64)));
+    }
+
+    @Test
+    void testPlainAndDotted() {
+        NoteValue quarter = NoteValue.of(BarTime.QUARTER);
+        assertEquals(Type.QUARTER, quarter.getType());
+        assertEquals(0, quarter.getDots());
+        assertFalse(quarter.isTuplet());
+
+        NoteValue eighthDot = NoteValue.of(BarTime.EIGHTH_DOT);
+        assertEquals(Type.EIGHTH, eighthDot.getType());
+        assertEquals(1, eighthDot.getDots());
+        assertFalse(eighthDot.isTuplet());
+
+        assertEquals("2..", NoteValue.of(BarTime.HALF_DOUBLE_DOT).toString());
+    }
+
+    @Test
+    void testTuplets() {
+        NoteValue triplet = NoteValue.of(BarTime.of(1, 3));
+        assertEquals(Type.EIGHTH, triplet.getType());
+        assertEquals(3, triplet.getTupletActual());
+        assertEquals(2, triplet.getTupletNormal());
+        assertEquals("8 3:2", triplet.toString());
+        assertEquals("16 5:4", NoteValue.of(BarTime.of(1, 5)).toString());
+        assertEquals(BarTime.of(1, 3), triplet.getDuration());
+    }
+
+    @Test
+    void testLookupIsCanonical() {
+        assertSame(NoteValue.of(BarTime.of(1, 3)), NoteValue.of(BarTime.of(2, 6)));
+        assertTrue(NoteValue.isNoteValue(BarTime.WHOLE_DOT));
+        assertFalse(NoteValue.isNoteValue(BarTime.of(5, 4)));
+        assertThrows(NoSuchElementException.class, () -> NoteValue.of(BarTime.of(5, 4)));
+    }
+
+    @Test
+    void testSplit() {
+        assertEquals(List.of(NoteValue.of(BarTime.QUARTER)), NoteValue.split(BarTime.QUARTER));
+        assertEquals(List.of(NoteValue.of(BarTime.QUARTER), NoteValue.of(BarTime.SIXTEENTH)),
+                NoteValue.split(BarTime.of(5, 4)));
+        assertEquals(List.of(NoteValue.of(BarTime.BREVE), NoteValue.of(BarTime.HALF_DOT)),
+                NoteValue.split(BarTime.of(11)));
+        assertEquals("[4 3:2, 16 3:2]", NoteValue.split(BarTime.of(5, 6)).toString());
+    }
+
+    @Test
+    void testSplitInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> NoteValue.split(BarTime.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> NoteValue.split(BarTime.of(1, 11)));
+        assertThrows(IllegalArgumentException.class, () -> NoteValue.split(BarTime.of(1, 64)));
+    }
+}
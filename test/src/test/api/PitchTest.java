@@ -38,4 +38,34 @@ class PitchTest {
                 + "(?<pitch>(?<step>[a-g|A-G])(?<alter>(?<sharp>s{1,2})|(?<flat>f{1,2}))?(?<octave>(?<subsmall>,{1,3})|(?<lined>'{1,5}))?)",
                 e.getMessage());
     }
+
+    @Test
+    void testParseUpperCaseAndOctaves() {
+        assertEquals(new Pitch(Step.B, Alter.DOUBLE_SHARP, Octave.FIVE_LINED), Pitch.parse("Bss'''''"));
+        assertEquals(new Pitch(Step.A, Alter.NATURAL, Octave.SUBCONTRA), Pitch.parse("a,,,"));
+    }
+
+    @Test
+    void testParseInvalid() {
+        for (String input : new String[] { "", "|", "h", "c''''''", "c,,,,", "csss", "cs',", "c',", "csf" }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Pitch.parse(input));
+            assertEquals("The input " + input + " does not match the pattern " + Pitch.REGEX, e.getMessage());
+        }
+    }
+
+    @Test
+    void testParseReturnsCanonicalInstance() {
+        assertSame(Pitch.of(Step.F, Alter.SHARP, Octave.TWO_LINED), Pitch.parse("fs''"));
+        assertSame(Pitch.of(Step.C, null, null), Pitch.parse("c"));
+    }
+
+    @Test
+    void testOrdinal() {
+        for (int i = 0; i < Pitch.COUNT; i++) {
+            assertEquals(i, Pitch.ofOrdinal(i).ordinal());
+        }
+        assertEquals(315, Pitch.COUNT);
+        assertEquals(Pitch.COUNT - 1, new Pitch(Step.B, Alter.DOUBLE_SHARP, Octave.FIVE_LINED).ordinal());
+        assertThrows(IllegalArgumentException.class, () -> Pitch.ofOrdinal(Pitch.COUNT));
+    }
 }
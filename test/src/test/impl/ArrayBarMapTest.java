@@ -0,0 +1,151 @@
+package test.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Measurable;
+import com.musicquint.impl.ArrayBarMap;
+
+class ArrayBarMapTest {
+
+    private ArrayBarMap<Measurable> createBarMap() {
+        ArrayBarMap<Measurable> bMap = new ArrayBarMap<>(BarTime.FOUR_QUARTER);
+        bMap.put(BarTime.HALF, BarTime.EIGHTH);
+        return bMap;
+    }
+
+    @Test
+    void testZeroLength() {
+        ArrayBarMap<Measurable> bMap = new ArrayBarMap<>(BarTime.FOUR_QUARTER);
+
+        assertEquals(BarTime.FOUR_QUARTER, bMap.capacity());
+        assertEquals(BarTime.ZERO, bMap.length());
+    }
+
+    @Test
+    void testHalfAndEightLength() {
+        assertEquals(BarTime.of(5, 2), createBarMap().length());
+    }
+
+    @Test
+    void testNext() {
+        ArrayBarMap<Measurable> bMap = createBarMap();
+
+        assertEquals(BarTime.THREE_EIGHTH, bMap.next(BarTime.EIGHTH));
+        assertEquals(BarTime.of(7, 4), bMap.next(BarTime.of(9, 4)));
+    }
+
+    @Test
+    void testLasting() {
+        ArrayBarMap<Measurable> bMap = createBarMap();
+
+        assertEquals(BarTime.of(1, 4), bMap.lasting(BarTime.of(9, 4)));
+        assertEquals(BarTime.ZERO, bMap.lasting(BarTime.of(11, 4)));
+        assertEquals(BarTime.ZERO, bMap.lasting(BarTime.of(5, 2)));
+    }
+
+    @Test
+    void testFits() {
+        ArrayBarMap<Measurable> bMap = createBarMap();
+
+        assertEquals(true, bMap.fits(BarTime.THREE_EIGHTH, BarTime.EIGHTH));
+        assertEquals(false, bMap.fits(BarTime.THREE_EIGHTH, BarTime.EIGHTH_DOT));
+        assertEquals(false, bMap.fits(BarTime.of(9, 4), BarTime.SIXTEENTH));
+        assertEquals(true, bMap.fits(BarTime.of(5, 2), BarTime.THREE_EIGHTH));
+        assertEquals(false, bMap.fits(BarTime.of(5, 2), BarTime.HALF));
+        assertEquals(false, bMap.fits(BarTime.of(-1, 2), BarTime.HALF));
+    }
+
+    @Test
+    void testPutThrowsIfItemDoesNotFit() {
+        ArrayBarMap<Measurable> bMap = createBarMap();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> bMap.put(BarTime.THREE_EIGHTH, BarTime.EIGHTH_DOT));
+        assertEquals("The Measurable 3/4 does not fit in at the time 3/2", e.getMessage());
+    }
+
+    @Test
+    void testPutReplacesValue() {
+        ArrayBarMap<Measurable> bMap = createBarMap();
+
+        assertEquals(BarTime.EIGHTH, bMap.put(BarTime.HALF, BarTime.QUARTER));
+        assertEquals(BarTime.THREE_QUARTER, bMap.length());
+        assertEquals(1, bMap.size());
+    }
+
+    @Test
+    void testActiveEntry() {
+        ArrayBarMap<Measurable> bMap = createBarMap();
+        bMap.put(BarTime.ZERO, BarTime.QUARTER);
+
+        assertEquals(BarTime.ZERO, bMap.activeEntry(BarTime.EIGHTH).getKey());
+        assertNull(bMap.activeEntry(BarTime.QUARTER));
+        assertEquals(BarTime.HALF, bMap.activeEntry(BarTime.of(9, 4)).getKey());
+        assertNull(bMap.activeEntry(BarTime.of(5, 2)));
+    }
+
+    @Test
+    void testNavigationAndViews() {
+        ArrayBarMap<Measurable> bMap = new ArrayBarMap<>(BarTime.FOUR_QUARTER);
+        bMap.put(BarTime.ZERO, BarTime.QUARTER);
+        bMap.put(BarTime.QUARTER, BarTime.QUARTER);
+        bMap.put(BarTime.HALF, BarTime.QUARTER);
+        bMap.put(BarTime.THREE_QUARTER, BarTime.QUARTER);
+
+        assertEquals(BarTime.QUARTER, bMap.lowerKey(BarTime.of(3, 2)));
+        assertEquals(BarTime.HALF, bMap.ceilingKey(BarTime.of(3, 2)));
+        assertEquals(BarTime.HALF, bMap.floorKey(BarTime.HALF));
+        assertNull(bMap.higherKey(BarTime.THREE_QUARTER));
+
+        NavigableMap<BarTime, Measurable> subMap = bMap.subMap(BarTime.QUARTER, true, BarTime.THREE_QUARTER, false);
+        assertEquals(List.of(BarTime.QUARTER, BarTime.HALF), List.copyOf(subMap.keySet()));
+        assertEquals(List.of(BarTime.HALF, BarTime.QUARTER), List.copyOf(subMap.descendingMap().keySet()));
+        assertEquals(List.of(BarTime.THREE_QUARTER, BarTime.HALF, BarTime.QUARTER, BarTime.ZERO),
+                List.copyOf(bMap.descendingKeySet()));
+        assertEquals(BarTime.HALF, bMap.descendingMap().higherKey(BarTime.THREE_QUARTER));
+
+        subMap.remove(BarTime.QUARTER);
+        assertEquals(3, bMap.size());
+        assertEquals(BarTime.HALF, subMap.firstKey());
+    }
+
+    @Test
+    void testBulkLoad() {
+        ArrayBarMap<Measurable> source = new ArrayBarMap<>(BarTime.FOUR_QUARTER);
+        source.put(BarTime.ZERO, BarTime.HALF);
+        source.put(BarTime.THREE_QUARTER, BarTime.QUARTER);
+
+        ArrayBarMap<Measurable> bMap = new ArrayBarMap<>(BarTime.FOUR_QUARTER, source.entrySet());
+        assertEquals(source, bMap);
+        assertEquals(BarTime.FOUR_QUARTER, bMap.length());
+    }
+
+    @Test
+    void testBulkLoadUnsorted() {
+        List<Map.Entry<BarTime, Measurable>> entries = List.of(Map.entry(BarTime.HALF, BarTime.QUARTER),
+                Map.entry(BarTime.ZERO, BarTime.QUARTER));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new ArrayBarMap<>(BarTime.FOUR_QUARTER, entries));
+        assertEquals("The entries are not in strictly ascending order at 0/1", e.getMessage());
+    }
+
+    @Test
+    void testBulkLoadOverlap() {
+        List<Map.Entry<BarTime, Measurable>> entries = List.of(Map.entry(BarTime.ZERO, BarTime.HALF),
+                Map.entry(BarTime.QUARTER, BarTime.QUARTER));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new ArrayBarMap<>(BarTime.FOUR_QUARTER, entries));
+        assertEquals("The Measurable 1/1 does not fit in at the time 1/1", e.getMessage());
+    }
+}
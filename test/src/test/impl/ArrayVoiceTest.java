@@ -0,0 +1,156 @@
+package test.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.impl.ArrayVoice;
+
+class ArrayVoiceTest {
+
+    private final PrincipalItem half = () -> BarTime.HALF;
+
+    private final PrincipalItem quarter = () -> BarTime.QUARTER;
+
+    private final PrincipalItem otherQuarter = () -> BarTime.QUARTER;
+
+    @Test
+    void testPut() {
+        ArrayVoice voice = new ArrayVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+        voice.put(BarTime.ZERO, half);
+        voice.put(BarTime.HALF, half);
+
+        assertEquals(2, voice.get(BarTime.ZERO).size());
+        assertEquals(BarTime.HALF, voice.get(BarTime.ZERO).getDuration());
+        assertEquals(BarTime.FOUR_QUARTER, voice.length());
+        assertThrows(IllegalStateException.class, () -> voice.put(BarTime.QUARTER, quarter));
+        assertThrows(IllegalArgumentException.class, () -> voice.put(BarTime.of(5), quarter));
+    }
+
+    @Test
+    void testValuesCannotBeModified() {
+        ArrayVoice voice = new ArrayVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+
+        assertThrows(UnsupportedOperationException.class, () -> voice.get(BarTime.ZERO).add(half));
+        assertThrows(UnsupportedOperationException.class, () -> voice.firstEntry().getValue().clear());
+        assertTrue(voice.fits(BarTime.QUARTER, quarter));
+        assertEquals(List.of(gap(BarTime.QUARTER, BarTime.FOUR_QUARTER)), voice.getGaps());
+        voice.put(BarTime.ZERO, otherQuarter);
+        assertEquals(2, voice.get(BarTime.ZERO).size());
+    }
+
+    @Test
+    void testBuild() {
+        ArrayVoice voice = new ArrayVoice.Builder(BarTime.FOUR_QUARTER)
+                .add(BarTime.ZERO, half)
+                .add(BarTime.ZERO, quarter)
+                .add(BarTime.HALF, quarter)
+                .add(BarTime.THREE_QUARTER, otherQuarter)
+                .build();
+
+        assertEquals(List.of(BarTime.ZERO, BarTime.HALF, BarTime.THREE_QUARTER), List.copyOf(voice.keySet()));
+        assertEquals(BarTime.HALF, voice.get(BarTime.ZERO).getDuration());
+        assertEquals(BarTime.FOUR_QUARTER, voice.length());
+        voice.put(BarTime.THREE_QUARTER, quarter);
+        assertEquals(2, voice.get(BarTime.THREE_QUARTER).size());
+    }
+
+    @Test
+    void testFirstViolation() {
+        assertNull(new ArrayVoice.Builder(BarTime.ZERO).firstViolation());
+        assertEquals(BarTime.ZERO, new ArrayVoice.Builder(BarTime.HALF).firstViolation());
+        assertEquals(BarTime.HALF, new ArrayVoice.Builder(BarTime.FOUR_QUARTER)
+                .add(BarTime.ZERO, half)
+                .add(BarTime.THREE_QUARTER, quarter)
+                .firstViolation());
+        assertEquals(BarTime.QUARTER, new ArrayVoice.Builder(BarTime.FOUR_QUARTER)
+                .add(BarTime.ZERO, half)
+                .add(BarTime.QUARTER, quarter)
+                .firstViolation());
+        assertEquals(BarTime.THREE_QUARTER, new ArrayVoice.Builder(BarTime.FOUR_QUARTER)
+                .add(BarTime.ZERO, half)
+                .add(BarTime.HALF, quarter)
+                .firstViolation());
+        assertEquals(BarTime.HALF, new ArrayVoice.Builder(BarTime.THREE_QUARTER)
+                .add(BarTime.ZERO, half)
+                .add(BarTime.HALF, half)
+                .firstViolation());
+    }
+
+    @Test
+    void testBuildFails() {
+        ArrayVoice.Builder builder = new ArrayVoice.Builder(BarTime.FOUR_QUARTER)
+                .add(BarTime.HALF, half)
+                .add(BarTime.ZERO, half);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertEquals("The voice is not well-stuffed at 0/1", e.getMessage());
+    }
+
+    @Test
+    void testGapsWhilePutting() {
+        ArrayVoice voice = new ArrayVoice(BarTime.FOUR_QUARTER);
+
+        assertFalse(voice.isWellStuffed());
+        assertEquals(List.of(gap(BarTime.ZERO, BarTime.FOUR_QUARTER)), voice.getGaps());
+        voice.put(BarTime.HALF, quarter);
+        assertEquals(List.of(gap(BarTime.ZERO, BarTime.HALF), gap(BarTime.THREE_QUARTER, BarTime.FOUR_QUARTER)),
+                voice.getGaps());
+        voice.put(BarTime.ZERO, quarter);
+        voice.put(BarTime.ZERO, half);
+        assertEquals(List.of(gap(BarTime.THREE_QUARTER, BarTime.FOUR_QUARTER)), voice.getGaps());
+        voice.put(BarTime.THREE_QUARTER, otherQuarter);
+        assertTrue(voice.isWellStuffed());
+        assertEquals(List.of(), voice.getGaps());
+    }
+
+    @Test
+    void testGapsWhileRemoving() {
+        ArrayVoice voice = new ArrayVoice.Builder(BarTime.FOUR_QUARTER)
+                .add(BarTime.ZERO, half)
+                .add(BarTime.HALF, quarter)
+                .add(BarTime.THREE_QUARTER, otherQuarter)
+                .build();
+
+        assertTrue(voice.isWellStuffed());
+        voice.remove(BarTime.HALF);
+        assertEquals(List.of(gap(BarTime.HALF, BarTime.THREE_QUARTER)), voice.getGaps());
+        voice.pollLastEntry();
+        assertEquals(List.of(gap(BarTime.HALF, BarTime.FOUR_QUARTER)), voice.getGaps());
+        voice.clear();
+        assertEquals(List.of(gap(BarTime.ZERO, BarTime.FOUR_QUARTER)), voice.getGaps());
+        assertTrue(new ArrayVoice(BarTime.ZERO).isWellStuffed());
+    }
+
+    @Test
+    void testGapsWithEntryAtCapacity() {
+        ArrayVoice voice = new ArrayVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, half);
+        voice.put(BarTime.FOUR_QUARTER, (PrincipalItem) () -> BarTime.ZERO);
+
+        assertFalse(voice.isWellStuffed());
+        assertEquals(List.of(gap(BarTime.HALF, BarTime.FOUR_QUARTER)), voice.getGaps());
+        voice.put(BarTime.HALF, half);
+        assertTrue(voice.isWellStuffed());
+        voice.remove(BarTime.HALF);
+        assertEquals(List.of(gap(BarTime.HALF, BarTime.FOUR_QUARTER)), voice.getGaps());
+        voice.remove(BarTime.FOUR_QUARTER);
+        assertEquals(List.of(gap(BarTime.HALF, BarTime.FOUR_QUARTER)), voice.getGaps());
+    }
+
+    private static Map.Entry<BarTime, BarTime> gap(BarTime start, BarTime end) {
+        return new SimpleImmutableEntry<>(start, end);
+    }
+}
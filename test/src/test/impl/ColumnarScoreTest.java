@@ -0,0 +1,148 @@
+package test.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.BarTimes;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Voice;
+import com.musicquint.impl.ColumnarScore;
+
+class ColumnarScoreTest {
+
+    private ColumnarScore createScore() {
+        return new ColumnarScore.Builder()
+                .part("Violin")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("c'"))
+                .note(BarTime.ZERO, BarTime.QUARTER, Pitch.parse("e'"))
+                .rest(BarTime.HALF, BarTime.QUARTER)
+                .note(BarTime.THREE_QUARTER, BarTime.QUARTER, Pitch.parse("g'"))
+                .voice()
+                .rest(BarTime.ZERO, BarTime.WHOLE)
+                .bar(BarTime.THREE_QUARTER)
+                .part("Cello")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.QUARTER, BarTime.THREE_QUARTER, Pitch.parse("c,"))
+                .build();
+    }
+
+    @Test
+    void testStructure() {
+        ColumnarScore score = createScore();
+
+        assertEquals(2, score.size());
+        assertEquals("Violin", score.get(0).getPartName());
+        assertEquals(2, score.get(0).size());
+        assertEquals(2, score.get(0).get(0).size());
+        assertTrue(score.get(0).get(1).isEmpty());
+        assertEquals("Cello", score.get(1).getPartName());
+        assertEquals(1, score.get(1).size());
+    }
+
+    @Test
+    void testVoiceView() {
+        Voice voice = createScore().get(0).get(0).get(0);
+
+        assertEquals(3, voice.size());
+        assertEquals(BarTime.FOUR_QUARTER, voice.capacity());
+        assertEquals(List.of(BarTime.ZERO, BarTime.HALF, BarTime.THREE_QUARTER), new ArrayList<>(voice.keySet()));
+        assertEquals(BarTime.HALF, voice.get(BarTime.ZERO).getDuration());
+        assertEquals(2, voice.get(BarTime.ZERO).size());
+        assertEquals(BarTime.HALF, voice.floorKey(BarTime.of(5, 2)));
+        assertEquals(BarTime.THREE_QUARTER, voice.higherKey(BarTime.HALF));
+        assertEquals(BarTime.FOUR_QUARTER, voice.length());
+        assertFalse(voice.fits(BarTime.QUARTER, BarTime.QUARTER));
+    }
+
+    @Test
+    void testItems() {
+        Voice voice = createScore().get(0).get(0).get(0);
+        List<Pitch> pitches = new ArrayList<>();
+        for (PrincipalItem item : voice.get(BarTime.ZERO)) {
+            pitches.add(((Pitched) item).getPitch());
+        }
+        PrincipalItem rest = voice.get(BarTime.HALF).iterator().next();
+
+        assertEquals(List.of(Pitch.parse("c'"), Pitch.parse("e'")), pitches);
+        assertFalse(rest instanceof Pitched);
+        assertEquals(BarTime.QUARTER, rest.getDuration());
+        assertEquals(voice.get(BarTime.HALF), voice.get(BarTime.HALF));
+    }
+
+    @Test
+    void testColumns() {
+        ColumnarScore score = createScore();
+
+        assertEquals(6, score.getEventCount());
+        assertEquals(Pitch.parse("e'").ordinal(), score.getPitchOrdinal(1));
+        assertEquals(ColumnarScore.REST, score.getPitchOrdinal(2));
+        assertEquals(BarTimes.pack(BarTime.HALF), score.getPackedOnset(2));
+        assertEquals(BarTimes.pack(BarTime.WHOLE), score.getPackedDuration(4));
+        assertEquals(1, score.getVoiceIndex(4));
+        assertEquals(0, score.getBarIndex(5));
+        assertEquals(1, score.getPartIndex(5));
+    }
+
+    @Test
+    void testCopy() {
+        ColumnarScore score = createScore();
+        score.setTitle("Duo");
+        ColumnarScore copy = ColumnarScore.of(score);
+
+        assertEquals("Duo", copy.getTitle());
+        assertEquals(score.getEventCount(), copy.getEventCount());
+        for (int event = 0; event < score.getEventCount(); event++) {
+            assertEquals(score.getPackedOnset(event), copy.getPackedOnset(event));
+            assertEquals(score.getPackedDuration(event), copy.getPackedDuration(event));
+            assertEquals(score.getPitchOrdinal(event), copy.getPitchOrdinal(event));
+            assertEquals(score.getVoiceIndex(event), copy.getVoiceIndex(event));
+            assertEquals(score.getBarIndex(event), copy.getBarIndex(event));
+            assertEquals(score.getPartIndex(event), copy.getPartIndex(event));
+        }
+    }
+
+    @Test
+    void testReadOnly() {
+        Voice voice = createScore().get(0).get(0).get(0);
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> voice.put(BarTime.HALF, voice.get(BarTime.HALF)));
+        assertThrows(UnsupportedOperationException.class, () -> voice.remove(BarTime.ZERO));
+    }
+
+    @Test
+    void testOverlap() {
+        ColumnarScore.Builder builder = new ColumnarScore.Builder().part(null).bar(BarTime.FOUR_QUARTER).voice()
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("c"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> builder.rest(BarTime.QUARTER, BarTime.QUARTER));
+        assertEquals("The event with the duration 1/1 does not fit in at the time 1/1", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> builder.rest(BarTime.HALF, BarTime.WHOLE));
+    }
+
+    @Test
+    void testOrder() {
+        ColumnarScore.Builder builder = new ColumnarScore.Builder().part(null).bar(BarTime.FOUR_QUARTER).voice()
+                .rest(BarTime.HALF, BarTime.QUARTER);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.rest(BarTime.ZERO, BarTime.QUARTER));
+        assertThrows(IllegalStateException.class, () -> new ColumnarScore.Builder().part(null).voice());
+        assertThrows(IllegalStateException.class,
+                () -> new ColumnarScore.Builder().part(null).bar(BarTime.HALF).voice().part(null)
+                        .rest(BarTime.ZERO, BarTime.QUARTER));
+    }
+}
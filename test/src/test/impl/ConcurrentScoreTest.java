@@ -0,0 +1,196 @@
+package test.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Voice;
+import com.musicquint.impl.ConcurrentBar;
+import com.musicquint.impl.ConcurrentPart;
+import com.musicquint.impl.ConcurrentScore;
+import com.musicquint.impl.ConcurrentVoice;
+import com.musicquint.impl.ContentSet;
+
+class ConcurrentScoreTest {
+
+    private final PrincipalItem quarter = () -> BarTime.QUARTER;
+
+    private final PrincipalItem half = () -> BarTime.HALF;
+
+    @Test
+    void testIteratorIsSnapshot() {
+        ConcurrentPart part = new ConcurrentPart("Piano");
+        part.add(new ConcurrentBar());
+        Iterator<Bar> iterator = part.iterator();
+        part.add(new ConcurrentBar());
+
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        assertEquals(2, part.size());
+        assertEquals("Piano", part.getPartName());
+    }
+
+    @Test
+    void testBulkRemovals() {
+        ConcurrentScore score = new ConcurrentScore();
+        score.add(new ConcurrentPart("Violin"));
+        score.clear();
+        assertTrue(score.isEmpty());
+
+        ConcurrentPart part = new ConcurrentPart();
+        for (int i = 0; i < 6; i++) {
+            ConcurrentBar bar = new ConcurrentBar();
+            ConcurrentVoice voice = new ConcurrentVoice(BarTime.of(6));
+            voice.put(BarTime.of(i), quarter);
+            bar.add(voice);
+            part.add(bar);
+        }
+        Bar first = part.get(0);
+        Bar second = part.get(1);
+        assertTrue(part.removeIf(first::equals));
+        assertEquals(5, part.size());
+        assertTrue(part.removeAll(List.of(second)));
+        assertEquals(4, part.size());
+        part.subList(0, 2).clear();
+        assertEquals(2, part.size());
+        Bar kept = part.get(1);
+        assertTrue(part.retainAll(List.of(kept)));
+        assertEquals(List.of(kept), part);
+
+        ConcurrentBar bar = new ConcurrentBar();
+        bar.add(new ConcurrentVoice(BarTime.FOUR_QUARTER));
+        bar.clear();
+        assertTrue(bar.isEmpty());
+    }
+
+    @Test
+    void testVoiceViewsAreSnapshots() {
+        ConcurrentVoice voice = new ConcurrentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+        List<BarTime> keys = List.copyOf(voice.keySet());
+        voice.put(BarTime.QUARTER, quarter);
+
+        assertEquals(List.of(BarTime.ZERO), keys);
+        assertEquals(List.of(BarTime.ZERO, BarTime.QUARTER), List.copyOf(voice.keySet()));
+        assertEquals(BarTime.HALF, voice.length());
+        assertThrows(UnsupportedOperationException.class, () -> voice.keySet().clear());
+    }
+
+    @Test
+    void testValuesCannotBeModified() {
+        ConcurrentVoice voice = new ConcurrentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+        ContentSet<PrincipalItem> content = new ContentSet<>();
+        content.add(quarter);
+        voice.put(BarTime.QUARTER, content);
+        content.add(half);
+
+        assertThrows(UnsupportedOperationException.class, () -> voice.get(BarTime.ZERO).add(half));
+        assertThrows(UnsupportedOperationException.class, () -> voice.values().iterator().next().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> voice.entrySet().iterator().next().getValue().add(half));
+        assertEquals(BarTime.QUARTER, voice.get(BarTime.QUARTER).getDuration());
+        assertEquals(BarTime.HALF, voice.length());
+        assertTrue(voice.fits(BarTime.HALF, half));
+    }
+
+    @Test
+    void testEditIsAtomic() {
+        ConcurrentVoice voice = new ConcurrentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, half);
+
+        assertThrows(IllegalStateException.class, () -> voice.edit(v -> {
+            v.put(BarTime.HALF, quarter);
+            v.put(BarTime.QUARTER, quarter);
+        }));
+        assertEquals(List.of(BarTime.ZERO), List.copyOf(voice.keySet()));
+
+        voice.edit(v -> {
+            v.remove(BarTime.ZERO);
+            v.put(BarTime.HALF, half);
+        });
+        assertEquals(List.of(BarTime.HALF), List.copyOf(voice.keySet()));
+    }
+
+    /**
+     * Every writer fills its own bar while readers traverse the whole score and
+     * check that every voice they see is consistent.
+     */
+    @Test
+    void testConcurrentEditsOfDifferentBars() throws Exception {
+        int writers = 4;
+        int bars = 8;
+        ConcurrentScore score = new ConcurrentScore();
+        ConcurrentPart part = new ConcurrentPart();
+        score.add(part);
+        for (int i = 0; i < writers * bars; i++) {
+            ConcurrentBar bar = new ConcurrentBar();
+            bar.add(new ConcurrentVoice(BarTime.of(64)));
+            part.add(bar);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicBoolean done = new AtomicBoolean();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int b = writer; b < part.size(); b += writers) {
+                        Voice voice = part.get(b).get(0);
+                        for (int t = 0; t < 64; t++) {
+                            voice.put(BarTime.of(t), quarter);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (!done.get()) {
+                        for (Bar bar : part) {
+                            for (Voice voice : bar) {
+                                int count = 0;
+                                for (BarTime key : voice.keySet()) {
+                                    assertEquals(BarTime.of(count++), key);
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (Bar bar : score.get(0)) {
+            assertEquals(BarTime.of(64), bar.get(0).length());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package test.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Measurable;
+import com.musicquint.impl.ContentSet;
+
+class ContentSetTest {
+
+    private final Measurable half = () -> BarTime.HALF;
+
+    private final Measurable quarter = () -> BarTime.QUARTER;
+
+    private final Measurable otherHalf = () -> BarTime.HALF;
+
+    @Test
+    void testEmptyDuration() {
+        assertEquals(BarTime.ZERO, new ContentSet<>().getDuration());
+    }
+
+    @Test
+    void testDurationAfterAdd() {
+        ContentSet<Measurable> set = new ContentSet<>(List.of(quarter, half));
+
+        assertEquals(BarTime.HALF, set.getDuration());
+    }
+
+    @Test
+    void testDurationAfterRemove() {
+        ContentSet<Measurable> set = new ContentSet<>(List.of(quarter, half, otherHalf));
+
+        set.remove(half);
+        assertEquals(BarTime.HALF, set.getDuration());
+        set.remove(otherHalf);
+        assertEquals(BarTime.QUARTER, set.getDuration());
+        set.clear();
+        assertEquals(BarTime.ZERO, set.getDuration());
+    }
+
+    @Test
+    void testDurationWithIteratorRemove() {
+        ContentSet<Measurable> set = new ContentSet<>(List.of(quarter, half));
+
+        set.removeIf(m -> m == half);
+        assertEquals(BarTime.QUARTER, set.getDuration());
+    }
+}
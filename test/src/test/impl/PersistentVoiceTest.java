@@ -0,0 +1,121 @@
+package test.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.impl.PersistentVoice;
+
+class PersistentVoiceTest {
+
+    private final PrincipalItem half = () -> BarTime.HALF;
+
+    private final PrincipalItem quarter = () -> BarTime.QUARTER;
+
+    private final PrincipalItem eighth = () -> BarTime.EIGHTH;
+
+    @Test
+    void testPut() {
+        PersistentVoice voice = new PersistentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+        voice.put(BarTime.ZERO, half);
+        voice.put(BarTime.HALF, half);
+
+        assertEquals(2, voice.get(BarTime.ZERO).size());
+        assertEquals(BarTime.HALF, voice.get(BarTime.ZERO).getDuration());
+        assertEquals(BarTime.FOUR_QUARTER, voice.length());
+        assertEquals(BarTime.QUARTER, voice.lasting(BarTime.QUARTER));
+        assertEquals(BarTime.QUARTER, voice.next(BarTime.QUARTER));
+        assertThrows(IllegalStateException.class, () -> voice.put(BarTime.QUARTER, quarter));
+        assertThrows(IllegalArgumentException.class, () -> voice.put(BarTime.of(5), quarter));
+    }
+
+    @Test
+    void testNavigation() {
+        PersistentVoice voice = new PersistentVoice(BarTime.of(64));
+        List<BarTime> keys = new ArrayList<>();
+        for (int i = 127; i >= 0; i--) {
+            voice.put(BarTime.of(i, 2), eighth);
+            keys.add(0, BarTime.of(i, 2));
+        }
+
+        assertEquals(128, voice.size());
+        assertEquals(keys, List.copyOf(voice.keySet()));
+        assertEquals(BarTime.of(3, 2), voice.floorKey(BarTime.of(7, 4)));
+        assertEquals(BarTime.of(2), voice.higherKey(BarTime.of(7, 4)));
+        assertEquals(BarTime.of(64), voice.length());
+
+        for (int i = 0; i < 128; i += 2) {
+            voice.remove(BarTime.of(i, 2));
+        }
+        assertEquals(64, voice.size());
+        assertEquals(BarTime.EIGHTH, voice.firstKey());
+        assertEquals(BarTime.of(127, 2), voice.lastKey());
+        assertEquals(BarTime.EIGHTH, voice.next(BarTime.ZERO));
+        voice.clear();
+        assertTrue(voice.isEmpty());
+    }
+
+    @Test
+    void testSnapshot() {
+        PersistentVoice voice = new PersistentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+        PersistentVoice snapshot = voice.snapshot();
+
+        voice.put(BarTime.ZERO, eighth);
+        voice.put(BarTime.HALF, half);
+        voice.remove(BarTime.ZERO);
+
+        assertTrue(snapshot.isReadOnly());
+        assertFalse(voice.isReadOnly());
+        assertSame(snapshot, snapshot.snapshot());
+        assertEquals(List.of(BarTime.ZERO), List.copyOf(snapshot.keySet()));
+        assertEquals(1, snapshot.get(BarTime.ZERO).size());
+        assertEquals(List.of(BarTime.HALF), List.copyOf(voice.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put(BarTime.HALF, quarter));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(BarTime.ZERO));
+        assertThrows(UnsupportedOperationException.class, snapshot::clear);
+    }
+
+    @Test
+    void testValuesOfSnapshotCannotBeModified() {
+        PersistentVoice voice = new PersistentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, quarter);
+        PersistentVoice snapshot = voice.snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.get(BarTime.ZERO).add(half));
+        assertThrows(UnsupportedOperationException.class, () -> voice.get(BarTime.ZERO).add(half));
+        assertThrows(UnsupportedOperationException.class, () -> voice.firstEntry().getValue().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.values().iterator().next().iterator().remove());
+        assertEquals(BarTime.QUARTER, voice.length());
+        voice.put(BarTime.QUARTER, quarter);
+        assertEquals(snapshot.get(BarTime.ZERO), voice.get(BarTime.ZERO));
+    }
+
+    @Test
+    void testRestore() {
+        PersistentVoice voice = new PersistentVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.ZERO, half);
+        PersistentVoice snapshot = voice.snapshot();
+        voice.put(BarTime.HALF, half);
+        voice.restore(snapshot);
+
+        assertEquals(snapshot, voice);
+        assertNull(voice.get(BarTime.HALF));
+        voice.put(BarTime.HALF, quarter);
+        assertEquals(1, snapshot.size());
+        assertThrows(IllegalArgumentException.class, () -> voice.restore(new PersistentVoice(BarTime.HALF)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.restore(voice));
+    }
+}
@@ -0,0 +1,138 @@
+package test.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.musicquint.analysis.ScoreEvents;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.api.Pitched;
+import com.musicquint.api.PrincipalItem;
+import com.musicquint.api.Score;
+import com.musicquint.api.Voice;
+import com.musicquint.impl.ArrayVoice;
+import com.musicquint.impl.ColumnarScore;
+import com.musicquint.impl.ConcurrentBar;
+import com.musicquint.impl.ConcurrentPart;
+import com.musicquint.impl.ConcurrentScore;
+import com.musicquint.impl.ContentSet;
+import com.musicquint.io.BinaryExporter;
+import com.musicquint.io.BinaryImporter;
+
+class BinaryImporterTest {
+
+    private ColumnarScore createScore() {
+        ColumnarScore score = new ColumnarScore.Builder()
+                .part("Violin")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("c'"))
+                .note(BarTime.ZERO, BarTime.QUARTER, Pitch.parse("e'"))
+                .rest(BarTime.HALF, BarTime.QUARTER)
+                .note(BarTime.THREE_QUARTER, BarTime.QUARTER, Pitch.parse("g'"))
+                .voice()
+                .rest(BarTime.ZERO, BarTime.WHOLE)
+                .bar(BarTime.THREE_QUARTER)
+                .part(null)
+                .bar(BarTime.of(3, 2))
+                .voice()
+                .note(BarTime.of(1, 2), BarTime.QUARTER, Pitch.parse("cs,"))
+                .build();
+        score.setTitle("St\u00e4ndchen");
+        score.setComposer("Schubert");
+        return score;
+    }
+
+    private static byte[] export(Score score) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExporter().exportScore(score, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static List<String> describe(Score score) {
+        return ScoreEvents.stream(score)
+                .map(e -> e.getPartIndex() + "/" + e.getBarIndex() + "/" + e.getVoiceIndex() + " " + e.getOnset() + " "
+                        + e.getItem().getDuration() + " "
+                        + (e.getItem() instanceof Pitched ? ((Pitched) e.getItem()).getPitch() : "r"))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        ColumnarScore score = createScore();
+        Score imported = new BinaryImporter().importScore(ByteBuffer.wrap(export(score)));
+
+        assertEquals("St\u00e4ndchen", imported.getTitle());
+        assertEquals("Schubert", imported.getComposer());
+        assertNull(imported.getSubtitle());
+        assertEquals(2, imported.size());
+        assertEquals("Violin", imported.get(0).getPartName());
+        assertNull(imported.get(1).getPartName());
+        assertEquals(2, imported.get(0).size());
+        assertTrue(imported.get(0).get(1).isEmpty());
+        assertEquals(BarTime.of(3, 2), imported.get(1).get(0).get(0).capacity());
+        assertEquals(describe(score), describe(imported));
+    }
+
+    @Test
+    void testEmptyEntriesAreSkipped() throws IOException {
+        ArrayVoice voice = new ArrayVoice(BarTime.FOUR_QUARTER);
+        voice.put(BarTime.QUARTER, new ContentSet<>());
+        voice.put(BarTime.HALF, (PrincipalItem) () -> BarTime.HALF);
+        ConcurrentBar bar = new ConcurrentBar();
+        bar.add(voice);
+        ConcurrentPart part = new ConcurrentPart("Piano");
+        part.add(bar);
+        ConcurrentScore score = new ConcurrentScore();
+        score.add(part);
+
+        Score imported = new BinaryImporter().importScore(ByteBuffer.wrap(export(score)));
+        Voice importedVoice = imported.get(0).get(0).get(0);
+        assertEquals(List.of(BarTime.HALF), List.copyOf(importedVoice.keySet()));
+        assertEquals(BarTime.FOUR_QUARTER, importedVoice.length());
+    }
+
+    @Test
+    void testBarsAreCached() throws IOException {
+        Score imported = new BinaryImporter().importScore(ByteBuffer.wrap(export(createScore())));
+
+        assertSame(imported.get(0).get(0), imported.get(0).get(0));
+    }
+
+    @Test
+    void testMappedFile(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("score.mqsb");
+        ColumnarScore score = createScore();
+        new BinaryExporter().exportScore(score, path);
+
+        assertEquals(describe(score), describe(new BinaryImporter().importScore(path)));
+    }
+
+    @Test
+    void testInvalidInput(@TempDir Path directory) throws IOException {
+        byte[] bytes = export(createScore());
+        bytes[7] = 2;
+        BinaryImporter importer = new BinaryImporter();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importer.importScore(ByteBuffer.wrap(bytes)));
+        assertEquals("The version 2 of the binary score is not supported.", e.getMessage());
+        Path path = Files.write(directory.resolve("score.xml"), new byte[] { '<', '?', 'x', 'm', 'l' });
+        assertThrows(IOException.class, () -> importer.importScore(path));
+    }
+}
@@ -0,0 +1,80 @@
+package test.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.impl.ColumnarScore;
+import com.musicquint.io.LilyPondExporter;
+
+class LilyPondExporterTest {
+
+    private static final String PROLOGUE = "\\version \"" + LilyPondExporter.VERSION + "\"\n"
+            + "\\language \"english\"\n";
+
+    private ColumnarScore createScore() {
+        ColumnarScore score = new ColumnarScore.Builder()
+                .part("Violin")
+                .bar(BarTime.FOUR_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("c'"))
+                .note(BarTime.ZERO, BarTime.HALF, Pitch.parse("e'"))
+                .rest(BarTime.HALF, BarTime.QUARTER)
+                .note(BarTime.THREE_QUARTER, BarTime.EIGHTH_DOT, Pitch.parse("fs''"))
+                .bar(BarTime.THREE_QUARTER)
+                .voice()
+                .note(BarTime.QUARTER, BarTime.of(5, 4), Pitch.parse("bf"))
+                .bar(BarTime.THREE_QUARTER)
+                .voice()
+                .note(BarTime.ZERO, BarTime.of(1, 3), Pitch.parse("c"))
+                .voice()
+                .rest(BarTime.ZERO, BarTime.THREE_QUARTER)
+                .build();
+        score.setTitle("Etude \"1\"");
+        return score;
+    }
+
+    private static final String EXPECTED = PROLOGUE
+            + "\\header {\n"
+            + "  title = \"Etude \\\"1\\\"\"\n"
+            + "}\n"
+            + "\\score {\n"
+            + "  <<\n"
+            + "    \\new Staff \\with { instrumentName = \"Violin\" } {\n"
+            + "      \\time 4/4 <c' e'>2 r4 fs''8. s16 |\n"
+            + "      \\time 3/4 s4 bf4~ bf16 s8. |\n"
+            + "      << { \\tuplet 3/2 { c8 } \\tuplet 3/2 { s1 } } \\\\ { r2. } >> |\n"
+            + "    }\n"
+            + "  >>\n"
+            + "}\n";
+
+    @Test
+    void testExportToWriter() throws IOException {
+        StringWriter writer = new StringWriter();
+        new LilyPondExporter().exportScore(createScore(), writer);
+
+        assertEquals(EXPECTED, writer.toString());
+    }
+
+    @Test
+    void testExportToCharBuffer() {
+        CharBuffer buffer = CharBuffer.allocate(1024);
+        new LilyPondExporter().exportScore(createScore(), buffer);
+
+        assertEquals(EXPECTED, buffer.flip().toString());
+    }
+
+    @Test
+    void testEmptyScore() throws IOException {
+        StringWriter writer = new StringWriter();
+        new LilyPondExporter().exportScore(new ColumnarScore.Builder().build(), writer);
+
+        assertEquals(PROLOGUE + "\\score {\n  <<\n  >>\n}\n", writer.toString());
+    }
+}
@@ -0,0 +1,97 @@
+package test.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.junit.jupiter.api.Test;
+
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Pitch;
+import com.musicquint.impl.ColumnarScore;
+import com.musicquint.io.MidiExporter;
+
+class MidiExporterTest {
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] export(MidiExporter exporter, ColumnarScore score) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportScore(score, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    void testExport() throws IOException {
+        ColumnarScore score = new ColumnarScore.Builder().part("P").bar(BarTime.FOUR_QUARTER).voice()
+                .note(BarTime.ZERO, BarTime.EIGHTH, Pitch.parse("c'"))
+                .rest(BarTime.EIGHTH, BarTime.EIGHTH)
+                .note(BarTime.QUARTER, BarTime.THREE_QUARTER, Pitch.parse("e'"))
+                .build();
+        byte[] expected = bytes(
+                'M', 'T', 'h', 'd', 0, 0, 0, 6, 0, 1, 0, 2, 0, 2,
+                'M', 'T', 'r', 'k', 0, 0, 0, 11,
+                0, 0xFF, 0x51, 3, 0x07, 0xA1, 0x20,
+                0, 0xFF, 0x2F, 0,
+                'M', 'T', 'r', 'k', 0, 0, 0, 25,
+                0, 0xFF, 0x03, 1, 'P',
+                0, 0x90, 60, 64,
+                1, 0x80, 60, 64,
+                1, 0x90, 64, 64,
+                6, 0x80, 64, 64,
+                0, 0xFF, 0x2F, 0);
+
+        assertArrayEquals(expected, export(new MidiExporter(), score));
+    }
+
+    @Test
+    void testTicksAcrossBars() throws IOException {
+        ColumnarScore score = new ColumnarScore.Builder().part(null)
+                .bar(BarTime.THREE_QUARTER).voice().note(BarTime.of(2, 3), BarTime.of(1, 3), Pitch.parse("c"))
+                .bar(BarTime.THREE_QUARTER).voice().note(BarTime.ZERO, BarTime.QUARTER, Pitch.parse("c"))
+                .build();
+        byte[] midi = export(new MidiExporter(), score);
+        byte[] track = bytes(
+                'M', 'T', 'r', 'k', 0, 0, 0, 20,
+                2, 0x90, 48, 64,
+                1, 0x80, 48, 64,
+                6, 0x90, 48, 64,
+                3, 0x80, 48, 64,
+                0, 0xFF, 0x2F, 0);
+        byte[] actual = new byte[track.length];
+        System.arraycopy(midi, midi.length - track.length, actual, 0, track.length);
+
+        assertEquals(3, midi[13]);
+        assertArrayEquals(track, actual);
+    }
+
+    @Test
+    void testStatistics() throws IOException {
+        ColumnarScore score = new ColumnarScore.Builder().part(null).build();
+        MidiExporter exporter = new MidiExporter();
+        int length = export(exporter, score).length;
+        export(exporter, score);
+
+        assertEquals(2, exporter.getStatistics().getScores());
+        assertEquals(2 * length, exporter.getStatistics().getBytes());
+    }
+
+    @Test
+    void testResolutionTooHigh() {
+        ColumnarScore score = new ColumnarScore.Builder().part(null).bar(BarTime.WHOLE).voice()
+                .rest(BarTime.ZERO, BarTime.of(1, 40000))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> export(new MidiExporter(), score));
+    }
+}
@@ -0,0 +1,398 @@
+package test.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.musicquint.api.Bar;
+import com.musicquint.api.BarTime;
+import com.musicquint.api.Part;
+import com.musicquint.api.Score;
+import com.musicquint.io.BarFactory;
+import com.musicquint.io.ContentFactory;
+import com.musicquint.io.MusicXMLImporter;
+import com.musicquint.io.PartFactory;
+import com.musicquint.io.ScoreFactory;
+import com.musicquint.io.VoiceFactory;
+import com.musicquint.io.XMLTag;
+import com.musicquint.io.XMLTag.TagType;
+
+class MusicXMLImporterTest {
+
+    private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE score-partwise PUBLIC \"-//Recordare//DTD MusicXML 3.1 Partwise//EN\""
+            + " \"http://www.musicxml.org/dtds/partwise.dtd\">\n"
+            + "<score-partwise version=\"3.1\">\n"
+            + "  <work><work-title>Minuet</work-title></work>\n"
+            + "  <part-list><score-part id=\"P1\"><part-name>Piano</part-name></score-part></part-list>\n"
+            + "  <part id=\"P1\">\n"
+            + "    <measure number=\"1\">\n"
+            + "      <attributes><divisions>2</divisions>\n"
+            + "        <time><beats>3</beats><beat-type>4</beat-type></time></attributes>\n"
+            + "      <note><pitch><step>D</step><octave>5</octave></pitch><duration>3</duration>"
+            + "<voice>1</voice><dot/></note>\n"
+            + "      <note><pitch><step>F</step><alter>1</alter><octave>4</octave></pitch><duration>1</duration>"
+            + "<voice>1</voice></note>\n"
+            + "      <note><chord/><pitch><step>A</step><octave>4</octave></pitch><duration>1</duration>"
+            + "<voice>1</voice></note>\n"
+            + "      <note><rest/><duration>2</duration><voice>1</voice></note>\n"
+            + "    </measure>\n"
+            + "  </part>\n"
+            + "</score-partwise>\n";
+
+    @Test
+    void testEventsAreDispatched() throws XMLStreamException {
+        RecordingFactory factory = new RecordingFactory();
+        MusicXMLImporter importer = new MusicXMLImporter(() -> factory);
+
+        importer.importScore(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("title Minuet", "partName Piano", "createPart", "createBar", "divisor 2", "beats 3",
+                "beatType 4", "createContent", "step D", "octave 5", "duration 3", "voice 1", "dot",
+                "finishContent", "createContent", "step F", "alter 1", "octave 4", "duration 1", "voice 1",
+                "finishContent", "createContent", "chord", "step A", "octave 4", "duration 1", "voice 1",
+                "finishContent", "createContent", "rest", "duration 2", "voice 1", "finishContent", "finishBar",
+                "finishPart", "build"), factory.events);
+    }
+
+    @Test
+    void testDecimalAlterAndCompositeBeats() throws XMLStreamException {
+        RecordingFactory factory = new RecordingFactory();
+        String document = "<score-partwise><part><measure><attributes>"
+                + "<time><beats>3+2</beats><beat-type>8</beat-type></time></attributes>"
+                + "<note><pitch><step>E</step><alter>-0.5</alter><octave>4</octave></pitch></note>"
+                + "</measure></part></score-partwise>";
+
+        new MusicXMLImporter(() -> factory)
+                .importScore(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("createPart", "createBar", "beats 3+2", "beatType 8", "createContent", "step E",
+                "alter -0.5", "octave 4", "finishContent", "finishBar", "finishPart", "build"), factory.events);
+    }
+
+    @Test
+    void testStatistics() throws XMLStreamException {
+        byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        MusicXMLImporter importer = new MusicXMLImporter(RecordingFactory::new);
+
+        importer.importScore(new ByteArrayInputStream(bytes));
+
+        assertEquals(bytes.length, importer.getStatistics().getBytes());
+        assertEquals(4, importer.getStatistics().getNotes());
+    }
+
+    @Test
+    void testInvalidInteger() {
+        String document = "<score-partwise><part><measure><attributes><divisions>two</divisions>"
+                + "</attributes></measure></part></score-partwise>";
+        MusicXMLImporter importer = new MusicXMLImporter(RecordingFactory::new);
+
+        XMLStreamException e = assertThrows(XMLStreamException.class,
+                () -> importer.importScore(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(NumberFormatException.class, e.getNestedException().getClass());
+    }
+
+    @Test
+    void testMappedImport(@TempDir Path directory) throws IOException, XMLStreamException {
+        Path path = directory.resolve("minuet.xml");
+        Files.writeString(path, DOCUMENT);
+        RecordingFactory streamFactory = new RecordingFactory();
+        RecordingFactory mappedFactory = new RecordingFactory();
+        new MusicXMLImporter(() -> streamFactory).importScore(path);
+        MusicXMLImporter importer = new MusicXMLImporter(() -> mappedFactory);
+
+        importer.importScoreMapped(path);
+
+        assertEquals(streamFactory.events, mappedFactory.events);
+        assertEquals(4, importer.getStatistics().getNotes());
+    }
+
+    @Test
+    void testMappedImportOfText(@TempDir Path directory) throws IOException, XMLStreamException {
+        Path path = directory.resolve("text.xml");
+        Files.writeString(path, "<score-partwise><work><work-title> Bach &amp; Sons<![CDATA[ <1>]]>&#x21; "
+                + "</work-title></work><part><measure><attributes><divisions> +4 </divisions></attributes>"
+                + "</measure></part></score-partwise>");
+        RecordingFactory factory = new RecordingFactory();
+
+        new MusicXMLImporter(() -> factory).importScoreMapped(path);
+
+        assertEquals(List.of("title Bach & Sons <1>!", "createPart", "createBar", "divisor 4", "finishBar",
+                "finishPart", "build"), factory.events);
+    }
+
+    @Test
+    void testMappedImportOfMalformedDocument(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("malformed.xml");
+        Files.writeString(path, "<score-partwise><part><measure></part></measure></score-partwise>");
+        MusicXMLImporter importer = new MusicXMLImporter(RecordingFactory::new);
+
+        XMLStreamException e = assertThrows(XMLStreamException.class, () -> importer.importScoreMapped(path));
+        assertEquals("The end tag part does not match the start tag at byte 31.", e.getMessage());
+    }
+
+    @Test
+    void testMappedImportOfInvalidInteger(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("invalid.xml");
+        Files.writeString(path, "<score-partwise><part><measure><attributes><divisions>99999999999</divisions>"
+                + "</attributes></measure></part></score-partwise>");
+        MusicXMLImporter importer = new MusicXMLImporter(RecordingFactory::new);
+
+        XMLStreamException e = assertThrows(XMLStreamException.class, () -> importer.importScoreMapped(path));
+        assertEquals(NumberFormatException.class, e.getNestedException().getClass());
+    }
+
+    @Test
+    void testParallelImport(@TempDir Path directory) throws IOException, XMLStreamException {
+        String part = "<measure number=\"1\"><note><rest/><duration>4</duration></note></measure>";
+        String document = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<score-partwise version=\"3.1\">"
+                + "<work><work-title>Trio</work-title></work><part-list>"
+                + "<score-part id=\"P1\"><part-name>Violin</part-name></score-part></part-list>"
+                + "<!-- <part id=\"P0\"> --><part id=\"P1\">" + part + "</part>\n"
+                + "<part id='>P2'><![CDATA[</part>]]>" + part + part + "</part >\n"
+                + "<part id=\"P3\"/></score-partwise>";
+        Path path = directory.resolve("trio.xml");
+        Files.writeString(path, document);
+        RecordingFactory factory = new RecordingFactory();
+        MusicXMLImporter importer = new MusicXMLImporter(() -> factory);
+
+        importer.importScoreInParallel(path);
+
+        String bar = "createBar,createContent,rest,duration 4,finishContent,finishBar";
+        assertEquals(List.of("title Trio", "partName Violin", "part " + bar, "part " + bar + "," + bar, "part ",
+                "build"), factory.events);
+        assertEquals(3, importer.getStatistics().getNotes());
+        assertEquals(Files.size(path), importer.getStatistics().getBytes());
+    }
+
+    @Test
+    void testParallelImportOfTimewiseScore(@TempDir Path directory) throws IOException, XMLStreamException {
+        String document = "<score-timewise><measure><part><note/></part></measure></score-timewise>";
+        Path path = directory.resolve("timewise.xml");
+        Files.writeString(path, document);
+        RecordingFactory factory = new RecordingFactory();
+
+        new MusicXMLImporter(() -> factory).importScoreInParallel(path);
+
+        assertEquals(List.of("createBar", "createPart", "createContent", "finishContent", "finishPart", "finishBar"),
+                factory.events);
+    }
+
+    @Test
+    void testAnnotationsOfFactoryClass() throws XMLStreamException {
+        ComposerRecordingFactory factory = new ComposerRecordingFactory();
+        String document = "<score-partwise><identification><creator type=\"composer\">J. S. Bach</creator>"
+                + "</identification></score-partwise>";
+
+        new MusicXMLImporter(() -> factory)
+                .importScore(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("composer J. S. Bach", "build"), factory.events);
+    }
+
+    public interface ComposerFactory extends ScoreFactory {
+
+        @XMLTag(tagName = "creator", tagType = TagType.CHARACTER_TAG, parent = "identification")
+        void setComposer(String composer);
+    }
+
+    private static class ComposerRecordingFactory extends RecordingFactory implements ComposerFactory {
+
+        @Override
+        public void setComposer(String composer) {
+            events.add("composer " + composer);
+        }
+    }
+
+    private static class RecordingFactory implements ScoreFactory {
+
+        final List<String> events = new ArrayList<>();
+
+        private final RecordingPartFactory partFactory = new RecordingPartFactory(events);
+
+        @Override
+        public Score build() {
+            events.add("build");
+            return null;
+        }
+
+        @Override
+        public void setTitle(String string) {
+            events.add("title " + string);
+        }
+
+        @Override
+        public void addPartName(String partName) {
+            events.add("partName " + partName);
+        }
+
+        @Override
+        public void createPart() {
+            events.add("createPart");
+        }
+
+        @Override
+        public void finishPart() {
+            events.add("finishPart");
+        }
+
+        @Override
+        public PartFactory getPartFactory() {
+            return partFactory;
+        }
+
+        @Override
+        public PartFactory newPartFactory() {
+            return new RecordingPartFactory(new ArrayList<>());
+        }
+
+        @Override
+        public void addPart(Part part) {
+            events.add("part " + part.getPartName());
+        }
+    }
+
+    private static class RecordingPartFactory implements PartFactory, BarFactory, VoiceFactory, ContentFactory {
+
+        private final List<String> events;
+
+        private RecordingPartFactory(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public Part build() {
+            RecordedPart part = new RecordedPart();
+            part.setPartName(String.join(",", events));
+            return part;
+        }
+
+        @Override
+        public BarFactory getBarFactory() {
+            return this;
+        }
+
+        @Override
+        public void setDivisor(int divisor) {
+            events.add("divisor " + divisor);
+        }
+
+        @Override
+        public void createBar() {
+            events.add("createBar");
+        }
+
+        @Override
+        public void finishBar() {
+            events.add("finishBar");
+        }
+
+        @Override
+        public VoiceFactory getVoiceFactory() {
+            return this;
+        }
+
+        @Override
+        public void setBeats(String beats) {
+            events.add("beats " + beats);
+        }
+
+        @Override
+        public void setBeatType(int beatType) {
+            events.add("beatType " + beatType);
+        }
+
+        @Override
+        public ContentFactory getContentFactory() {
+            return this;
+        }
+
+        @Override
+        public void createContent() {
+            events.add("createContent");
+        }
+
+        @Override
+        public void finishContent() {
+            events.add("finishContent");
+        }
+
+        @Override
+        public void setVoice(int voice) {
+            events.add("voice " + voice);
+        }
+
+        @Override
+        public void setChord() {
+            events.add("chord");
+        }
+
+        @Override
+        public void setDuration(int numerator) {
+            events.add("duration " + numerator);
+        }
+
+        @Override
+        public void setDuration(BarTime duration) {
+            events.add("duration " + duration);
+        }
+
+        @Override
+        public void increaseDots() {
+            events.add("dot");
+        }
+
+        @Override
+        public void setDots(int dots) {
+            events.add("dots " + dots);
+        }
+
+        @Override
+        public void setStep(String step) {
+            events.add("step " + step);
+        }
+
+        @Override
+        public void setAlter(String alter) {
+            events.add("alter " + alter);
+        }
+
+        @Override
+        public void setOctave(int octave) {
+            events.add("octave " + octave);
+        }
+
+        @Override
+        public void setRest() {
+            events.add("rest");
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class RecordedPart extends ArrayList<Bar> implements Part {
+
+        private String partName;
+
+        @Override
+        public String getPartName() {
+            return partName;
+        }
+
+        @Override
+        public void setPartName(String partName) {
+            this.partName = partName;
+        }
+    }
+}